@@ -4,6 +4,7 @@ plugins {
     id("org.springframework.boot") version "3.4.2"
     id("io.spring.dependency-management") version "1.1.7"
     id("org.sonarqube") version "4.3.1.3277"
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "id.ac.ui.cs.advprog"
@@ -30,6 +31,11 @@ configurations {
     }
 }
 
+// Third-party CSS/JS copied out of webjars into static/vendor, so pages work offline
+val staticAssets: Configuration by configurations.creating {
+    isTransitive = false
+}
+
 repositories {
     mavenCentral()
 }
@@ -38,11 +44,17 @@ val seleniumJavaVersion = "4.14.1"
 val seleniumJupiterVersion = "5.0.1"
 val webdrivermanagerVersion = "5.6.3"
 val junitJupiterVersion = "5.9.1"
+val bootstrapVersion = "4.1.3"
 
 dependencies {
     implementation("org.springframework.boot:spring-boot-starter-thymeleaf")
     implementation("org.springframework.boot:spring-boot-starter-web")
+    implementation("org.springframework.boot:spring-boot-starter-actuator")
+    implementation("org.springframework.boot:spring-boot-starter-aop")
+    implementation("io.projectreactor:reactor-core")
+    implementation("com.fasterxml.jackson.dataformat:jackson-dataformat-csv")
     compileOnly("org.projectlombok:lombok")
+    runtimeOnly("io.micrometer:micrometer-registry-prometheus")
     developmentOnly("org.springframework.boot:spring-boot-devtools")
     annotationProcessor("org.springframework.boot:spring-boot-configuration-processor")
     annotationProcessor("org.projectlombok:lombok")
@@ -52,6 +64,40 @@ dependencies {
     testImplementation("io.github.bonigarcia:webdrivermanager:$webdrivermanagerVersion")
     testImplementation("org.junit.jupiter:junit-jupiter:$junitJupiterVersion")
     testImplementation("org.mockito:mockito-core:5.10.0")
+    jmh("org.springframework:spring-test")
+    staticAssets("org.webjars:bootstrap:$bootstrapVersion")
+}
+
+val bundleStaticAssets by tasks.registering(Sync::class) {
+    description = "Copies the vendored stylesheets out of their webjars."
+    from({ staticAssets.map { zipTree(it) } }) {
+        include("META-INF/resources/webjars/bootstrap/$bootstrapVersion/css/bootstrap.min.css*")
+        eachFile { path = "static/vendor/bootstrap/css/$name" }
+        includeEmptyDirs = false
+    }
+    into(layout.buildDirectory.dir("generated/static-assets"))
+}
+
+sourceSets.main {
+    resources.srcDir(bundleStaticAssets)
+}
+
+// A .gz beside each text asset, served instead of compressing on every request
+// (spring.web.resources.chain.compressed); .br files placed there are picked up too
+tasks.named<ProcessResources>("processResources") {
+    doLast {
+        fileTree(destinationDir.resolve("static")) {
+            include("**/*.css", "**/*.js", "**/*.svg", "**/*.map")
+        }.forEach { asset ->
+            asset.resolveSibling(asset.name + ".gz").outputStream().use { out ->
+                object : java.util.zip.GZIPOutputStream(out) {
+                    init {
+                        def.setLevel(java.util.zip.Deflater.BEST_COMPRESSION)
+                    }
+                }.use { gzip -> asset.inputStream().use { it.copyTo(gzip) } }
+            }
+        }
+    }
 }
 
 tasks.register<Test>("unitTest") {
@@ -60,6 +106,7 @@ tasks.register<Test>("unitTest") {
 
     filter {
         excludeTestsMatching("*FunctionalTest")
+        excludeTestsMatching("*LoadTest")
     }
 }
 
@@ -72,6 +119,27 @@ tasks.register<Test>("functionalTest") {
     }
 }
 
+jmh {
+    jmhVersion.set("1.37")
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("reports/jmh/results.json"))
+    // e.g. ./gradlew jmh -Pjmh.includes=ProductRepository
+    (project.findProperty("jmh.includes") as String?)?.let { includes.set(listOf(it)) }
+}
+
+tasks.register<Test>("loadTest") {
+    description = "Runs load tests against an embedded server."
+    group = "verification"
+    // e.g. ./gradlew loadTest -Pload.threads=platform,virtual -Pload.concurrency=2000 -Pload.maxP99Ms=50
+    systemProperty("load.report", layout.buildDirectory.file("reports/load/catalogue.json").get().asFile.path)
+    systemProperties(project.properties.filterKeys { it.startsWith("load.") })
+    outputs.upToDateWhen { false }
+
+    filter {
+        includeTestsMatching("*LoadTest")
+    }
+}
+
 tasks.withType<Test>().configureEach {
     useJUnitPlatform()
 }
@@ -79,6 +147,7 @@ tasks.withType<Test>().configureEach {
 tasks.named<Test>("test") {
     filter {
         excludeTestsMatching("*FunctionalTest")
+        excludeTestsMatching("*LoadTest")
     }
     finalizedBy("jacocoTestReport") // Ensure JaCoCo always runs
 }
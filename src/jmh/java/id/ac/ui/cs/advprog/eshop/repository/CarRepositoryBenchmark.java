@@ -0,0 +1,137 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.model.Page;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Iterator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CarRepositoryBenchmark {
+
+    private static final String[] COLORS = {"Red", "Blue", "Black", "White", "Silver"};
+
+    @Param({"1000", "100000", "1000000"})
+    private int catalogueSize;
+
+    private CarRepository carRepository;
+    private String[] carIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        carRepository = new CarRepository();
+        carIds = new String[catalogueSize];
+        for (int i = 0; i < catalogueSize; i++) {
+            carIds[i] = carRepository.create(car(null, i)).getCarId();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+        private long created;
+
+        @Setup(Level.Trial)
+        public void spread() {
+            // Threads start at different keys so concurrent runs measure the store, not one hot bin
+            next = ThreadLocalRandom.current().nextInt(Integer.MAX_VALUE);
+        }
+
+        String nextId(String[] ids) {
+            next = (next + 1) % ids.length;
+            return ids[next];
+        }
+    }
+
+    @Benchmark
+    public Car findById(Cursor cursor) {
+        return carRepository.findById(cursor.nextId(carIds));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Car findByIdConcurrent(Cursor cursor) {
+        return carRepository.findById(cursor.nextId(carIds));
+    }
+
+    @Benchmark
+    public Car update(Cursor cursor) {
+        String carId = cursor.nextId(carIds);
+        return carRepository.update(carId, car(carId, cursor.next));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Car updateConcurrent(Cursor cursor) {
+        String carId = cursor.nextId(carIds);
+        return carRepository.update(carId, car(carId, cursor.next));
+    }
+
+    // Adds and removes the same amount so stock never runs out during long runs
+    @Benchmark
+    @Threads(4)
+    public Car adjustQuantityConcurrent(Cursor cursor) {
+        String carId = cursor.nextId(carIds);
+        carRepository.adjustQuantity(carId, 1);
+        return carRepository.adjustQuantity(carId, -1);
+    }
+
+    // Paired so the catalogue size stays at the configured value across iterations
+    @Benchmark
+    public void createAndDelete(Cursor cursor) {
+        String carId = "bench-" + Thread.currentThread().getId() + "-" + cursor.created++;
+        carRepository.create(car(carId, 1));
+        carRepository.delete(carId);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void createAndDeleteConcurrent(Cursor cursor) {
+        String carId = "bench-" + Thread.currentThread().getId() + "-" + cursor.created++;
+        carRepository.create(car(carId, 1));
+        carRepository.delete(carId);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void findAll(Blackhole blackhole) {
+        Iterator<Car> cars = carRepository.findAll();
+        while (cars.hasNext()) {
+            blackhole.consume(cars.next());
+        }
+    }
+
+    @Benchmark
+    public Page<Car> findFirstPage() {
+        return carRepository.findPage(null, 20);
+    }
+
+    private static Car car(String carId, int quantity) {
+        Car car = new Car();
+        car.setCarId(carId);
+        car.setCarName("Car " + quantity);
+        car.setCarColor(COLORS[quantity % COLORS.length]);
+        car.setCarQuantity(quantity);
+        return car;
+    }
+}
@@ -0,0 +1,125 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import id.ac.ui.cs.advprog.eshop.model.Page;
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Iterator;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductRepositoryBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int catalogueSize;
+
+    private ProductRepository productRepository;
+    private String[] productIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        productRepository = new ProductRepository();
+        productIds = new String[catalogueSize];
+        for (int i = 0; i < catalogueSize; i++) {
+            productIds[i] = UUID.randomUUID().toString();
+            productRepository.create(product(productIds[i], i));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+        private long created;
+
+        @Setup(Level.Trial)
+        public void spread() {
+            // Threads start at different keys so concurrent runs measure the store, not one hot bin
+            next = ThreadLocalRandom.current().nextInt(Integer.MAX_VALUE);
+        }
+
+        String nextId(String[] ids) {
+            next = (next + 1) % ids.length;
+            return ids[next];
+        }
+    }
+
+    @Benchmark
+    public Product findById(Cursor cursor) {
+        return productRepository.findById(cursor.nextId(productIds));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Product findByIdConcurrent(Cursor cursor) {
+        return productRepository.findById(cursor.nextId(productIds));
+    }
+
+    @Benchmark
+    public void update(Cursor cursor) {
+        productRepository.update(product(cursor.nextId(productIds), cursor.next));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void updateConcurrent(Cursor cursor) {
+        productRepository.update(product(cursor.nextId(productIds), cursor.next));
+    }
+
+    // Paired so the catalogue size stays at the configured value across iterations
+    @Benchmark
+    public void createAndDelete(Cursor cursor) {
+        String productId = "bench-" + Thread.currentThread().getId() + "-" + cursor.created++;
+        productRepository.create(product(productId, 1));
+        productRepository.delete(productId);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void createAndDeleteConcurrent(Cursor cursor) {
+        String productId = "bench-" + Thread.currentThread().getId() + "-" + cursor.created++;
+        productRepository.create(product(productId, 1));
+        productRepository.delete(productId);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void findAll(Blackhole blackhole) {
+        Iterator<Product> products = productRepository.findAll();
+        while (products.hasNext()) {
+            blackhole.consume(products.next());
+        }
+    }
+
+    @Benchmark
+    public Page<Product> findFirstPage() {
+        return productRepository.findPage(null, 20);
+    }
+
+    private static Product product(String productId, int quantity) {
+        Product product = new Product();
+        product.setProductId(productId);
+        product.setProductName("Product " + quantity);
+        product.setProductQuantity(quantity);
+        return product;
+    }
+}
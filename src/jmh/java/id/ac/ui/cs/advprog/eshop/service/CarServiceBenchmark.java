@@ -0,0 +1,124 @@
+package id.ac.ui.cs.advprog.eshop.service;
+
+import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.model.Page;
+import id.ac.ui.cs.advprog.eshop.repository.CarRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CarServiceBenchmark {
+
+    private static final String[] COLORS = {"Red", "Blue", "Black", "White", "Silver"};
+
+    @Param({"1000", "100000", "1000000"})
+    private int catalogueSize;
+
+    private CarServiceImpl carService;
+    private String[] carIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        carService = new CarServiceImpl();
+        ReflectionTestUtils.setField(carService, "carRepository", new CarRepository());
+        carIds = new String[catalogueSize];
+        for (int i = 0; i < catalogueSize; i++) {
+            carIds[i] = carService.create(car(null, i)).getCarId();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+
+        @Setup(Level.Trial)
+        public void spread() {
+            // Threads start at different keys so concurrent runs measure the store, not one hot bin
+            next = ThreadLocalRandom.current().nextInt(Integer.MAX_VALUE);
+        }
+
+        String nextId(String[] ids) {
+            next = (next + 1) % ids.length;
+            return ids[next];
+        }
+    }
+
+    @Benchmark
+    public Car findById(Cursor cursor) {
+        return carService.findById(cursor.nextId(carIds));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Car findByIdConcurrent(Cursor cursor) {
+        return carService.findById(cursor.nextId(carIds));
+    }
+
+    @Benchmark
+    public void update(Cursor cursor) {
+        String carId = cursor.nextId(carIds);
+        carService.update(carId, car(carId, cursor.next));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void updateConcurrent(Cursor cursor) {
+        String carId = cursor.nextId(carIds);
+        carService.update(carId, car(carId, cursor.next));
+    }
+
+    // Paired so the catalogue size stays at the configured value across iterations
+    @Benchmark
+    public void createAndDelete() {
+        Car created = carService.create(car(null, 1));
+        carService.deleteCarById(created.getCarId());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void createAndDeleteConcurrent() {
+        Car created = carService.create(car(null, 1));
+        carService.deleteCarById(created.getCarId());
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<Car> findAll() {
+        return carService.findAll();
+    }
+
+    @Benchmark
+    public Page<Car> findFirstPage() {
+        return carService.findPage(0, 20);
+    }
+
+    private static Car car(String carId, int quantity) {
+        Car car = new Car();
+        car.setCarId(carId);
+        car.setCarName("Car " + quantity);
+        car.setCarColor(COLORS[quantity % COLORS.length]);
+        car.setCarQuantity(quantity);
+        return car;
+    }
+}
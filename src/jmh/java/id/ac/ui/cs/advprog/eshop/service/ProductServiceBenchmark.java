@@ -0,0 +1,119 @@
+package id.ac.ui.cs.advprog.eshop.service;
+
+import id.ac.ui.cs.advprog.eshop.model.Page;
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.repository.ProductRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductServiceBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int catalogueSize;
+
+    private ProductServiceImpl productService;
+    private String[] productIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        productService = new ProductServiceImpl();
+        ReflectionTestUtils.setField(productService, "productRepository", new ProductRepository());
+        productIds = new String[catalogueSize];
+        for (int i = 0; i < catalogueSize; i++) {
+            productIds[i] = productService.create(product(null, i)).getProductId();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+
+        @Setup(Level.Trial)
+        public void spread() {
+            // Threads start at different keys so concurrent runs measure the store, not one hot bin
+            next = ThreadLocalRandom.current().nextInt(Integer.MAX_VALUE);
+        }
+
+        String nextId(String[] ids) {
+            next = (next + 1) % ids.length;
+            return ids[next];
+        }
+    }
+
+    @Benchmark
+    public Product findById(Cursor cursor) {
+        return productService.findById(cursor.nextId(productIds));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Product findByIdConcurrent(Cursor cursor) {
+        return productService.findById(cursor.nextId(productIds));
+    }
+
+    @Benchmark
+    public void update(Cursor cursor) {
+        productService.update(product(cursor.nextId(productIds), cursor.next));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void updateConcurrent(Cursor cursor) {
+        productService.update(product(cursor.nextId(productIds), cursor.next));
+    }
+
+    // Paired so the catalogue size stays at the configured value across iterations
+    @Benchmark
+    public void createAndDelete() {
+        Product created = productService.create(product(null, 1));
+        productService.delete(created.getProductId());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void createAndDeleteConcurrent() {
+        Product created = productService.create(product(null, 1));
+        productService.delete(created.getProductId());
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<Product> findAll() {
+        return productService.findAll();
+    }
+
+    @Benchmark
+    public Page<Product> findFirstPage() {
+        return productService.findPage(0, 20);
+    }
+
+    private static Product product(String productId, int quantity) {
+        Product product = new Product();
+        product.setProductId(productId);
+        product.setProductName("Product " + quantity);
+        product.setProductQuantity(quantity);
+        return product;
+    }
+}
@@ -0,0 +1,39 @@
+package id.ac.ui.cs.advprog.eshop.analytics;
+
+import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.repository.CarRepository;
+import id.ac.ui.cs.advprog.eshop.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Running stats per repository, registered as listeners and then seeded with what
+ * the repository already holds (for example a restored catalogue).
+ */
+@Configuration
+public class AnalyticsConfig {
+    public static final StatsDefinition<Product> PRODUCT_STATS =
+            new StatsDefinition<>(Product::getProductId, Product::getProductQuantity);
+    public static final StatsDefinition<Car> CAR_STATS =
+            new StatsDefinition<>(Car::getCarId, Car::getCarQuantity, "carColor", Car::getCarColor);
+
+    @Bean
+    public RunningStats<Product> productStats(ProductRepository productRepository,
+                                              @Value("${eshop.stats.low-stock-threshold:5}") int lowStockThreshold) {
+        RunningStats<Product> stats = new RunningStats<>(PRODUCT_STATS, lowStockThreshold);
+        productRepository.addListener(stats);
+        stats.seed(productRepository.findAll());
+        return stats;
+    }
+
+    @Bean
+    public RunningStats<Car> carStats(CarRepository carRepository,
+                                      @Value("${eshop.stats.low-stock-threshold:5}") int lowStockThreshold) {
+        RunningStats<Car> stats = new RunningStats<>(CAR_STATS, lowStockThreshold);
+        carRepository.addListener(stats);
+        stats.seed(carRepository.findAll());
+        return stats;
+    }
+}
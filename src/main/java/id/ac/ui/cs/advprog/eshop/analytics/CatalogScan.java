@@ -0,0 +1,77 @@
+package id.ac.ui.cs.advprog.eshop.analytics;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.IntStream;
+
+/**
+ * Computes stats from scratch over a list of items. Large lists are split across
+ * the common fork-join pool; each worker tallies its range into primitive counters
+ * and a private group map, and the partial tallies are merged at the end, so
+ * nothing is boxed per item and no worker contends with another.
+ */
+public final class CatalogScan {
+    private static final int PARALLEL_THRESHOLD = 10_000;
+
+    private CatalogScan() {
+    }
+
+    /** The list must support fast random access, like a repository snapshot. */
+    public static <T> CatalogStats of(List<T> items, StatsDefinition<T> definition, int lowStockThreshold) {
+        IntStream indexes = IntStream.range(0, items.size());
+        if (items.size() >= PARALLEL_THRESHOLD) {
+            indexes = indexes.parallel();
+        }
+        Tally tally = indexes.collect(Tally::new, (partial, i) -> {
+            T item = items.get(i);
+            partial.add(definition.isGrouped() ? definition.groupOf(item) : null,
+                    definition.quantityOf(item), lowStockThreshold);
+        }, Tally::merge);
+        return tally.toStats(definition, lowStockThreshold);
+    }
+
+    private static final class Tally {
+        private long count;
+        private long totalQuantity;
+        private long lowStock;
+        // group -> {count, quantity}
+        private final Map<String, long[]> groups = new HashMap<>();
+
+        void add(String group, int quantity, int lowStockThreshold) {
+            count++;
+            totalQuantity += quantity;
+            if (quantity <= lowStockThreshold) {
+                lowStock++;
+            }
+            if (group != null) {
+                long[] totals = groups.computeIfAbsent(group, key -> new long[2]);
+                totals[0]++;
+                totals[1] += quantity;
+            }
+        }
+
+        void merge(Tally other) {
+            count += other.count;
+            totalQuantity += other.totalQuantity;
+            lowStock += other.lowStock;
+            other.groups.forEach((group, totals) -> {
+                long[] mine = groups.computeIfAbsent(group, key -> new long[2]);
+                mine[0] += totals[0];
+                mine[1] += totals[1];
+            });
+        }
+
+        CatalogStats toStats(StatsDefinition<?> definition, int lowStockThreshold) {
+            Map<String, Long> countByGroup = new TreeMap<>();
+            Map<String, Long> quantityByGroup = new TreeMap<>();
+            groups.forEach((group, totals) -> {
+                countByGroup.put(group, totals[0]);
+                quantityByGroup.put(group, totals[1]);
+            });
+            return new CatalogStats(count, totalQuantity, lowStock, lowStockThreshold, definition.groupedBy(),
+                    countByGroup, quantityByGroup);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package id.ac.ui.cs.advprog.eshop.analytics;
+
+import lombok.Getter;
+
+import java.util.Map;
+
+/** Inventory totals for one repository. Group maps are empty when the items have no grouping field. */
+@Getter
+public class CatalogStats {
+    private final long count;
+    private final long totalQuantity;
+    private final long lowStock;
+    private final int lowStockThreshold;
+    private final String groupedBy;
+    private final Map<String, Long> countByGroup;
+    private final Map<String, Long> quantityByGroup;
+
+    public CatalogStats(long count, long totalQuantity, long lowStock, int lowStockThreshold, String groupedBy,
+                        Map<String, Long> countByGroup, Map<String, Long> quantityByGroup) {
+        this.count = count;
+        this.totalQuantity = totalQuantity;
+        this.lowStock = lowStock;
+        this.lowStockThreshold = lowStockThreshold;
+        this.groupedBy = groupedBy;
+        this.countByGroup = countByGroup;
+        this.quantityByGroup = quantityByGroup;
+    }
+}
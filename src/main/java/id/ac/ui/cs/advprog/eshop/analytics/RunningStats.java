@@ -0,0 +1,132 @@
+package id.ac.ui.cs.advprog.eshop.analytics;
+
+import id.ac.ui.cs.advprog.eshop.repository.ChangeListener;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Stats kept up to date from a repository's change events, so reading them costs
+ * the same however large the catalogue is. The last seen group and quantity of
+ * every id are remembered, and each save or delete applies only the difference.
+ * Repositories call listeners with the id locked, so changes to one id arrive in
+ * order; totals read while writes are landing may be mid-update by those writes.
+ */
+public class RunningStats<T> implements ChangeListener<T> {
+    private final StatsDefinition<T> definition;
+    private final int lowStockThreshold;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalQuantity = new LongAdder();
+    private final LongAdder lowStock = new LongAdder();
+    private final Map<String, LongAdder> countByGroup = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> quantityByGroup = new ConcurrentHashMap<>();
+    // Ids deleted since seed started, only while it runs
+    private volatile Set<String> deletedWhileSeeding;
+
+    public RunningStats(StatsDefinition<T> definition, int lowStockThreshold) {
+        this.definition = definition;
+        this.lowStockThreshold = lowStockThreshold;
+    }
+
+    /**
+     * Counts items already in the repository, with this already registered as its
+     * listener. The iterator may hand out an item that has changed or gone since,
+     * so an item only counts if no event has been seen for its id in the meantime.
+     */
+    public void seed(Iterator<T> items) {
+        Set<String> deleted = ConcurrentHashMap.newKeySet();
+        deletedWhileSeeding = deleted;
+        try {
+            items.forEachRemaining(item -> {
+                Entry entry = entryOf(item);
+                boolean[] added = new boolean[1];
+                entries.compute(definition.idOf(item), (id, current) -> {
+                    if (current != null || deleted.contains(id)) {
+                        return current;
+                    }
+                    added[0] = true;
+                    return entry;
+                });
+                if (added[0]) {
+                    apply(entry, 1);
+                }
+            });
+        } finally {
+            deletedWhileSeeding = null;
+        }
+    }
+
+    private Entry entryOf(T item) {
+        return new Entry(definition.isGrouped() ? definition.groupOf(item) : null, definition.quantityOf(item));
+    }
+
+    @Override
+    public void onSave(T item) {
+        Entry entry = entryOf(item);
+        Entry previous = entries.put(definition.idOf(item), entry);
+        if (previous != null) {
+            apply(previous, -1);
+        }
+        apply(entry, 1);
+    }
+
+    @Override
+    public void onDelete(String id) {
+        // Recorded before the removal, so a seed that has not yet reached the id skips it
+        Set<String> deleted = deletedWhileSeeding;
+        if (deleted != null) {
+            deleted.add(id);
+        }
+        Entry previous = entries.remove(id);
+        if (previous != null) {
+            apply(previous, -1);
+        }
+    }
+
+    private void apply(Entry entry, int sign) {
+        count.add(sign);
+        totalQuantity.add((long) sign * entry.quantity);
+        if (entry.quantity <= lowStockThreshold) {
+            lowStock.add(sign);
+        }
+        if (entry.group != null) {
+            countByGroup.computeIfAbsent(entry.group, group -> new LongAdder()).add(sign);
+            quantityByGroup.computeIfAbsent(entry.group, group -> new LongAdder()).add((long) sign * entry.quantity);
+        }
+    }
+
+    public int getLowStockThreshold() {
+        return lowStockThreshold;
+    }
+
+    public CatalogStats stats() {
+        Map<String, Long> counts = new TreeMap<>();
+        Map<String, Long> quantities = new TreeMap<>();
+        countByGroup.forEach((group, groupCount) -> {
+            long sum = groupCount.sum();
+            // Emptied groups keep their counters, which may be bumped again at any moment
+            if (sum > 0) {
+                counts.put(group, sum);
+                LongAdder quantity = quantityByGroup.get(group);
+                quantities.put(group, quantity == null ? 0 : quantity.sum());
+            }
+        });
+        return new CatalogStats(count.sum(), totalQuantity.sum(), lowStock.sum(), lowStockThreshold,
+                definition.groupedBy(), counts, quantities);
+    }
+
+    private static final class Entry {
+        private final String group;
+        private final int quantity;
+
+        private Entry(String group, int quantity) {
+            this.group = group;
+            this.quantity = quantity;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package id.ac.ui.cs.advprog.eshop.analytics;
+
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * What to aggregate for one kind of item: its id, its stock quantity and,
+ * optionally, the field to group by. Items with no value for that field fall in
+ * the {@value #NO_GROUP} group.
+ */
+public final class StatsDefinition<T> {
+    static final String NO_GROUP = "(none)";
+
+    private final Function<T, String> idOf;
+    private final ToIntFunction<T> quantityOf;
+    private final String groupedBy;
+    private final Function<T, String> groupOf;
+
+    public StatsDefinition(Function<T, String> idOf, ToIntFunction<T> quantityOf) {
+        this(idOf, quantityOf, null, null);
+    }
+
+    public StatsDefinition(Function<T, String> idOf, ToIntFunction<T> quantityOf,
+                           String groupedBy, Function<T, String> groupOf) {
+        this.idOf = idOf;
+        this.quantityOf = quantityOf;
+        this.groupedBy = groupedBy;
+        this.groupOf = groupOf;
+    }
+
+    String idOf(T item) {
+        return idOf.apply(item);
+    }
+
+    int quantityOf(T item) {
+        return quantityOf.applyAsInt(item);
+    }
+
+    String groupedBy() {
+        return groupedBy;
+    }
+
+    boolean isGrouped() {
+        return groupOf != null;
+    }
+
+    String groupOf(T item) {
+        String group = groupOf.apply(item);
+        return group == null ? NO_GROUP : group;
+    }
+}
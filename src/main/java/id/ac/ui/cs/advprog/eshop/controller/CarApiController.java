@@ -0,0 +1,74 @@
+package id.ac.ui.cs.advprog.eshop.controller;
+
+import id.ac.ui.cs.advprog.eshop.model.BatchOperation;
+import id.ac.ui.cs.advprog.eshop.model.BatchResult;
+import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.service.CarService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/cars")
+public class CarApiController {
+
+    @Autowired
+    private CarService service;
+
+    @GetMapping(produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<Car> findAll() {
+        return Flux.fromIterable(() -> service.iterateAll());
+    }
+
+    @GetMapping("/{carId}")
+    public Mono<ResponseEntity<Car>> findById(@PathVariable String carId) {
+        return Mono.fromCallable(() -> service.findById(carId))
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<Car>> create(@RequestBody Car car) {
+        return Mono.fromCallable(() -> service.create(car))
+                .map(created -> ResponseEntity.status(HttpStatus.CREATED).body(created));
+    }
+
+    @PutMapping("/{carId}")
+    public Mono<ResponseEntity<Car>> update(@PathVariable String carId, @RequestBody Car car) {
+        car.setCarId(carId);
+        // The repository reports the miss itself, so a concurrent delete cannot turn this into a silent no-op
+        return Mono.fromCallable(() -> service.update(carId, car)
+                ? ResponseEntity.ok(car) : ResponseEntity.notFound().<Car>build());
+    }
+
+    @DeleteMapping("/{carId}")
+    public Mono<ResponseEntity<Void>> delete(@PathVariable String carId) {
+        return Mono.fromCallable(() -> service.deleteCarById(carId)
+                ? ResponseEntity.noContent().<Void>build() : ResponseEntity.notFound().<Void>build());
+    }
+
+    @PostMapping("/batch")
+    public Mono<List<BatchResult>> applyBatch(@RequestBody List<BatchOperation<Car>> operations) {
+        return Mono.fromCallable(() -> service.applyBatch(operations));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> badRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", String.valueOf(e.getMessage())));
+    }
+}
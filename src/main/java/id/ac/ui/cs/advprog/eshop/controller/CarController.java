@@ -1,24 +1,31 @@
 package id.ac.ui.cs.advprog.eshop.controller;
 
-import java.util.List;
+import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.WebRequest;
 
 import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.model.CatalogQuery;
+import id.ac.ui.cs.advprog.eshop.model.Page;
 import id.ac.ui.cs.advprog.eshop.service.CarService;
 
 @Controller
 @RequestMapping("/car")
 public class CarController {
 
+    static final String DEFAULT_PAGE_SIZE = "20";
+
     @Autowired
     private CarService carService; // Use interface instead of implementation
 
@@ -36,14 +43,50 @@ public class CarController {
     }
 
     @GetMapping("/listCar")
-    public String carListPage(Model model) {
-        List<Car> allCars = carService.findAll();
-        model.addAttribute("cars", allCars);
+    public String carListPage(@RequestParam(required = false) String cursor,
+                              @RequestParam(defaultValue = "0") int page,
+                              @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int size,
+                              @RequestParam(defaultValue = "false") boolean stream,
+                              @ModelAttribute("filter") CatalogQuery filter,
+                              WebRequest request,
+                              Model model) {
+        // The version is read before the listing, so the validator never runs ahead of the page
+        if (request.checkNotModified(CatalogETags.of(carService.version()), carService.lastModified())) {
+            return null;
+        }
+        if (filter.hasCriteria()) {
+            model.addAttribute("cars", carService.query(filter, size));
+            return "carList";
+        }
+        if (stream) {
+            // Thymeleaf pulls rows from the iterator while it writes, so nothing is buffered up front
+            model.addAttribute("cars", carService.iterateAll());
+            return "carList";
+        }
+        Page<Car> carPage = cursor != null ? carService.findPage(cursor, size) : carService.findPage(page, size);
+        model.addAttribute("cars", carPage.getContent());
+        model.addAttribute("page", carPage);
+        return "carList";
+    }
+
+    @GetMapping("/searchCar")
+    public String searchCarPage(@RequestParam(name = "q", defaultValue = "") String text,
+                                @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int size,
+                                Model model) {
+        if (text.isBlank()) {
+            return "redirect:/car/listCar";
+        }
+        model.addAttribute("cars", carService.search(text, size));
+        model.addAttribute("q", text);
+        model.addAttribute("filter", new CatalogQuery());
         return "carList";
     }
 
     @GetMapping("/editCar/{carId}")
-    public String editCarPage(@PathVariable String carId, Model model) {
+    public String editCarPage(@PathVariable String carId, WebRequest request, Model model) {
+        if (request.checkNotModified(CatalogETags.of(carService.version()), carService.lastModified())) {
+            return null;
+        }
         Car car = carService.findById(carId);
         model.addAttribute("car", car);
         return "editCar";
@@ -60,4 +103,9 @@ public class CarController {
         carService.deleteCarById(carId);
         return "redirect:/car/listCar";
     }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> badRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", String.valueOf(e.getMessage())));
+    }
 }
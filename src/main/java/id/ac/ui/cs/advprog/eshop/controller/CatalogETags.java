@@ -0,0 +1,18 @@
+package id.ac.ui.cs.advprog.eshop.controller;
+
+/**
+ * Validators for pages rendered from one repository version. They are weak: the
+ * same page goes out gzipped or plain, and Tomcat will not compress a response
+ * that carries a strong ETag.
+ */
+final class CatalogETags {
+    // Versions restart from zero with the process, so validators from an earlier run must not match
+    private static final String BOOT_ID = Long.toString(System.currentTimeMillis(), 36);
+
+    private CatalogETags() {
+    }
+
+    static String of(long version) {
+        return "W/\"" + BOOT_ID + "-" + Long.toString(version, 36) + "\"";
+    }
+}
@@ -0,0 +1,67 @@
+package id.ac.ui.cs.advprog.eshop.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import id.ac.ui.cs.advprog.eshop.service.CatalogTransferService;
+import id.ac.ui.cs.advprog.eshop.service.TransferFormat;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+
+@Controller
+public class CatalogTransferController {
+
+    @Autowired
+    private CatalogTransferService transferService;
+
+    @PostMapping("/product/import")
+    @ResponseBody
+    public Map<String, Long> importProducts(@RequestParam(defaultValue = "csv") String format,
+                                            InputStream body) throws IOException {
+        return Map.of("imported", transferService.importProducts(body, TransferFormat.of(format)));
+    }
+
+    @GetMapping("/product/export")
+    public ResponseEntity<StreamingResponseBody> exportProducts(@RequestParam(defaultValue = "csv") String format) {
+        TransferFormat transferFormat = TransferFormat.of(format);
+        return download("products", transferFormat, out -> transferService.exportProducts(out, transferFormat));
+    }
+
+    @PostMapping("/car/import")
+    @ResponseBody
+    public Map<String, Long> importCars(@RequestParam(defaultValue = "csv") String format,
+                                        InputStream body) throws IOException {
+        return Map.of("imported", transferService.importCars(body, TransferFormat.of(format)));
+    }
+
+    @GetMapping("/car/export")
+    public ResponseEntity<StreamingResponseBody> exportCars(@RequestParam(defaultValue = "csv") String format) {
+        TransferFormat transferFormat = TransferFormat.of(format);
+        return download("cars", transferFormat, out -> transferService.exportCars(out, transferFormat));
+    }
+
+    @ExceptionHandler({IllegalArgumentException.class, JsonProcessingException.class, RuntimeJsonMappingException.class})
+    public ResponseEntity<Map<String, String>> badRequest(Exception e) {
+        return ResponseEntity.badRequest().body(Map.of("error", String.valueOf(e.getMessage())));
+    }
+
+    private static ResponseEntity<StreamingResponseBody> download(String name, TransferFormat format,
+                                                                  StreamingResponseBody body) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getMediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + name + "." + format.getExtension())
+                .body(body);
+    }
+}
@@ -0,0 +1,81 @@
+package id.ac.ui.cs.advprog.eshop.controller;
+
+import id.ac.ui.cs.advprog.eshop.events.ChangeCursor;
+import id.ac.ui.cs.advprog.eshop.events.ChangeEvent;
+import id.ac.ui.cs.advprog.eshop.events.ChangeStream;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Change feed over HTTP. Sequences are resume points: pass the last one seen as
+ * {@code after} (or let the browser send Last-Event-ID) to continue without gaps.
+ * An OVERRUN event means the reader fell too far behind, or is resuming from
+ * before a restart, and must reload the catalogue before following the feed again.
+ */
+@RestController
+@RequestMapping("/api/changes")
+public class ChangeStreamController {
+    private static final int MAX_BATCH = 1000;
+    private static final Duration IDLE_POLL = Duration.ofMillis(50);
+
+    @Autowired
+    private ChangeStream changeStream;
+
+    /** Events after {@code after} that are available right now, at most {@code limit}. */
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<Map<String, Object>> poll(@RequestParam(required = false) Long after,
+                                          @RequestParam(required = false) String entity,
+                                          @RequestParam(defaultValue = "100") int limit) {
+        return Mono.fromCallable(() -> {
+            ChangeCursor cursor = changeStream.cursor(after);
+            List<ChangeEvent> events = cursor.poll(Math.max(1, Math.min(limit, MAX_BATCH))).stream()
+                    .filter(event -> matches(event, entity))
+                    .toList();
+            return Map.of("events", events, "position", cursor.getPosition());
+        });
+    }
+
+    /** Follows the feed until the client disconnects; a slow client only falls behind in its own cursor. */
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<ChangeEvent>> stream(@RequestParam(required = false) Long after,
+                                                     @RequestHeader(name = "Last-Event-ID", required = false) String lastEventId,
+                                                     @RequestParam(required = false) String entity) {
+        return Flux.defer(() -> {
+            ChangeCursor cursor = lastEventId != null ? changeStream.resume(lastEventId) : changeStream.cursor(after);
+            // Each round drains what is there, or waits a little when nothing is; demand drives the rounds
+            return Mono.fromCallable(() -> cursor.poll(MAX_BATCH))
+                    .flatMapMany(batch -> batch.isEmpty()
+                            ? Mono.delay(IDLE_POLL).thenMany(Flux.<ChangeEvent>empty())
+                            : Flux.fromIterable(batch))
+                    .repeat();
+        })
+                .filter(event -> matches(event, entity))
+                .map(event -> ServerSentEvent.builder(event)
+                        .id(changeStream.eventId(event))
+                        .event(event.getType().name())
+                        .build());
+    }
+
+    private static boolean matches(ChangeEvent event, String entity) {
+        return entity == null || event.getType() == ChangeEvent.Type.OVERRUN || entity.equals(event.getEntity());
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> badRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", String.valueOf(e.getMessage())));
+    }
+}
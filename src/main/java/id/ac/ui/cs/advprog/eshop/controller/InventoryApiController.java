@@ -0,0 +1,124 @@
+package id.ac.ui.cs.advprog.eshop.controller;
+
+import id.ac.ui.cs.advprog.eshop.inventory.InsufficientStockException;
+import id.ac.ui.cs.advprog.eshop.inventory.InventoryLedger;
+import id.ac.ui.cs.advprog.eshop.inventory.Reservation;
+import id.ac.ui.cs.advprog.eshop.inventory.ReservationRequest;
+import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Stock reservations for checkout: reserve units while the order is placed, then
+ * commit them (the quantity drops) or release them. Uncommitted reservations
+ * expire on their own.
+ */
+@RestController
+@RequestMapping("/api")
+public class InventoryApiController {
+
+    @Autowired
+    private InventoryLedger<Product> productInventory;
+
+    @Autowired
+    private InventoryLedger<Car> carInventory;
+
+    @Value("${eshop.inventory.reservation-timeout:10m}")
+    private Duration reservationTimeout;
+
+    @GetMapping("/products/{productId}/stock")
+    public Mono<ResponseEntity<Map<String, Long>>> productStock(@PathVariable String productId) {
+        return stock(productInventory, productId);
+    }
+
+    @PostMapping("/products/{productId}/reservations")
+    public Mono<ResponseEntity<Reservation>> reserveProduct(@PathVariable String productId,
+                                                            @RequestBody ReservationRequest request) {
+        return reserve(productInventory, productId, request);
+    }
+
+    @PostMapping("/products/reservations/{reservationId}/commit")
+    public Mono<ResponseEntity<Product>> commitProduct(@PathVariable String reservationId) {
+        return commit(productInventory, reservationId);
+    }
+
+    @DeleteMapping("/products/reservations/{reservationId}")
+    public Mono<ResponseEntity<Void>> releaseProduct(@PathVariable String reservationId) {
+        return release(productInventory, reservationId);
+    }
+
+    @GetMapping("/cars/{carId}/stock")
+    public Mono<ResponseEntity<Map<String, Long>>> carStock(@PathVariable String carId) {
+        return stock(carInventory, carId);
+    }
+
+    @PostMapping("/cars/{carId}/reservations")
+    public Mono<ResponseEntity<Reservation>> reserveCar(@PathVariable String carId,
+                                                        @RequestBody ReservationRequest request) {
+        return reserve(carInventory, carId, request);
+    }
+
+    @PostMapping("/cars/reservations/{reservationId}/commit")
+    public Mono<ResponseEntity<Car>> commitCar(@PathVariable String reservationId) {
+        return commit(carInventory, reservationId);
+    }
+
+    @DeleteMapping("/cars/reservations/{reservationId}")
+    public Mono<ResponseEntity<Void>> releaseCar(@PathVariable String reservationId) {
+        return release(carInventory, reservationId);
+    }
+
+    private static Mono<ResponseEntity<Map<String, Long>>> stock(InventoryLedger<?> ledger, String itemId) {
+        return Mono.fromCallable(() -> ledger.available(itemId))
+                .map(available -> ResponseEntity.ok(Map.of("available", available)))
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    private Mono<ResponseEntity<Reservation>> reserve(InventoryLedger<?> ledger, String itemId,
+                                                      ReservationRequest request) {
+        Duration timeout = request.getTimeoutSeconds() == null
+                ? reservationTimeout : Duration.ofSeconds(request.getTimeoutSeconds());
+        return Mono.fromCallable(() -> ledger.reserve(itemId, request.getQuantity(), timeout))
+                .map(reservation -> ResponseEntity.status(HttpStatus.CREATED).body(reservation))
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    private static <T> Mono<ResponseEntity<T>> commit(InventoryLedger<T> ledger, String reservationId) {
+        return Mono.fromCallable(() -> ledger.commit(reservationId))
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    private static Mono<ResponseEntity<Void>> release(InventoryLedger<?> ledger, String reservationId) {
+        return Mono.fromCallable(() -> ledger.release(reservationId))
+                .map(released -> released
+                        ? ResponseEntity.noContent().<Void>build()
+                        : ResponseEntity.notFound().<Void>build());
+    }
+
+    // The request was fine, the stock just ran out: the client may retry with less
+    @ExceptionHandler(InsufficientStockException.class)
+    public ResponseEntity<Map<String, String>> conflict(InsufficientStockException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> badRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", String.valueOf(e.getMessage())));
+    }
+}
@@ -0,0 +1,34 @@
+package id.ac.ui.cs.advprog.eshop.controller;
+
+import id.ac.ui.cs.advprog.eshop.service.CarService;
+import id.ac.ui.cs.advprog.eshop.service.ProductService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/** Rendered-page caches for the list and edit pages, one per repository version. */
+@Configuration
+@ConditionalOnProperty(name = "eshop.http.page-cache.enabled", havingValue = "true")
+public class PageCacheConfig {
+
+    @Value("${eshop.http.page-cache.maximum-size:256}")
+    private int maximumSize;
+
+    @Bean
+    public FilterRegistrationBean<RenderedPageCache> productPageCache(ProductService productService) {
+        FilterRegistrationBean<RenderedPageCache> registration =
+                new FilterRegistrationBean<>(new RenderedPageCache(productService::version, maximumSize));
+        registration.addUrlPatterns("/product/list", "/product/edit/*");
+        return registration;
+    }
+
+    @Bean
+    public FilterRegistrationBean<RenderedPageCache> carPageCache(CarService carService) {
+        FilterRegistrationBean<RenderedPageCache> registration =
+                new FilterRegistrationBean<>(new RenderedPageCache(carService::version, maximumSize));
+        registration.addUrlPatterns("/car/listCar", "/car/editCar/*");
+        return registration;
+    }
+}
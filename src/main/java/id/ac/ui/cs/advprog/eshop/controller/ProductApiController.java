@@ -0,0 +1,76 @@
+package id.ac.ui.cs.advprog.eshop.controller;
+
+import id.ac.ui.cs.advprog.eshop.model.BatchOperation;
+import id.ac.ui.cs.advprog.eshop.model.BatchResult;
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.service.ProductService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/products")
+public class ProductApiController {
+
+    @Autowired
+    private ProductService service;
+
+    // Only streaming types: a plain JSON array would be collected in memory first
+    @GetMapping(produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<Product> findAll() {
+        // Elements are pulled from the repository iterator as the client demands them
+        return Flux.fromIterable(() -> service.iterateAll());
+    }
+
+    @GetMapping("/{productId}")
+    public Mono<ResponseEntity<Product>> findById(@PathVariable String productId) {
+        return Mono.fromCallable(() -> service.findById(productId))
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<Product>> create(@RequestBody Product product) {
+        return Mono.fromCallable(() -> service.create(product))
+                .map(created -> ResponseEntity.status(HttpStatus.CREATED).body(created));
+    }
+
+    @PutMapping("/{productId}")
+    public Mono<ResponseEntity<Product>> update(@PathVariable String productId, @RequestBody Product product) {
+        product.setProductId(productId);
+        // The repository reports the miss itself, so a concurrent delete cannot turn this into a silent no-op
+        return Mono.fromCallable(() -> service.update(product)
+                ? ResponseEntity.ok(product) : ResponseEntity.notFound().<Product>build());
+    }
+
+    @DeleteMapping("/{productId}")
+    public Mono<ResponseEntity<Void>> delete(@PathVariable String productId) {
+        return Mono.fromCallable(() -> service.delete(productId)
+                ? ResponseEntity.noContent().<Void>build() : ResponseEntity.notFound().<Void>build());
+    }
+
+    @PostMapping("/batch")
+    public Mono<List<BatchResult>> applyBatch(@RequestBody List<BatchOperation<Product>> operations) {
+        return Mono.fromCallable(() -> service.applyBatch(operations));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> badRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", String.valueOf(e.getMessage())));
+    }
+}
@@ -1,16 +1,22 @@
 package id.ac.ui.cs.advprog.eshop.controller;
 
-import java.util.List;
+import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.WebRequest;
 
+import id.ac.ui.cs.advprog.eshop.model.CatalogQuery;
+import id.ac.ui.cs.advprog.eshop.model.Page;
 import id.ac.ui.cs.advprog.eshop.model.Product;
 import id.ac.ui.cs.advprog.eshop.service.ProductService; 
 
@@ -18,6 +24,8 @@ import id.ac.ui.cs.advprog.eshop.service.ProductService;
 @RequestMapping("/product")
 public class ProductController {
 
+    static final String DEFAULT_PAGE_SIZE = "20";
+
     @Autowired
     private ProductService service;
 
@@ -35,9 +43,42 @@ public class ProductController {
     }
 
     @GetMapping("/list")
-    public String productListPage(Model model) {
-        List<Product> allProducts = service.findAll();
-        model.addAttribute("products", allProducts);
+    public String productListPage(@RequestParam(required = false) String cursor,
+                                  @RequestParam(defaultValue = "0") int page,
+                                  @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int size,
+                                  @RequestParam(defaultValue = "false") boolean stream,
+                                  @ModelAttribute("filter") CatalogQuery filter,
+                                  WebRequest request,
+                                  Model model) {
+        // The version is read before the listing, so the validator never runs ahead of the page
+        if (request.checkNotModified(CatalogETags.of(service.version()), service.lastModified())) {
+            return null;
+        }
+        if (filter.hasCriteria()) {
+            model.addAttribute("products", service.query(filter, size));
+            return "productList";
+        }
+        if (stream) {
+            // Thymeleaf pulls rows from the iterator while it writes, so nothing is buffered up front
+            model.addAttribute("products", service.iterateAll());
+            return "productList";
+        }
+        Page<Product> productPage = cursor != null ? service.findPage(cursor, size) : service.findPage(page, size);
+        model.addAttribute("products", productPage.getContent());
+        model.addAttribute("page", productPage);
+        return "productList";
+    }
+
+    @GetMapping("/search")
+    public String searchProductPage(@RequestParam(name = "q", defaultValue = "") String text,
+                                    @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int size,
+                                    Model model) {
+        if (text.isBlank()) {
+            return "redirect:/product/list";
+        }
+        model.addAttribute("products", service.search(text, size));
+        model.addAttribute("q", text);
+        model.addAttribute("filter", new CatalogQuery());
         return "productList";
     }
 
@@ -48,7 +89,10 @@ public class ProductController {
     }
 
     @GetMapping("/edit/{productId}")
-    public String editProductPage(@PathVariable String productId, Model model) {
+    public String editProductPage(@PathVariable String productId, WebRequest request, Model model) {
+        if (request.checkNotModified(CatalogETags.of(service.version()), service.lastModified())) {
+            return null;
+        }
         Product product = service.findById(productId);
         model.addAttribute("product", product);
         return "editProduct";
@@ -60,4 +104,10 @@ public class ProductController {
         return "redirect:/product/list";
     }
 
+    // A stale or hand-edited cursor is the client's mistake, not a server error
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> badRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", String.valueOf(e.getMessage())));
+    }
+
 }
\ No newline at end of file
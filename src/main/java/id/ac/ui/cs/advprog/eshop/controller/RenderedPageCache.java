@@ -0,0 +1,110 @@
+package id.ac.ui.cs.advprog.eshop.controller;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Keeps the rendered HTML of catalogue pages and replays it while the repository
+ * version it was rendered at is current, so repeated views skip the service and
+ * Thymeleaf entirely. A page is only kept if the version did not move while it
+ * rendered. Streamed listings are never buffered.
+ */
+public class RenderedPageCache extends OncePerRequestFilter {
+    // Larger pages are served as usual but not kept
+    private static final int MAX_BODY_BYTES = 512 * 1024;
+
+    private final LongSupplier version;
+    private final Map<String, RenderedPage> pages;
+
+    public RenderedPageCache(LongSupplier version, int maximumSize) {
+        this.version = version;
+        this.pages = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, RenderedPage> eldest) {
+                return size() > maximumSize;
+            }
+        };
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!"GET".equals(request.getMethod()) || "true".equals(request.getParameter("stream"))) {
+            chain.doFilter(request, response);
+            return;
+        }
+        String key = request.getQueryString() == null
+                ? request.getRequestURI() : request.getRequestURI() + "?" + request.getQueryString();
+        long current = version.getAsLong();
+        RenderedPage page;
+        synchronized (pages) {
+            page = pages.get(key);
+        }
+        if (page != null && page.version == current) {
+            page.writeTo(request, response);
+            return;
+        }
+
+        ContentCachingResponseWrapper rendered = new ContentCachingResponseWrapper(response);
+        chain.doFilter(request, rendered);
+        byte[] body = rendered.getContentAsByteArray();
+        if (rendered.getStatus() == HttpServletResponse.SC_OK && body.length <= MAX_BODY_BYTES
+                && version.getAsLong() == current) {
+            RenderedPage fresh = new RenderedPage(current, rendered, body);
+            synchronized (pages) {
+                pages.put(key, fresh);
+            }
+        }
+        rendered.copyBodyToResponse();
+    }
+
+    private static final class RenderedPage {
+        private final long version;
+        private final String contentType;
+        private final String contentLanguage;
+        private final String etag;
+        private final String lastModified;
+        private final byte[] body;
+
+        private RenderedPage(long version, HttpServletResponse response, byte[] body) {
+            this.version = version;
+            this.contentType = response.getContentType();
+            this.contentLanguage = response.getHeader("Content-Language");
+            this.etag = response.getHeader(HttpHeaders.ETAG);
+            this.lastModified = response.getHeader(HttpHeaders.LAST_MODIFIED);
+            this.body = body;
+        }
+
+        void writeTo(HttpServletRequest request, HttpServletResponse response) throws IOException {
+            if (etag != null) {
+                response.setHeader(HttpHeaders.ETAG, etag);
+                String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+                // Weak comparison, as for any GET: W/"x" and "x" name the same page
+                String opaqueTag = etag.startsWith("W/") ? etag.substring(2) : etag;
+                if (ifNoneMatch != null && (ifNoneMatch.contains(opaqueTag) || ifNoneMatch.trim().equals("*"))) {
+                    response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                    return;
+                }
+            }
+            if (lastModified != null) {
+                response.setHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+            }
+            if (contentLanguage != null) {
+                response.setHeader("Content-Language", contentLanguage);
+            }
+            response.setContentType(contentType);
+            response.setContentLength(body.length);
+            response.getOutputStream().write(body);
+        }
+    }
+}
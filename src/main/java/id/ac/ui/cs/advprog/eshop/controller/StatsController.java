@@ -0,0 +1,61 @@
+package id.ac.ui.cs.advprog.eshop.controller;
+
+import id.ac.ui.cs.advprog.eshop.analytics.AnalyticsConfig;
+import id.ac.ui.cs.advprog.eshop.analytics.CatalogScan;
+import id.ac.ui.cs.advprog.eshop.analytics.RunningStats;
+import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.service.CarService;
+import id.ac.ui.cs.advprog.eshop.service.ProductService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Inventory totals for ops. By default they come from the running aggregates and
+ * cost the same at any catalogue size; {@code scan=true}, or a low-stock threshold
+ * other than the configured one, recomputes them in parallel from a snapshot of
+ * each repository.
+ */
+@RestController
+@RequestMapping("/stats")
+public class StatsController {
+
+    @Autowired
+    private RunningStats<Product> productStats;
+
+    @Autowired
+    private RunningStats<Car> carStats;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CarService carService;
+
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<Map<String, Object>> stats(@RequestParam(defaultValue = "false") boolean scan,
+                                           @RequestParam(required = false) Integer lowStockThreshold) {
+        return Mono.fromCallable(() -> {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            if (scan || lowStockThreshold != null && lowStockThreshold != productStats.getLowStockThreshold()) {
+                int threshold = lowStockThreshold != null ? lowStockThreshold : productStats.getLowStockThreshold();
+                stats.put("mode", "scan");
+                stats.put("products", CatalogScan.of(productService.findAll(), AnalyticsConfig.PRODUCT_STATS, threshold));
+                stats.put("cars", CatalogScan.of(carService.findAll(), AnalyticsConfig.CAR_STATS, threshold));
+            } else {
+                stats.put("mode", "running");
+                stats.put("products", productStats.stats());
+                stats.put("cars", carStats.stats());
+            }
+            return stats;
+        });
+    }
+}
@@ -0,0 +1,65 @@
+package id.ac.ui.cs.advprog.eshop.events;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One reader's position in the stream. Not thread-safe: each consumer polls its
+ * own cursor.
+ */
+public class ChangeCursor {
+    private final ChangeRing ring;
+    private long next;
+    // Set when the reader's position cannot be honoured, so its view must be rebuilt
+    private boolean overrun;
+
+    ChangeCursor(ChangeRing ring, long next) {
+        this(ring, next, false);
+    }
+
+    ChangeCursor(ChangeRing ring, long next, boolean overrun) {
+        this.ring = ring;
+        this.next = next;
+        this.overrun = overrun;
+    }
+
+    /** The sequence of the last event handed out, -1 before the first. */
+    public long getPosition() {
+        return next - 1;
+    }
+
+    /** Events published but not yet polled. */
+    public long lag() {
+        return Math.max(0, ring.head() - next);
+    }
+
+    /**
+     * Up to {@code max} events in sequence order, or an empty list when the reader
+     * is caught up. Stops at the first sequence still being written, so events are
+     * never handed out with a gap before them. If the reader was lapped, the batch
+     * holds an OVERRUN event followed by the oldest events still in the ring.
+     */
+    public List<ChangeEvent> poll(int max) {
+        List<ChangeEvent> batch = new ArrayList<>(Math.min(max, 64));
+        if (overrun) {
+            batch.add(ChangeEvent.overrun(next - 1));
+            overrun = false;
+        }
+        while (batch.size() < max) {
+            ChangeEvent event = ring.slot(next);
+            if (event == null || event.getSequence() < next) {
+                break;
+            }
+            if (event.getSequence() > next) {
+                // Keep a little slack: the oldest slots are the next ones writers reuse
+                long resume = Math.max(next + 1, ring.head() - ring.capacity() + ring.capacity() / 8);
+                batch.add(ChangeEvent.overrun(resume - 1));
+                next = resume;
+                continue;
+            }
+            batch.add(event);
+            next++;
+        }
+        return batch;
+    }
+}
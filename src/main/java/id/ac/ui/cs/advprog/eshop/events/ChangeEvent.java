@@ -0,0 +1,34 @@
+package id.ac.ui.cs.advprog.eshop.events;
+
+import lombok.Getter;
+
+@Getter
+public class ChangeEvent {
+    public enum Type { SAVED, DELETED, OVERRUN }
+
+    // Position in the stream: every mutation gets the next one, across both repositories
+    private final long sequence;
+    private final Type type;
+    // "product" or "car"; null on an OVERRUN
+    private final String entity;
+    private final String id;
+    // The saved record; null on DELETED and OVERRUN
+    private final Object item;
+
+    public ChangeEvent(long sequence, Type type, String entity, String id, Object item) {
+        this.sequence = sequence;
+        this.type = type;
+        this.entity = entity;
+        this.id = id;
+        this.item = item;
+    }
+
+    /**
+     * Tells a reader that fell a whole buffer behind that the events up to and
+     * including {@code lastLost} were overwritten, so any view built from the
+     * stream has to be rebuilt from the repositories.
+     */
+    static ChangeEvent overrun(long lastLost) {
+        return new ChangeEvent(lastLost, Type.OVERRUN, null, null, null);
+    }
+}
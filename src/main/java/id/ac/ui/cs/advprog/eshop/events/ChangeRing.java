@@ -0,0 +1,52 @@
+package id.ac.ui.cs.advprog.eshop.events;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Fixed-size ring of the most recent change events, written by many threads
+ * without locks. A writer claims the next sequence with one atomic increment and
+ * stores its event in slot {@code sequence % capacity}. Each event carries its own
+ * sequence, so a reader can tell a slot that is not written yet (older sequence)
+ * from one that has already been overwritten (newer sequence). Writers never wait
+ * for readers: one that falls a whole ring behind loses events and is told so.
+ */
+final class ChangeRing {
+    private final AtomicReferenceArray<ChangeEvent> slots;
+    private final int mask;
+    private final AtomicLong claimed = new AtomicLong();
+
+    ChangeRing(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Change buffer capacity must be a power of two: " + capacity);
+        }
+        slots = new AtomicReferenceArray<>(capacity);
+        mask = capacity - 1;
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+
+    /** The sequence the next event will get. */
+    long head() {
+        return claimed.get();
+    }
+
+    ChangeEvent publish(ChangeEvent.Type type, String entity, String id, Object item) {
+        ChangeEvent event = new ChangeEvent(claimed.getAndIncrement(), type, entity, id, item);
+        int index = (int) event.getSequence() & mask;
+        // A writer stalled between claim and store must not overwrite the event that lapped it
+        ChangeEvent current = slots.get(index);
+        while ((current == null || current.getSequence() < event.getSequence())
+                && !slots.compareAndSet(index, current, event)) {
+            current = slots.get(index);
+        }
+        return event;
+    }
+
+    /** The event at {@code sequence}, or whatever occupies its slot if that is not it. */
+    ChangeEvent slot(long sequence) {
+        return slots.get((int) sequence & mask);
+    }
+}
@@ -0,0 +1,108 @@
+package id.ac.ui.cs.advprog.eshop.events;
+
+import id.ac.ui.cs.advprog.eshop.repository.ChangeListener;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Ordered feed of every repository mutation, for views that follow the catalogue
+ * incrementally instead of re-reading findAll(). Repositories publish through
+ * {@link #listenerFor}; readers either poll a {@link ChangeCursor} or
+ * {@link #subscribe} a handler that gets the events in batches on its own thread.
+ * Only the last {@code capacity} events are kept.
+ */
+public class ChangeStream {
+    // Sequences restart from zero with the process, so ids handed out by an earlier run must not resume here
+    private final String bootId = Long.toString(System.currentTimeMillis(), 36);
+    private final ChangeRing ring;
+    private final List<ChangeSubscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    public ChangeStream(int capacity) {
+        ring = new ChangeRing(capacity);
+    }
+
+    /** A repository listener publishing its saves and deletes as {@code entity} events. */
+    public <T> ChangeListener<T> listenerFor(String entity, Function<T, String> idOf) {
+        return new ChangeListener<>() {
+            @Override
+            public void onSave(T item) {
+                ring.publish(ChangeEvent.Type.SAVED, entity, idOf.apply(item), item);
+            }
+
+            @Override
+            public void onDelete(String id) {
+                ring.publish(ChangeEvent.Type.DELETED, entity, id, null);
+            }
+        };
+    }
+
+    /** The sequence of the latest event, -1 before any. */
+    public long lastSequence() {
+        return ring.head() - 1;
+    }
+
+    /**
+     * A cursor at the events after {@code after}, or at the next new event when it is null.
+     * A sequence this stream has not reached yet comes from an earlier run; the cursor then
+     * starts at the next new event and hands out an OVERRUN first, so the reader reloads.
+     */
+    public ChangeCursor cursor(Long after) {
+        long head = ring.head();
+        if (after == null) {
+            return new ChangeCursor(ring, head);
+        }
+        if (after < -1) {
+            throw new IllegalArgumentException("Invalid change sequence: " + after);
+        }
+        if (after >= head) {
+            return new ChangeCursor(ring, head, true);
+        }
+        return new ChangeCursor(ring, after + 1);
+    }
+
+    /** The resume point for {@code event} that {@link #resume} accepts: its sequence tagged with this run. */
+    public String eventId(ChangeEvent event) {
+        return bootId + "-" + event.getSequence();
+    }
+
+    /** A cursor after the event with this {@link #eventId}; one from an earlier run is treated as overrun. */
+    public ChangeCursor resume(String eventId) {
+        int dash = eventId.lastIndexOf('-');
+        long sequence;
+        try {
+            sequence = Long.parseLong(eventId.substring(dash + 1));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid change event id: " + eventId, e);
+        }
+        if (dash < 0 || !eventId.substring(0, dash).equals(bootId)) {
+            return new ChangeCursor(ring, ring.head(), true);
+        }
+        return cursor(sequence);
+    }
+
+    /** Starts a consumer thread feeding {@code handler} batches of at most {@code maxBatch} events. */
+    public ChangeSubscription subscribe(String name, Long after, int maxBatch, Consumer<List<ChangeEvent>> handler) {
+        if (maxBatch < 1) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        ChangeSubscription[] subscription = new ChangeSubscription[1];
+        subscription[0] = new ChangeSubscription(name, cursor(after), maxBatch, handler,
+                () -> subscriptions.remove(subscription[0]));
+        subscriptions.add(subscription[0]);
+        subscription[0].start();
+        return subscription[0];
+    }
+
+    public List<ChangeSubscription> getSubscriptions() {
+        return List.copyOf(subscriptions);
+    }
+
+    public void close() throws InterruptedException {
+        for (ChangeSubscription subscription : subscriptions) {
+            subscription.close();
+        }
+    }
+}
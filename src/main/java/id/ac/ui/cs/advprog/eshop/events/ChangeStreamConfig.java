@@ -0,0 +1,23 @@
+package id.ac.ui.cs.advprog.eshop.events;
+
+import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.repository.CarRepository;
+import id.ac.ui.cs.advprog.eshop.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/** One stream for both repositories, so consumers see their changes in a single order. */
+@Configuration
+public class ChangeStreamConfig {
+
+    @Bean(destroyMethod = "close")
+    public ChangeStream changeStream(ProductRepository productRepository, CarRepository carRepository,
+                                     @Value("${eshop.changes.capacity:65536}") int capacity) {
+        ChangeStream stream = new ChangeStream(capacity);
+        productRepository.addListener(stream.listenerFor("product", Product::getProductId));
+        carRepository.addListener(stream.listenerFor("car", Car::getCarId));
+        return stream;
+    }
+}
@@ -0,0 +1,92 @@
+package id.ac.ui.cs.advprog.eshop.events;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * A consumer thread draining its own cursor and handing each batch of available
+ * events to the handler, like a Disruptor batch processor. When the ring is empty
+ * it spins briefly, then yields, then parks for growing intervals, so writers never
+ * pay for waking it.
+ */
+public class ChangeSubscription implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(ChangeSubscription.class);
+    private static final int SPIN_TRIES = 100;
+    private static final int YIELD_TRIES = 200;
+    private static final long MAX_PARK_NANOS = 1_000_000;
+
+    private final String name;
+    private final ChangeCursor cursor;
+    private final int maxBatch;
+    private final Consumer<List<ChangeEvent>> handler;
+    private final Runnable onClose;
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    ChangeSubscription(String name, ChangeCursor cursor, int maxBatch, Consumer<List<ChangeEvent>> handler,
+                       Runnable onClose) {
+        this.name = name;
+        this.cursor = cursor;
+        this.maxBatch = maxBatch;
+        this.handler = handler;
+        this.onClose = onClose;
+        thread = new Thread(this::run, "change-subscriber-" + name);
+        thread.setDaemon(true);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long lag() {
+        return cursor.lag();
+    }
+
+    private void run() {
+        int idle = 0;
+        while (running) {
+            List<ChangeEvent> batch = cursor.poll(maxBatch);
+            if (batch.isEmpty()) {
+                idle(++idle);
+                continue;
+            }
+            idle = 0;
+            try {
+                handler.accept(batch);
+            } catch (RuntimeException e) {
+                // One bad batch must not stop the view from following later changes
+                log.error("Change subscriber {} failed on events {}..{}", name,
+                        batch.get(0).getSequence(), batch.get(batch.size() - 1).getSequence(), e);
+            }
+        }
+    }
+
+    private static void idle(int tries) {
+        if (tries < SPIN_TRIES) {
+            Thread.onSpinWait();
+        } else if (tries < YIELD_TRIES) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(Math.min(MAX_PARK_NANOS, 1000L << Math.min(10, tries - YIELD_TRIES)));
+        }
+    }
+
+    /** Stops the consumer thread after its current batch. */
+    @Override
+    public void close() throws InterruptedException {
+        running = false;
+        onClose.run();
+        LockSupport.unpark(thread);
+        if (Thread.currentThread() != thread) {
+            thread.join();
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package id.ac.ui.cs.advprog.eshop.inventory;
+
+/** Thrown when a reservation asks for more units than are still free. */
+public class InsufficientStockException extends RuntimeException {
+    public InsufficientStockException(String itemId) {
+        super("Insufficient stock for " + itemId);
+    }
+}
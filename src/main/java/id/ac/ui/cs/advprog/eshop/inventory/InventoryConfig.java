@@ -0,0 +1,36 @@
+package id.ac.ui.cs.advprog.eshop.inventory;
+
+import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.repository.CarRepository;
+import id.ac.ui.cs.advprog.eshop.repository.ProductRepository;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+
+/**
+ * One ledger per repository, registered as its listener so reservations see every
+ * quantity change made through the other paths.
+ */
+@Configuration
+public class InventoryConfig {
+
+    @Bean
+    public InventoryLedger<Product> productInventory(ProductRepository productRepository) {
+        InventoryLedger<Product> ledger = new InventoryLedger<>(productRepository::findById,
+                Product::getProductId, Product::getProductQuantity, productRepository::adjustQuantity,
+                Clock.systemUTC());
+        productRepository.addListener(ledger);
+        return ledger;
+    }
+
+    @Bean
+    public InventoryLedger<Car> carInventory(CarRepository carRepository) {
+        InventoryLedger<Car> ledger = new InventoryLedger<>(carRepository::findById,
+                Car::getCarId, Car::getCarQuantity, carRepository::adjustQuantity,
+                Clock.systemUTC());
+        carRepository.addListener(ledger);
+        return ledger;
+    }
+}
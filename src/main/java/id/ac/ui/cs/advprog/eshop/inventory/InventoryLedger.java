@@ -0,0 +1,223 @@
+package id.ac.ui.cs.advprog.eshop.inventory;
+
+import id.ac.ui.cs.advprog.eshop.repository.ChangeListener;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Reserve/commit/release on top of a repository's quantities. Each item with
+ * reservations gets a {@link StockCounter} of its free units (quantity minus what
+ * is reserved), so concurrent buyers of one item race on that counter instead of
+ * read-modify-writing the quantity. The counter is dropped again once the item's
+ * last reservation is committed, released or expired, so only items with
+ * reservations in flight hold one. Committing a reservation takes the units off
+ * the stored quantity; releasing one, or letting it expire, hands them back.
+ * As a listener on the repository the ledger follows every other quantity change,
+ * such as an edit from the admin pages.
+ */
+public class InventoryLedger<T> implements ChangeListener<T> {
+    private final Map<String, Stock> stocks = new ConcurrentHashMap<>();
+    private final Map<String, Hold> holds = new ConcurrentHashMap<>();
+    private final Function<String, T> finder;
+    private final Function<T, String> idOf;
+    private final ToIntFunction<T> quantityOf;
+    private final BiFunction<String, Integer, T> adjuster;
+    private final Clock clock;
+
+    /**
+     * @param adjuster adds a delta to an item's stored quantity and returns the item,
+     *                 null when it does not exist, throwing IllegalArgumentException
+     *                 when the quantity would go negative
+     */
+    public InventoryLedger(Function<String, T> finder, Function<T, String> idOf, ToIntFunction<T> quantityOf,
+                           BiFunction<String, Integer, T> adjuster, Clock clock) {
+        this.finder = finder;
+        this.idOf = idOf;
+        this.quantityOf = quantityOf;
+        this.adjuster = adjuster;
+        this.clock = clock;
+    }
+
+    /**
+     * Holds {@code quantity} units for {@code ttl}; null when the item does not exist.
+     *
+     * @throws InsufficientStockException when fewer than {@code quantity} units are free
+     */
+    public Reservation reserve(String itemId, int quantity, Duration ttl) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Reservation quantity must be positive");
+        }
+        if (ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("Reservation timeout must be positive");
+        }
+        // Taken inside the compute, so the stock cannot be dropped between here and the hold
+        Stock stock = itemId == null ? null : stocks.compute(itemId, (id, current) -> {
+            if (current == null) {
+                T item = finder.apply(id);
+                if (item == null) {
+                    return null;
+                }
+                current = new Stock(quantityOf.applyAsInt(item));
+            }
+            current.users++;
+            return current;
+        });
+        if (stock == null) {
+            return null;
+        }
+        if (!stock.counter.tryTake(quantity)) {
+            unuse(itemId, stock);
+            throw new InsufficientStockException(itemId);
+        }
+        Reservation reservation = new Reservation(UUID.randomUUID().toString(), itemId, quantity,
+                clock.instant().plus(ttl));
+        holds.put(reservation.getReservationId(), new Hold(reservation, stock));
+        return reservation;
+    }
+
+    /**
+     * Takes the reserved units off the item's quantity. Returns the updated item,
+     * or null when the reservation is unknown, has expired or its item is gone.
+     */
+    public T commit(String reservationId) {
+        Hold hold = reservationId == null ? null : holds.remove(reservationId);
+        if (hold == null) {
+            return null;
+        }
+        Reservation reservation = hold.reservation;
+        Stock stock = hold.stock;
+        int quantity = reservation.getQuantity();
+        if (isExpired(reservation, clock.instant()) || stocks.get(reservation.getItemId()) != stock) {
+            stock.counter.release(quantity);
+            unuse(reservation.getItemId(), stock);
+            return null;
+        }
+        // The save below reaches onSave, which covers the drop with these units instead of
+        // writing it off the counter; whatever it did not use goes back to the counter
+        stock.committing.addAndGet(quantity);
+        try {
+            return adjuster.apply(reservation.getItemId(), -quantity);
+        } finally {
+            stock.counter.release(stock.takeCommitting(quantity));
+            unuse(reservation.getItemId(), stock);
+        }
+    }
+
+    /** Hands the reserved units back; false when the reservation is unknown or already gone. */
+    public boolean release(String reservationId) {
+        Hold hold = reservationId == null ? null : holds.remove(reservationId);
+        if (hold == null) {
+            return false;
+        }
+        hold.stock.counter.release(hold.reservation.getQuantity());
+        unuse(hold.reservation.getItemId(), hold.stock);
+        return true;
+    }
+
+    /** Releases every reservation past its deadline and returns how many there were. */
+    public int expireReservations() {
+        Instant now = clock.instant();
+        int expired = 0;
+        for (Hold hold : holds.values()) {
+            if (isExpired(hold.reservation, now) && holds.remove(hold.reservation.getReservationId(), hold)) {
+                hold.stock.counter.release(hold.reservation.getQuantity());
+                unuse(hold.reservation.getItemId(), hold.stock);
+                expired++;
+            }
+        }
+        return expired;
+    }
+
+    /** Units that can still be reserved, or null when the item does not exist. */
+    public Long available(String itemId) {
+        Stock stock = itemId == null ? null : stocks.get(itemId);
+        if (stock != null) {
+            return stock.counter.available();
+        }
+        T item = itemId == null ? null : finder.apply(itemId);
+        return item == null ? null : (long) quantityOf.applyAsInt(item);
+    }
+
+    @Override
+    public void onSave(T item) {
+        int quantity = quantityOf.applyAsInt(item);
+        stocks.computeIfPresent(idOf.apply(item), (id, stock) -> {
+            long delta = quantity - stock.quantity;
+            stock.quantity = quantity;
+            if (delta > 0) {
+                stock.counter.release(delta);
+            } else if (delta < 0) {
+                long shortfall = -delta - stock.takeCommitting(-delta);
+                if (shortfall > 0) {
+                    stock.counter.writeOff(shortfall);
+                }
+            }
+            return stock;
+        });
+    }
+
+    @Override
+    public void onDelete(String id) {
+        stocks.remove(id);
+    }
+
+    // With no holds and no commit left, the counter is back at the stored quantity and
+    // the next reservation can start from the item again
+    private void unuse(String itemId, Stock stock) {
+        stocks.computeIfPresent(itemId, (id, current) -> current != stock || --current.users > 0 ? current : null);
+    }
+
+    // Items that currently keep a stock counter
+    int trackedItems() {
+        return stocks.size();
+    }
+
+    private static boolean isExpired(Reservation reservation, Instant now) {
+        return !now.isBefore(reservation.getExpiresAt());
+    }
+
+    private static final class Stock {
+        private final StockCounter counter;
+        // Reserved units of commits in progress, already off the counter
+        private final AtomicLong committing = new AtomicLong();
+        // Stored quantity as of the last save seen; only touched inside the map's compute
+        private long quantity;
+        // Holds plus commits in progress; likewise only touched inside the map's compute
+        private int users;
+
+        private Stock(long quantity) {
+            this.counter = new StockCounter(quantity);
+            this.quantity = quantity;
+        }
+
+        // Only the totals matter, so a commit may use units another one put in
+        private long takeCommitting(long units) {
+            long current;
+            long taken;
+            do {
+                current = committing.get();
+                taken = Math.min(current, units);
+            } while (taken > 0 && !committing.compareAndSet(current, current - taken));
+            return taken;
+        }
+    }
+
+    private static final class Hold {
+        private final Reservation reservation;
+        private final Stock stock;
+
+        private Hold(Reservation reservation, Stock stock) {
+            this.reservation = reservation;
+            this.stock = stock;
+        }
+    }
+}
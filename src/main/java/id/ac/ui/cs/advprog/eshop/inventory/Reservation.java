@@ -0,0 +1,21 @@
+package id.ac.ui.cs.advprog.eshop.inventory;
+
+import lombok.Getter;
+
+import java.time.Instant;
+
+@Getter
+public class Reservation {
+    private final String reservationId;
+    private final String itemId;
+    private final int quantity;
+    // Units go back to stock if the reservation is neither committed nor released by then
+    private final Instant expiresAt;
+
+    public Reservation(String reservationId, String itemId, int quantity, Instant expiresAt) {
+        this.reservationId = reservationId;
+        this.itemId = itemId;
+        this.quantity = quantity;
+        this.expiresAt = expiresAt;
+    }
+}
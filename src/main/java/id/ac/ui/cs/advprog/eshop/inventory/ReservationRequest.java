@@ -0,0 +1,11 @@
+package id.ac.ui.cs.advprog.eshop.inventory;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter @Setter
+public class ReservationRequest {
+    private int quantity;
+    // Falls back to eshop.inventory.reservation-timeout when absent
+    private Long timeoutSeconds;
+}
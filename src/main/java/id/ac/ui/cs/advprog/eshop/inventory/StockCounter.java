@@ -0,0 +1,202 @@
+package id.ac.ui.cs.advprog.eshop.inventory;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A stock level that threads take from and return to without locking. Units start
+ * in a single base slot; the first time a compare-and-set on it loses a race the
+ * counter grows striped cells, as LongAdder does, and each thread works on its own
+ * cell, borrowing half of another slot when its cell runs short. Every unit lives
+ * in exactly one slot, so a take only succeeds with units that were really there.
+ * Units on their way between slots are counted as in flight, so {@link #available()}
+ * never misses them, and a take that came up short while others were moving stock
+ * tries again for as long as enough units remain. Stock written off beyond what is
+ * free becomes debt, paid back before anything can be taken again.
+ */
+final class StockCounter {
+    private static final VarHandle BASE;
+    private static final VarHandle DEBT;
+    private static final VarHandle IN_FLIGHT;
+    private static final VarHandle CELLS;
+    // Longs per cell: neighbouring cells land on different cache lines
+    private static final int PADDING = 8;
+    // A power of two, two to four times the core count
+    private static final int CELL_COUNT = Math.min(64, Integer.highestOneBit(Runtime.getRuntime().availableProcessors()) * 4);
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            BASE = lookup.findVarHandle(StockCounter.class, "base", long.class);
+            DEBT = lookup.findVarHandle(StockCounter.class, "debt", long.class);
+            IN_FLIGHT = lookup.findVarHandle(StockCounter.class, "inFlight", long.class);
+            CELLS = lookup.findVarHandle(StockCounter.class, "cells", AtomicLongArray.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private volatile long base;
+    private volatile long debt;
+    private volatile long inFlight;
+    private volatile AtomicLongArray cells;
+
+    StockCounter(long initial) {
+        if (initial >= 0) {
+            base = initial;
+        } else {
+            debt = -initial;
+        }
+    }
+
+    /** Free units; exact when nothing is in flight, otherwise a recent value that may run briefly high. */
+    long available() {
+        long sum = base - debt + inFlight;
+        AtomicLongArray striped = cells;
+        if (striped != null) {
+            for (int i = 0; i < CELL_COUNT; i++) {
+                sum += striped.get(i * PADDING);
+            }
+        }
+        return sum;
+    }
+
+    /** Takes {@code units} if that many are free, and leaves the counter untouched otherwise. */
+    boolean tryTake(long units) {
+        while (!takeOnce(units)) {
+            // Another taker may hold the units mid-gather; only give up once they are really gone
+            if (available() < units) {
+                return false;
+            }
+            Thread.onSpinWait();
+        }
+        return true;
+    }
+
+    private boolean takeOnce(long units) {
+        if (debt > 0 && !payDebt()) {
+            return false;
+        }
+        int home = homeSlot();
+        if (takeFrom(home, units)) {
+            return true;
+        }
+        if (cells == null) {
+            return false;
+        }
+        // Gather from the other slots, moving half of each into the home cell so hot stock spreads out
+        long gathered = 0;
+        for (int offset = 1; offset <= CELL_COUNT && gathered < units; offset++) {
+            int slot = (home + 1 + offset) % (CELL_COUNT + 1) - 1;
+            long value = get(slot);
+            long share = Math.min(value, Math.max(units - gathered, value / 2));
+            if (share > 0 && move(slot, value, share)) {
+                gathered += share;
+            }
+        }
+        gathered += drain(home);
+        boolean taken = gathered >= units;
+        // Keep what was asked for and put the rest back, or all of it when it was not enough
+        add(home, taken ? gathered - units : gathered);
+        IN_FLIGHT.getAndAdd(this, -gathered);
+        return taken;
+    }
+
+    /** Returns units, first settling any debt. */
+    void release(long units) {
+        for (long owed = debt; owed > 0 && units > 0; owed = debt) {
+            long paid = Math.min(owed, units);
+            if (DEBT.compareAndSet(this, owed, owed - paid)) {
+                units -= paid;
+            }
+        }
+        if (units > 0) {
+            add(homeSlot(), units);
+        }
+    }
+
+    /** Removes units whether or not they are free; any shortfall stays as debt. */
+    void writeOff(long units) {
+        DEBT.getAndAdd(this, units);
+        payDebt();
+    }
+
+    // Settles debt from the slots; true when none is left
+    private boolean payDebt() {
+        for (int slot = -1; slot < CELL_COUNT && debt > 0; slot++) {
+            long value = get(slot);
+            long owed = debt;
+            long paid = Math.min(value, owed);
+            if (paid > 0 && move(slot, value, paid)) {
+                release(paid);
+                IN_FLIGHT.getAndAdd(this, -paid);
+            }
+        }
+        return debt == 0;
+    }
+
+    private boolean takeFrom(int slot, long units) {
+        for (long value = get(slot); value >= units; value = get(slot)) {
+            if (cas(slot, value, value - units)) {
+                return true;
+            }
+            if (cells == null) {
+                CELLS.compareAndSet(this, null, new AtomicLongArray(CELL_COUNT * PADDING));
+            }
+            slot = ThreadLocalRandom.current().nextInt(CELL_COUNT);
+        }
+        return false;
+    }
+
+    private long drain(int slot) {
+        long value = get(slot);
+        while (value > 0 && !move(slot, value, value)) {
+            value = get(slot);
+        }
+        return Math.max(value, 0);
+    }
+
+    // Counts the units as in flight before they leave the slot, so no reader sees them vanish
+    private boolean move(int slot, long expected, long units) {
+        IN_FLIGHT.getAndAdd(this, units);
+        if (cas(slot, expected, expected - units)) {
+            return true;
+        }
+        IN_FLIGHT.getAndAdd(this, -units);
+        return false;
+    }
+
+    // Slot -1 is the base; 0..CELL_COUNT-1 are cells, available once striping has started
+    private int homeSlot() {
+        if (cells == null) {
+            return -1;
+        }
+        int hash = Thread.currentThread().hashCode();
+        return (hash ^ (hash >>> 16)) & (CELL_COUNT - 1);
+    }
+
+    private long get(int slot) {
+        if (slot < 0) {
+            return base;
+        }
+        AtomicLongArray striped = cells;
+        return striped == null ? 0 : striped.get(slot * PADDING);
+    }
+
+    private boolean cas(int slot, long expected, long value) {
+        return slot < 0 ? BASE.compareAndSet(this, expected, value) : cells.compareAndSet(slot * PADDING, expected, value);
+    }
+
+    private void add(int slot, long units) {
+        if (units == 0) {
+            return;
+        }
+        if (slot < 0) {
+            BASE.getAndAdd(this, units);
+        } else {
+            cells.getAndAdd(slot * PADDING, units);
+        }
+    }
+}
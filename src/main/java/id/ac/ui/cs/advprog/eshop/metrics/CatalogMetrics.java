@@ -0,0 +1,62 @@
+package id.ac.ui.cs.advprog.eshop.metrics;
+
+import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.repository.CarRepository;
+import id.ac.ui.cs.advprog.eshop.repository.ProductRepository;
+import id.ac.ui.cs.advprog.eshop.service.LookupCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Gauges for repository sizes and counters for the lookup caches. Handler latency
+ * comes from Spring MVC's http.server.requests timer and repository latency from
+ * the @Timed repositories.
+ */
+@Component
+public class CatalogMetrics implements MeterBinder {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CarRepository carRepository;
+
+    @Autowired
+    private ObjectProvider<LookupCache<Product>> productCache;
+
+    @Autowired
+    private ObjectProvider<LookupCache<Car>> carCache;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("eshop.repository.size", productRepository, ProductRepository::size)
+                .description("Number of stored records")
+                .tag("repository", "product")
+                .register(registry);
+        Gauge.builder("eshop.repository.size", carRepository, CarRepository::size)
+                .description("Number of stored records")
+                .tag("repository", "car")
+                .register(registry);
+        productCache.ifAvailable(cache -> bindCache(registry, "product", cache));
+        carCache.ifAvailable(cache -> bindCache(registry, "car", cache));
+    }
+
+    private static void bindCache(MeterRegistry registry, String name, LookupCache<?> cache) {
+        FunctionCounter.builder("eshop.cache.requests", cache, c -> c.stats().getHits())
+                .tag("cache", name).tag("result", "hit").register(registry);
+        FunctionCounter.builder("eshop.cache.requests", cache, c -> c.stats().getMisses())
+                .tag("cache", name).tag("result", "miss").register(registry);
+        FunctionCounter.builder("eshop.cache.evictions", cache, c -> c.stats().getEvictions())
+                .tag("cache", name).register(registry);
+        FunctionCounter.builder("eshop.cache.expirations", cache, c -> c.stats().getExpirations())
+                .tag("cache", name).register(registry);
+        Gauge.builder("eshop.cache.size", cache, c -> c.stats().getSize())
+                .tag("cache", name).register(registry);
+    }
+}
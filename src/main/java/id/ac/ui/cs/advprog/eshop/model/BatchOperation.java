@@ -0,0 +1,28 @@
+package id.ac.ui.cs.advprog.eshop.model;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter @Setter
+public class BatchOperation<T> {
+    public enum Type { CREATE, UPDATE, DELETE }
+
+    private Type type;
+    // Target of an update or delete; a create takes its id from the item
+    private String id;
+    private T item;
+
+    /** Why this operation cannot be applied, or null when it is well-formed. */
+    public String invalidReason() {
+        if (type == null) {
+            return "Missing operation type";
+        }
+        if (type != Type.DELETE && item == null) {
+            return "Missing item for " + type;
+        }
+        if (type != Type.CREATE && id == null) {
+            return "Missing id for " + type;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,29 @@
+package id.ac.ui.cs.advprog.eshop.model;
+
+import lombok.Getter;
+
+@Getter
+public class BatchResult {
+    public enum Status { CREATED, UPDATED, DELETED, NOT_FOUND, REJECTED }
+
+    // Position of the operation in the submitted batch
+    private final int index;
+    private final String id;
+    private final Status status;
+    private final String message;
+
+    public BatchResult(int index, String id, Status status, String message) {
+        this.index = index;
+        this.id = id;
+        this.status = status;
+        this.message = message;
+    }
+
+    public BatchResult(int index, String id, Status status) {
+        this(index, id, status, null);
+    }
+
+    public boolean isApplied() {
+        return status == Status.CREATED || status == Status.UPDATED || status == Status.DELETED;
+    }
+}
@@ -0,0 +1,24 @@
+package id.ac.ui.cs.advprog.eshop.model;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter @Setter
+public class CatalogQuery {
+    // Name prefix, case-insensitive
+    private String name;
+    // Substring anywhere in the name, case-insensitive
+    private String contains;
+    private String color;
+    // Inclusive quantity bounds
+    private Integer minQuantity;
+    private Integer maxQuantity;
+
+    public boolean hasCriteria() {
+        return isSet(name) || isSet(contains) || isSet(color) || minQuantity != null || maxQuantity != null;
+    }
+
+    private static boolean isSet(String value) {
+        return value != null && !value.isBlank();
+    }
+}
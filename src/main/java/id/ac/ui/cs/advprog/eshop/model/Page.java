@@ -0,0 +1,23 @@
+package id.ac.ui.cs.advprog.eshop.model;
+
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+public class Page<T> {
+    private final List<T> content;
+    private final int size;
+    // Opaque keyset cursor for the page after this one, null on the last page
+    private final String nextCursor;
+
+    public Page(List<T> content, int size, String nextCursor) {
+        this.content = content;
+        this.size = size;
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
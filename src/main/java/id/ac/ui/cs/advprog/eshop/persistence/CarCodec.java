@@ -0,0 +1,28 @@
+package id.ac.ui.cs.advprog.eshop.persistence;
+
+import id.ac.ui.cs.advprog.eshop.model.Car;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+public class CarCodec implements RecordCodec<Car> {
+
+    @Override
+    public void write(DataOutput out, Car car) throws IOException {
+        RecordCodec.writeId(out, car.getCarId());
+        RecordCodec.writeNullable(out, car.getCarName());
+        RecordCodec.writeNullable(out, car.getCarColor());
+        out.writeInt(car.getCarQuantity());
+    }
+
+    @Override
+    public Car read(DataInput in) throws IOException {
+        Car car = new Car();
+        car.setCarId(RecordCodec.readId(in));
+        car.setCarName(RecordCodec.readNullable(in));
+        car.setCarColor(RecordCodec.readNullable(in));
+        car.setCarQuantity(in.readInt());
+        return car;
+    }
+}
@@ -0,0 +1,98 @@
+package id.ac.ui.cs.advprog.eshop.persistence;
+
+import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.repository.CarRepository;
+import id.ac.ui.cs.advprog.eshop.repository.ProductRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Restores the repositories from disk on startup and keeps their write-ahead logs
+ * flushed and compacted in the background. Requests never wait for the disk; at
+ * most one flush interval of changes is lost on a crash.
+ */
+@Component
+@ConditionalOnProperty(name = "eshop.persistence.enabled", havingValue = "true")
+public class CatalogPersistence {
+    private static final Logger log = LoggerFactory.getLogger(CatalogPersistence.class);
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CarRepository carRepository;
+
+    @Value("${eshop.persistence.directory:data}")
+    private String directory;
+
+    @Value("${eshop.persistence.flush-interval-ms:50}")
+    private long flushIntervalMs;
+
+    @Value("${eshop.persistence.compact-after-records:100000}")
+    private long compactAfterRecords;
+
+    private WriteAheadLog<Product> productLog;
+    private WriteAheadLog<Car> carLog;
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    public void start() throws IOException {
+        productLog = new WriteAheadLog<>(Path.of(directory, "products"), new ProductCodec());
+        productLog.replay(productRepository::create, productRepository::delete);
+        productRepository.addListener(productLog);
+
+        carLog = new WriteAheadLog<>(Path.of(directory, "cars"), new CarCodec());
+        carLog.replay(carRepository::create, carRepository::delete);
+        carRepository.addListener(carLog);
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "catalog-wal-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    void flush() {
+        flush(productLog, productRepository::findAll, "product");
+        flush(carLog, carRepository::findAll, "car");
+    }
+
+    // Each log on its own, so a failing disk write for one does not hold the other back
+    private <T> void flush(WriteAheadLog<T> wal, Supplier<Iterator<T>> contents, String entity) {
+        try {
+            wal.flush();
+            if (wal.getRecordsSinceSnapshot() >= compactAfterRecords) {
+                wal.compact(contents.get());
+            }
+        } catch (IOException e) {
+            log.error("Failed to persist {} changes", entity, e);
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws IOException, InterruptedException {
+        scheduler.shutdown();
+        scheduler.awaitTermination(10, TimeUnit.SECONDS);
+        // Leave a fresh snapshot behind so the next start maps one file instead of replaying the log
+        productLog.compact(productRepository.findAll());
+        carLog.compact(carRepository.findAll());
+        productLog.close();
+        carLog.close();
+    }
+}
@@ -0,0 +1,160 @@
+package id.ac.ui.cs.advprog.eshop.persistence;
+
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Sequential {@link DataInput} over a memory-mapped file. The file is mapped in
+ * windows so it can exceed 2 GB, and pages are only faulted in as they are read.
+ */
+class MappedInput implements DataInput {
+    private static final long WINDOW_SIZE = 1L << 28;
+
+    private final FileChannel channel;
+    private final long size;
+    private long windowStart;
+    private MappedByteBuffer window;
+
+    MappedInput(FileChannel channel, long position) throws IOException {
+        this.channel = channel;
+        this.size = channel.size();
+        map(position);
+    }
+
+    long position() {
+        return windowStart + window.position();
+    }
+
+    private void map(long position) throws IOException {
+        windowStart = position;
+        window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW_SIZE, size - position));
+    }
+
+    private void require(int bytes) throws IOException {
+        if (window.remaining() >= bytes) {
+            return;
+        }
+        long position = position();
+        if (size - position < bytes) {
+            throw new EOFException();
+        }
+        map(position);
+    }
+
+    @Override
+    public void readFully(byte[] bytes) throws IOException {
+        readFully(bytes, 0, bytes.length);
+    }
+
+    @Override
+    public void readFully(byte[] bytes, int offset, int length) throws IOException {
+        require(length);
+        window.get(bytes, offset, length);
+    }
+
+    @Override
+    public int skipBytes(int n) throws IOException {
+        int skipped = (int) Math.min(n, size - position());
+        require(skipped);
+        window.position(window.position() + skipped);
+        return skipped;
+    }
+
+    @Override
+    public boolean readBoolean() throws IOException {
+        return readByte() != 0;
+    }
+
+    @Override
+    public byte readByte() throws IOException {
+        require(Byte.BYTES);
+        return window.get();
+    }
+
+    @Override
+    public int readUnsignedByte() throws IOException {
+        return readByte() & 0xff;
+    }
+
+    @Override
+    public short readShort() throws IOException {
+        require(Short.BYTES);
+        return window.getShort();
+    }
+
+    @Override
+    public int readUnsignedShort() throws IOException {
+        return readShort() & 0xffff;
+    }
+
+    @Override
+    public char readChar() throws IOException {
+        require(Character.BYTES);
+        return window.getChar();
+    }
+
+    @Override
+    public int readInt() throws IOException {
+        require(Integer.BYTES);
+        return window.getInt();
+    }
+
+    @Override
+    public long readLong() throws IOException {
+        require(Long.BYTES);
+        return window.getLong();
+    }
+
+    @Override
+    public float readFloat() throws IOException {
+        require(Float.BYTES);
+        return window.getFloat();
+    }
+
+    @Override
+    public double readDouble() throws IOException {
+        require(Double.BYTES);
+        return window.getDouble();
+    }
+
+    // Same contract as DataInputStream#readLine: Latin-1 bytes up to \n, \r or \r\n, null at end of file
+    @Override
+    public String readLine() throws IOException {
+        if (position() == size) {
+            return null;
+        }
+        StringBuilder line = new StringBuilder();
+        while (position() < size) {
+            int c = readUnsignedByte();
+            if (c == '\n') {
+                break;
+            }
+            if (c == '\r') {
+                if (position() < size && peek() == '\n') {
+                    readByte();
+                }
+                break;
+            }
+            line.append((char) c);
+        }
+        return line.toString();
+    }
+
+    private int peek() throws IOException {
+        require(Byte.BYTES);
+        return window.get(window.position()) & 0xff;
+    }
+
+    @Override
+    public String readUTF() throws IOException {
+        // Make sure the whole string sits in the current window before decoding it
+        require(Short.BYTES);
+        int length = window.getShort(window.position()) & 0xffff;
+        require(Short.BYTES + length);
+        return DataInputStream.readUTF(this);
+    }
+}
@@ -0,0 +1,95 @@
+package id.ac.ui.cs.advprog.eshop.persistence;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.function.Consumer;
+
+/**
+ * Binary dump of a whole repository: a fixed header followed by back-to-back
+ * {@link RecordCodec} records (binary UUID ids, length-prefixed strings and raw
+ * ints). Files are replaced atomically, and loading reads straight out of a
+ * memory mapping instead of parsing through stream buffers.
+ */
+public final class MappedSnapshot {
+    private static final int MAGIC = 0x45534e50;
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 4 + 4 + 8 + 8;
+
+    private MappedSnapshot() {
+    }
+
+    public static <T> long write(Path path, long coveredSegment, Iterator<T> contents, RecordCodec<T> codec)
+            throws IOException {
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        long count = 0;
+        try (FileChannel file = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            file.position(HEADER_SIZE);
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(file), 1 << 16));
+            while (contents.hasNext()) {
+                codec.write(out, contents.next());
+                count++;
+            }
+            out.flush();
+            // The header goes in last, so a snapshot cut short never claims more records than it holds
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                    .putInt(MAGIC).putInt(VERSION).putLong(coveredSegment).putLong(count);
+            file.write(header.flip(), 0);
+            file.force(true);
+        }
+        Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return count;
+    }
+
+    /** Returns the log segment the snapshot covers, or 0 if there is no snapshot. */
+    public static long coveredSegment(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return 0;
+        }
+        try (FileChannel file = FileChannel.open(path, StandardOpenOption.READ)) {
+            return readHeader(file, path).getLong(8);
+        }
+    }
+
+    /** Streams every record to {@code sink} and returns the log segment the snapshot covers. */
+    public static <T> long read(Path path, RecordCodec<T> codec, Consumer<T> sink) throws IOException {
+        if (!Files.exists(path)) {
+            return 0;
+        }
+        try (FileChannel file = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = readHeader(file, path);
+            long coveredSegment = header.getLong(8);
+            long count = header.getLong(16);
+            if (count > 0) {
+                MappedInput in = new MappedInput(file, HEADER_SIZE);
+                for (long i = 0; i < count; i++) {
+                    sink.accept(codec.read(in));
+                }
+            }
+            return coveredSegment;
+        }
+    }
+
+    private static ByteBuffer readHeader(FileChannel file, Path path) throws IOException {
+        if (file.size() < HEADER_SIZE) {
+            throw new IOException("Not a catalogue snapshot: " + path);
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        while (header.hasRemaining()) {
+            file.read(header, header.position());
+        }
+        if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+            throw new IOException("Not a catalogue snapshot: " + path);
+        }
+        return header;
+    }
+}
@@ -0,0 +1,26 @@
+package id.ac.ui.cs.advprog.eshop.persistence;
+
+import id.ac.ui.cs.advprog.eshop.model.Product;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+public class ProductCodec implements RecordCodec<Product> {
+
+    @Override
+    public void write(DataOutput out, Product product) throws IOException {
+        RecordCodec.writeId(out, product.getProductId());
+        RecordCodec.writeNullable(out, product.getProductName());
+        out.writeInt(product.getProductQuantity());
+    }
+
+    @Override
+    public Product read(DataInput in) throws IOException {
+        Product product = new Product();
+        product.setProductId(RecordCodec.readId(in));
+        product.setProductName(RecordCodec.readNullable(in));
+        product.setProductQuantity(in.readInt());
+        return product;
+    }
+}
@@ -0,0 +1,56 @@
+package id.ac.ui.cs.advprog.eshop.persistence;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.UUID;
+
+public interface RecordCodec<T> {
+    void write(DataOutput out, T entity) throws IOException;
+
+    T read(DataInput in) throws IOException;
+
+    // UUID ids take a fixed 17 bytes instead of a 38-byte string; anything else falls back to UTF
+    static void writeId(DataOutput out, String id) throws IOException {
+        UUID uuid = parseUuid(id);
+        if (uuid != null) {
+            out.writeByte(0);
+            out.writeLong(uuid.getMostSignificantBits());
+            out.writeLong(uuid.getLeastSignificantBits());
+        } else {
+            out.writeByte(1);
+            out.writeUTF(id);
+        }
+    }
+
+    static String readId(DataInput in) throws IOException {
+        if (in.readByte() == 0) {
+            return new UUID(in.readLong(), in.readLong()).toString();
+        }
+        return in.readUTF();
+    }
+
+    private static UUID parseUuid(String id) {
+        if (id.length() != 36) {
+            return null;
+        }
+        try {
+            UUID uuid = UUID.fromString(id);
+            // Only canonical lower-case ids survive the round trip unchanged
+            return uuid.toString().equals(id) ? uuid : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    static void writeNullable(DataOutput out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    static String readNullable(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
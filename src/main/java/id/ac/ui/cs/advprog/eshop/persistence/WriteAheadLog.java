@@ -0,0 +1,283 @@
+package id.ac.ui.cs.advprog.eshop.persistence;
+
+import id.ac.ui.cs.advprog.eshop.repository.ChangeListener;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only change log for one repository. Changes are encoded on the caller's
+ * thread and buffered; {@link #flush()} writes the buffered batch with a single
+ * fsync. {@link #compact(Iterator)} writes the current contents to a snapshot and
+ * drops the log segments it covers, so replay stays proportional to the live data.
+ */
+public class WriteAheadLog<T> implements ChangeListener<T>, Closeable {
+    private static final int MAX_FRAME_LENGTH = 1 << 24;
+    private static final byte SAVE = 1;
+    private static final byte DELETE = 2;
+    private static final String SNAPSHOT_FILE = "snapshot.bin";
+    private static final String SEGMENT_PREFIX = "wal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path directory;
+    private final RecordCodec<T> codec;
+    // j.u.c locks, so flush and compact never pin a virtual thread. append is different: the
+    // repositories call it from inside ConcurrentHashMap.compute, whose bin monitor pins the
+    // caller anyway (before JDK 24); that wait stays short because pendingLock only guards
+    // a list add or swap
+    private final Lock pendingLock = new ReentrantLock();
+    private final Lock ioLock = new ReentrantLock();
+    private List<byte[]> pending = new ArrayList<>();
+    private long recordsSinceSnapshot;
+    private long segment;
+    private FileChannel channel;
+
+    public WriteAheadLog(Path directory, RecordCodec<T> codec) throws IOException {
+        this.directory = directory;
+        this.codec = codec;
+        Files.createDirectories(directory);
+        List<Path> segments = segments();
+        long lastSegment = segments.isEmpty() ? 0 : segmentNumber(segments.get(segments.size() - 1));
+        // Never append to an existing segment: its tail may be a torn write from a crash
+        long coveredSegment = MappedSnapshot.coveredSegment(directory.resolve(SNAPSHOT_FILE));
+        segment = Math.max(lastSegment, coveredSegment) + 1;
+        channel = openSegment(segment);
+    }
+
+    /**
+     * Feeds the snapshot and every later segment to the given callbacks, oldest first.
+     * Must be called before this log is registered as a listener.
+     */
+    public void replay(Consumer<T> save, Consumer<String> delete) throws IOException {
+        long covered = MappedSnapshot.read(directory.resolve(SNAPSHOT_FILE), codec, save);
+        for (Path path : segments()) {
+            long number = segmentNumber(path);
+            if (number > covered && number < segment) {
+                try (InputStream in = new BufferedInputStream(Files.newInputStream(path))) {
+                    recordsSinceSnapshot += readFrames(new DataInputStream(in), save, delete);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void onSave(T entity) {
+        append(encode(SAVE, entity, null));
+    }
+
+    @Override
+    public void onDelete(String id) {
+        append(encode(DELETE, null, id));
+    }
+
+    public long getRecordsSinceSnapshot() {
+        ioLock.lock();
+        try {
+            return recordsSinceSnapshot;
+        } finally {
+            ioLock.unlock();
+        }
+    }
+
+    public void flush() throws IOException {
+        ioLock.lock();
+        try {
+            List<byte[]> batch;
+            pendingLock.lock();
+            try {
+                if (pending.isEmpty()) {
+                    return;
+                }
+                batch = pending;
+                pending = new ArrayList<>();
+            } finally {
+                pendingLock.unlock();
+            }
+            long start = channel.size();
+            try {
+                write(batch);
+            } catch (IOException e) {
+                discardTornWrite(start, e);
+                pendingLock.lock();
+                try {
+                    batch.addAll(pending);
+                    pending = batch;
+                } finally {
+                    pendingLock.unlock();
+                }
+                throw e;
+            }
+            recordsSinceSnapshot += batch.size();
+        } finally {
+            ioLock.unlock();
+        }
+    }
+
+    private void write(List<byte[]> batch) throws IOException {
+        ByteBuffer[] buffers = new ByteBuffer[batch.size()];
+        long remaining = 0;
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = ByteBuffer.wrap(batch.get(i));
+            remaining += buffers[i].remaining();
+        }
+        while (remaining > 0) {
+            remaining -= channel.write(buffers);
+        }
+        channel.force(false);
+    }
+
+    // Replay stops at the first bad frame, so a partial batch must not stay in front of the
+    // retry; when the segment cannot be cut back, later frames go to a fresh one instead
+    private void discardTornWrite(long start, IOException cause) {
+        try {
+            channel.truncate(start);
+            return;
+        } catch (IOException e) {
+            cause.addSuppressed(e);
+        }
+        try {
+            channel.close();
+            segment++;
+            channel = openSegment(segment);
+        } catch (IOException e) {
+            cause.addSuppressed(e);
+        }
+    }
+
+    public void compact(Iterator<T> contents) throws IOException {
+        ioLock.lock();
+        try {
+            flush();
+            long covered = segment;
+            channel.close();
+            segment++;
+            channel = openSegment(segment);
+            recordsSinceSnapshot = 0;
+
+            // Changes racing with this scan also land in the new segment, and replaying
+            // them on top of the snapshot converges on the same state
+            MappedSnapshot.write(directory.resolve(SNAPSHOT_FILE), covered, contents, codec);
+            for (Path path : segments()) {
+                if (segmentNumber(path) <= covered) {
+                    Files.delete(path);
+                }
+            }
+        } finally {
+            ioLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        ioLock.lock();
+        try {
+            flush();
+            channel.close();
+        } finally {
+            ioLock.unlock();
+        }
+    }
+
+    private void append(byte[] frame) {
+        pendingLock.lock();
+        try {
+            pending.add(frame);
+        } finally {
+            pendingLock.unlock();
+        }
+    }
+
+    // Frame layout: payload length, CRC32 of the payload, then an op byte and the record
+    private byte[] encode(byte op, T entity, String id) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(0);
+            out.writeInt(0);
+            out.writeByte(op);
+            if (op == SAVE) {
+                codec.write(out, entity);
+            } else {
+                RecordCodec.writeId(out, id);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        byte[] frame = bytes.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(frame, 8, frame.length - 8);
+        ByteBuffer.wrap(frame).putInt(frame.length - 8).putInt((int) crc.getValue());
+        return frame;
+    }
+
+    // Stops at the first truncated or corrupt frame, which is where a crash cut the log off
+    private long readFrames(DataInputStream in, Consumer<T> save, Consumer<String> delete) throws IOException {
+        long count = 0;
+        while (true) {
+            byte[] payload;
+            int checksum;
+            try {
+                int length = in.readInt();
+                if (length <= 0 || length > MAX_FRAME_LENGTH) {
+                    return count;
+                }
+                checksum = in.readInt();
+                payload = new byte[length];
+                in.readFully(payload);
+            } catch (EOFException e) {
+                return count;
+            }
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            if ((int) crc.getValue() != checksum) {
+                return count;
+            }
+            DataInputStream record = new DataInputStream(new ByteArrayInputStream(payload));
+            if (record.readByte() == SAVE) {
+                save.accept(codec.read(record));
+            } else {
+                delete.accept(RecordCodec.readId(record));
+            }
+            count++;
+        }
+    }
+
+    private FileChannel openSegment(long number) throws IOException {
+        Path path = directory.resolve(String.format("%s%016d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX));
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> {
+                String name = path.getFileName().toString();
+                return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+            }).sorted().toList();
+        }
+    }
+
+    private static long segmentNumber(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+}
@@ -1,54 +1,428 @@
 package id.ac.ui.cs.advprog.eshop.repository;
+import id.ac.ui.cs.advprog.eshop.model.BatchOperation;
+import id.ac.ui.cs.advprog.eshop.model.BatchResult;
 import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.model.CatalogQuery;
+import id.ac.ui.cs.advprog.eshop.model.Page;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.stereotype.Repository;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Repository
+@Timed(value = "eshop.repository", description = "Repository operation latency", histogram = true)
 public class CarRepository {
 
     static int id = 0;
 
-    private List<Car> carData = new ArrayList<>();
+    // ConcurrentHashMap locks per bin, so writers to different cars never contend
+    private final Map<String, Slot> carIndex = new ConcurrentHashMap<>();
+    private final NavigableMap<Long, Slot> carData = new ConcurrentSkipListMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong version = new AtomicLong();
+    private volatile long lastModified = System.currentTimeMillis();
+    private final ChangeListeners<Car> listeners;
+    private final SnapshotCache<Car> snapshots = new SnapshotCache<>(this::version, this::findAll);
+    private final CatalogIndex index = new CatalogIndex();
+    private final TextIndex textIndex = new TextIndex();
+
+    public CarRepository() {
+        this(new ChangeListeners<>(Car::getCarId));
+        listeners.add(new ChangeListener<>() {
+            @Override
+            public void onSave(Car car) {
+                index.put(car.getCarId(), car.getCarName(), car.getCarColor(), car.getCarQuantity());
+                textIndex.put(car.getCarId(), car.getCarName());
+            }
+
+            @Override
+            public void onDelete(String carId) {
+                index.remove(carId);
+                textIndex.remove(carId);
+            }
+        });
+    }
+
+    // Nodes of a sharded repository report to the router's listeners, which keep the
+    // indexes over all nodes, and have no indexes of their own
+    CarRepository(ChangeListeners<Car> listeners) {
+        this.listeners = listeners;
+    }
+
+    public void addListener(ChangeListener<Car> listener) {
+        listeners.add(listener);
+    }
+
+    ChangeListeners<Car> listeners() {
+        return listeners;
+    }
 
     public Car create(Car car){
         if(car.getCarId() == null){
-            UUID uuid = UUID.randomUUID();
-            car.setCarId(uuid.toString());
+            car.setCarId(Ids.newId());
         }
-        carData.add(car);
-        return car;
+        TextLimits.require("Car", car.getCarId(), car.getCarName(), car.getCarColor());
+        beginWrite();
+        try {
+            put(car, true);
+            markModified();
+            return car;
+        } finally {
+            endWrite();
+        }
+    }
+
+    // False, leaving the stored car alone, if the id exists and overwrite is off
+    private boolean put(Car car, boolean overwrite) {
+        boolean[] stored = new boolean[1];
+        carIndex.compute(car.getCarId(), (carId, slot) -> {
+            if (slot != null && !overwrite) {
+                return slot;
+            }
+            Slot target = slot != null ? slot : new Slot(sequence.incrementAndGet(), null);
+            store(target, car);
+            stored[0] = true;
+            return target;
+        });
+        return stored[0];
+    }
+
+    // Only called inside the id's compute; see ProductRepository#store
+    private void store(Slot slot, Car car) {
+        Car previous = slot.car;
+        slot.car = car;
+        if (previous == null) {
+            carData.put(slot.sequence, slot);
+        }
+        try {
+            listeners.saved(car, previous);
+        } catch (RuntimeException e) {
+            if (previous == null) {
+                carData.remove(slot.sequence);
+            } else {
+                slot.car = previous;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Stores every car as create does, as one write: the version moves once, after
+     * all of them are visible. Nothing is stored if any of them is invalid.
+     */
+    public void createAll(List<Car> cars) {
+        for (Car car : cars) {
+            if (car.getCarId() == null) {
+                car.setCarId(Ids.newId());
+            }
+            TextLimits.require("Car", car.getCarId(), car.getCarName(), car.getCarColor());
+        }
+        beginWrite();
+        int stored = 0;
+        try {
+            for (Car car : cars) {
+                put(car, true);
+                stored++;
+            }
+        } finally {
+            if (stored > 0) {
+                markModified();
+            }
+            endWrite();
+        }
+    }
+
+    public int size() {
+        return carIndex.size();
     }
 
     public Iterator<Car> findAll(){
-        return carData.iterator();
+        Iterator<Slot> slots = carData.values().iterator();
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return slots.hasNext();
+            }
+
+            @Override
+            public Car next() {
+                return slots.next().car;
+            }
+        };
     }
 
-    public Car findById(String id) {
-        for (Car car: carData) {
-            if (car.getCarId().equals(id)) {
-                return car;
+    /** Every car in insertion order as an immutable list; see {@link ProductRepository#snapshot()}. */
+    public List<Car> snapshot() {
+        return snapshots.get();
+    }
+
+    public Page<Car> findPage(int page, int size) {
+        // Offset paging has to walk past the earlier pages; prefer the cursor variant for deep pages
+        return pageOf(carData.values().iterator(), (long) page * size, size);
+    }
+
+    public Page<Car> findPage(String cursor, int size) {
+        if (cursor == null) {
+            return findPage(0, size);
+        }
+        return pageOf(carData.tailMap(parseCursor(cursor), false).values().iterator(), 0, size);
+    }
+
+    private static Page<Car> pageOf(Iterator<Slot> slots, long skip, int size) {
+        for (long i = 0; i < skip && slots.hasNext(); i++) {
+            slots.next();
+        }
+        List<Car> content = new ArrayList<>(size);
+        long lastSequence = 0;
+        while (content.size() < size && slots.hasNext()) {
+            Slot slot = slots.next();
+            content.add(slot.car);
+            lastSequence = slot.sequence;
+        }
+        String nextCursor = slots.hasNext() ? Long.toString(lastSequence) : null;
+        return new Page<>(content, size, nextCursor);
+    }
+
+    static long parseCursor(String cursor) {
+        try {
+            return Long.parseLong(cursor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid page cursor: " + cursor, e);
+        }
+    }
+
+    /** Up to {@code limit} cars matching every condition of the query, in no particular order. */
+    public List<Car> query(CatalogQuery query, int limit) {
+        return resolve(index.search(query, limit));
+    }
+
+    /** Up to {@code limit} cars whose names match every word of {@code text}, best match first. */
+    public List<Car> search(String text, int limit) {
+        return resolve(textIndex.search(text, limit));
+    }
+
+    private List<Car> resolve(List<String> carIds) {
+        List<Car> cars = new ArrayList<>(carIds.size());
+        for (String carId : carIds) {
+            Car car = findById(carId);
+            if (car != null) {
+                cars.add(car);
             }
         }
-        return null;
+        return cars;
+    }
+
+    public Car findById(String id) {
+        if (id == null) {
+            return null;
+        }
+        Slot slot = carIndex.get(id);
+        return slot == null ? null : slot.car;
     }
 
     public Car update(String id, Car updatedCar) {
-        for (int i = 0; i < carData.size(); i++) {
-            Car car = carData.get(i);
-            if (car.getCarId().equals(id)) {
-                car.setCarName(updatedCar.getCarName());
-                car.setCarColor(updatedCar.getCarColor());
-                car.setCarQuantity(updatedCar.getCarQuantity());
-                return car;
+        if (id == null) {
+            return null;
+        }
+        TextLimits.require("Car", id, updatedCar.getCarName(), updatedCar.getCarColor());
+        beginWrite();
+        try {
+            Car updated = replaceSlot(id, updatedCar);
+            if (updated != null) {
+                markModified();
+            }
+            return updated; // null when the car is not found
+        } finally {
+            endWrite();
+        }
+    }
+
+    private Car replaceSlot(String id, Car updatedCar) {
+        // Readers keep the car they already hold; the new state is published in one write
+        Slot slot = carIndex.computeIfPresent(id, (carId, current) -> {
+            store(current, copyOf(carId, updatedCar.getCarName(), updatedCar.getCarColor(),
+                    updatedCar.getCarQuantity()));
+            return current;
+        });
+        return slot == null ? null : slot.car;
+    }
+
+    public Car adjustQuantity(String id, int delta) {
+        if (id == null) {
+            return null;
+        }
+        beginWrite();
+        try {
+            Slot slot = carIndex.computeIfPresent(id, (carId, current) -> {
+                Car car = current.car;
+                int quantity = Math.addExact(car.getCarQuantity(), delta);
+                if (quantity < 0) {
+                    throw new IllegalArgumentException("Insufficient stock for car " + carId);
+                }
+                store(current, copyOf(carId, car.getCarName(), car.getCarColor(), quantity));
+                return current;
+            });
+            if (slot == null) {
+                return null;
+            }
+            markModified();
+            return slot.car;
+        } finally {
+            endWrite();
+        }
+    }
+
+    /** False when there was no car with this id. */
+    public boolean delete(String id) {
+        return remove(id);
+    }
+
+    private boolean remove(String id) {
+        if (id == null) {
+            return false;
+        }
+        beginWrite();
+        try {
+            boolean removed = removeSlot(id);
+            if (removed) {
+                markModified();
+            }
+            return removed;
+        } finally {
+            endWrite();
+        }
+    }
+
+    private boolean removeSlot(String id) {
+        boolean[] removed = new boolean[1];
+        carIndex.computeIfPresent(id, (carId, slot) -> {
+            carData.remove(slot.sequence);
+            try {
+                listeners.deleted(carId, slot.car);
+            } catch (RuntimeException e) {
+                carData.put(slot.sequence, slot);
+                throw e;
+            }
+            removed[0] = true;
+            return null;
+        });
+        return removed[0];
+    }
+
+    /**
+     * Applies the operations in order in one pass and reports the outcome of each;
+     * see {@link ProductRepository#applyBatch(List)}.
+     */
+    public List<BatchResult> applyBatch(List<BatchOperation<Car>> operations) {
+        List<BatchResult> results = new ArrayList<>(operations.size());
+        beginWrite();
+        try {
+            boolean applied = false;
+            for (int i = 0; i < operations.size(); i++) {
+                BatchResult result = apply(i, operations.get(i));
+                applied |= result.isApplied();
+                results.add(result);
             }
+            if (applied) {
+                markModified();
+            }
+        } finally {
+            endWrite();
+        }
+        return results;
+    }
+
+    private BatchResult apply(int index, BatchOperation<Car> operation) {
+        String invalidReason = operation.invalidReason();
+        if (invalidReason != null) {
+            return new BatchResult(index, operation.getId(), BatchResult.Status.REJECTED, invalidReason);
+        }
+        Car car = operation.getItem();
+        if (operation.getType() != BatchOperation.Type.DELETE) {
+            String id = operation.getType() == BatchOperation.Type.CREATE ? car.getCarId() : operation.getId();
+            String tooLong = TextLimits.check("Car", id, car.getCarName(), car.getCarColor());
+            if (tooLong != null) {
+                return new BatchResult(index, operation.getId(), BatchResult.Status.REJECTED, tooLong);
+            }
+        }
+        switch (operation.getType()) {
+            case CREATE:
+                if (car.getCarId() == null) {
+                    car.setCarId(Ids.newId());
+                }
+                if (!put(car, false)) {
+                    return new BatchResult(index, car.getCarId(), BatchResult.Status.REJECTED,
+                            "Car " + car.getCarId() + " already exists");
+                }
+                return new BatchResult(index, car.getCarId(), BatchResult.Status.CREATED);
+            case UPDATE:
+                return new BatchResult(index, operation.getId(), replaceSlot(operation.getId(), operation.getItem()) != null
+                        ? BatchResult.Status.UPDATED : BatchResult.Status.NOT_FOUND);
+            default:
+                return new BatchResult(index, operation.getId(),
+                        removeSlot(operation.getId()) ? BatchResult.Status.DELETED : BatchResult.Status.NOT_FOUND);
         }
-        return null; // Handle the case where the car is not found
     }
 
-    public void delete(String id) {
-        carData.removeIf(car -> car.getCarId().equals(id));
+    /**
+     * Changes whenever the contents do; see {@link ProductRepository#version()}.
+     */
+    public long version() {
+        return version.get();
+    }
+
+    /** Wall-clock time of the latest change, in epoch milliseconds. */
+    public long lastModified() {
+        return lastModified;
+    }
+
+    // Writers must move the version before endWrite for snapshot() to notice them
+    protected void beginWrite() {
+        snapshots.beginWrite();
+    }
+
+    protected void endWrite() {
+        snapshots.endWrite();
+    }
+
+    protected void markModified() {
+        lastModified = System.currentTimeMillis();
+        version.incrementAndGet();
+    }
+
+    // For subclasses that apply changes themselves, which move the version on their own,
+    // once per write. previous is what the change replaced, null for a new car; if a
+    // listener throws, the ones already told get previous back and the caller undoes its change
+    protected void notifySave(Car car, Car previous) {
+        listeners.saved(car, previous);
+    }
+
+    protected void notifyDelete(String carId, Car previous) {
+        listeners.deleted(carId, previous);
+    }
+
+    private static Car copyOf(String carId, String carName, String carColor, int carQuantity) {
+        Car car = new Car();
+        car.setCarId(carId);
+        car.setCarName(carName);
+        car.setCarColor(carColor);
+        car.setCarQuantity(carQuantity);
+        return car;
+    }
+
+    private static final class Slot {
+        private final long sequence;
+        private volatile Car car;
+
+        private Slot(long sequence, Car car) {
+            this.sequence = sequence;
+            this.car = car;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,303 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import id.ac.ui.cs.advprog.eshop.model.CatalogQuery;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Secondary indexes over name (sorted for prefixes, plus trigrams for substrings),
+ * colour (hashed) and quantity (sorted), kept current by the owning repository.
+ * A query walks the index that yields the fewest candidates and checks the other
+ * conditions against each candidate's indexed values, stopping at the limit.
+ * Trigram postings hold int ordinals rather than ids and are append-only: an
+ * entry whose name changes gets a new ordinal, the old one resolves to nothing,
+ * and the postings are rebuilt once dead ordinals outnumber live ones.
+ * <p>
+ * One read-write lock covers the whole index, so all writers are serialized, and
+ * because the repositories call put and remove from inside their per-id compute,
+ * a writer waiting here also holds that id's map bin. Striping the lock would
+ * force every query to visit and merge each stripe. Instead, a save that leaves
+ * name, colour and quantity unchanged returns before locking. That check reads
+ * {@code entries} without the lock, which is safe only because the repository
+ * never indexes the same id from two threads at once.
+ */
+final class CatalogIndex {
+    private static final int MIN_DEAD_ORDINALS_TO_REBUILD = 1 << 16;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Concurrent only so put can skip unchanged entries without the lock; writes still take it
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final NavigableMap<String, Set<String>> byName = new TreeMap<>();
+    private final Map<String, Postings> byTrigram = new HashMap<>();
+    private final List<String> idsByOrdinal = new ArrayList<>();
+    private int deadOrdinals;
+    private final Map<String, Set<String>> byColor = new HashMap<>();
+    private final NavigableMap<Integer, Set<String>> byQuantity = new TreeMap<>();
+
+    void put(String id, String name, String color, int quantity) {
+        String normalizedName = normalize(name);
+        String normalizedColor = normalize(color);
+        Entry current = entries.get(id);
+        if (current != null && current.quantity == quantity && Objects.equals(current.name, normalizedName)
+                && Objects.equals(current.color, normalizedColor)) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            Entry previous = entries.get(id);
+            boolean renamed = previous == null || !Objects.equals(previous.name, normalizedName);
+            int ordinal = renamed ? idsByOrdinal.size() : previous.ordinal;
+            if (renamed) {
+                idsByOrdinal.add(id);
+                addTrigrams(normalizedName, ordinal);
+            }
+            Entry entry = new Entry(ordinal, normalizedName, normalizedColor, quantity);
+            entries.put(id, entry);
+            if (previous != null) {
+                unindex(id, previous);
+                if (renamed) {
+                    retire(previous.ordinal);
+                }
+            }
+            if (entry.name != null) {
+                add(byName, entry.name, id);
+            }
+            if (entry.color != null) {
+                add(byColor, entry.color, id);
+            }
+            add(byQuantity, entry.quantity, id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(String id) {
+        if (!entries.containsKey(id)) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            Entry previous = entries.remove(id);
+            if (previous != null) {
+                unindex(id, previous);
+                retire(previous.ordinal);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    List<String> search(CatalogQuery query, int limit) {
+        Filter filter = new Filter(query);
+        lock.readLock().lock();
+        try {
+            Iterator<String> candidates = plan(filter);
+            List<String> ids = new ArrayList<>(Math.min(limit, 64));
+            while (candidates.hasNext() && ids.size() < limit) {
+                String id = candidates.next();
+                if (filter.matches(entries.get(id))) {
+                    ids.add(id);
+                }
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Iterator<String> plan(Filter filter) {
+        Set<String> bestColor = null;
+        Postings bestTrigram = null;
+        long bestSize = Long.MAX_VALUE;
+        if (filter.color != null) {
+            bestColor = byColor.getOrDefault(filter.color, Set.of());
+            bestSize = bestColor.size();
+        }
+        if (filter.contains != null && filter.contains.length() >= 3) {
+            for (String trigram : trigrams(filter.contains)) {
+                Postings postings = byTrigram.getOrDefault(trigram, Postings.EMPTY);
+                if (postings.size < bestSize) {
+                    bestTrigram = postings;
+                    bestSize = postings.size;
+                }
+            }
+        }
+        List<Collection<Set<String>>> ranges = new ArrayList<>(2);
+        if (filter.minQuantity != Integer.MIN_VALUE || filter.maxQuantity != Integer.MAX_VALUE) {
+            ranges.add(filter.minQuantity > filter.maxQuantity
+                    ? List.of()
+                    : byQuantity.subMap(filter.minQuantity, true, filter.maxQuantity, true).values());
+        }
+        if (filter.name != null) {
+            ranges.add(byName.subMap(filter.name, true, filter.name + Character.MAX_VALUE, false).values());
+        }
+        // Range sizes are unknown, so count them against a growing bound: the cost follows the smallest one
+        for (long bound = 64; !ranges.isEmpty(); bound *= 4) {
+            long cap = Math.min(bound, bestSize);
+            for (Collection<Set<String>> range : ranges) {
+                if (countUpTo(range, cap) < cap) {
+                    return flatten(range);
+                }
+            }
+            if (cap == bestSize) {
+                break;
+            }
+        }
+        if (bestTrigram != null) {
+            return resolve(bestTrigram);
+        }
+        return bestColor == null ? entries.keySet().iterator() : bestColor.iterator();
+    }
+
+    private Iterator<String> resolve(Postings postings) {
+        return Arrays.stream(postings.ordinals, 0, postings.size)
+                .mapToObj(idsByOrdinal::get)
+                .filter(Objects::nonNull)
+                .iterator();
+    }
+
+    private static Iterator<String> flatten(Collection<Set<String>> postings) {
+        return postings.stream().flatMap(Set::stream).iterator();
+    }
+
+    private static long countUpTo(Collection<Set<String>> postings, long bound) {
+        long count = 0;
+        for (Iterator<Set<String>> it = postings.iterator(); it.hasNext() && count < bound; ) {
+            count += it.next().size();
+        }
+        return count;
+    }
+
+    private void unindex(String id, Entry entry) {
+        if (entry.name != null) {
+            remove(byName, entry.name, id);
+        }
+        if (entry.color != null) {
+            remove(byColor, entry.color, id);
+        }
+        remove(byQuantity, entry.quantity, id);
+    }
+
+    private void addTrigrams(String name, int ordinal) {
+        if (name != null) {
+            for (String trigram : trigrams(name)) {
+                byTrigram.computeIfAbsent(trigram, ignored -> new Postings()).add(ordinal);
+            }
+        }
+    }
+
+    private void retire(int ordinal) {
+        idsByOrdinal.set(ordinal, null);
+        deadOrdinals++;
+        if (deadOrdinals >= MIN_DEAD_ORDINALS_TO_REBUILD && deadOrdinals > entries.size()) {
+            rebuildTrigrams();
+        }
+    }
+
+    private void rebuildTrigrams() {
+        byTrigram.clear();
+        idsByOrdinal.clear();
+        deadOrdinals = 0;
+        for (Map.Entry<String, Entry> each : entries.entrySet()) {
+            Entry entry = each.getValue();
+            int ordinal = idsByOrdinal.size();
+            idsByOrdinal.add(each.getKey());
+            addTrigrams(entry.name, ordinal);
+            each.setValue(new Entry(ordinal, entry.name, entry.color, entry.quantity));
+        }
+    }
+
+    private static <K> void add(Map<K, Set<String>> index, K key, String id) {
+        index.computeIfAbsent(key, ignored -> new HashSet<>()).add(id);
+    }
+
+    private static <K> void remove(Map<K, Set<String>> index, K key, String id) {
+        Set<String> ids = index.get(key);
+        if (ids != null && ids.remove(id) && ids.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
+    private static Set<String> trigrams(String text) {
+        if (text.length() < 3) {
+            return Collections.emptySet();
+        }
+        Set<String> trigrams = new HashSet<>();
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            trigrams.add(text.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+    private static String normalize(String value) {
+        return value == null || value.isBlank() ? null : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Entry {
+        private final int ordinal;
+        private final String name;
+        private final String color;
+        private final int quantity;
+
+        private Entry(int ordinal, String name, String color, int quantity) {
+            this.ordinal = ordinal;
+            this.name = name;
+            this.color = color;
+            this.quantity = quantity;
+        }
+    }
+
+    private static final class Postings {
+        private static final Postings EMPTY = new Postings();
+
+        private int[] ordinals = new int[4];
+        private int size;
+
+        void add(int ordinal) {
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+            }
+            ordinals[size++] = ordinal;
+        }
+    }
+
+    private static final class Filter {
+        private final String name;
+        private final String contains;
+        private final String color;
+        private final int minQuantity;
+        private final int maxQuantity;
+
+        private Filter(CatalogQuery query) {
+            name = normalize(query.getName());
+            contains = normalize(query.getContains());
+            color = normalize(query.getColor());
+            minQuantity = query.getMinQuantity() == null ? Integer.MIN_VALUE : query.getMinQuantity();
+            maxQuantity = query.getMaxQuantity() == null ? Integer.MAX_VALUE : query.getMaxQuantity();
+        }
+
+        boolean matches(Entry entry) {
+            return entry != null
+                    && (name == null || entry.name != null && entry.name.startsWith(name))
+                    && (contains == null || entry.name != null && entry.name.contains(contains))
+                    && (color == null || color.equals(entry.color))
+                    && entry.quantity >= minQuantity && entry.quantity <= maxQuantity;
+        }
+    }
+}
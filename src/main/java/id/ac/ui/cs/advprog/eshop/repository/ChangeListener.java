@@ -0,0 +1,12 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+/**
+ * Notified of every mutation a repository applies. Calls are made while the
+ * affected entry is locked, so they arrive in the order the changes were applied
+ * for that id; implementations must not block.
+ */
+public interface ChangeListener<T> {
+    void onSave(T entity);
+
+    void onDelete(String id);
+}
@@ -0,0 +1,90 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * The listeners of one repository, told in registration order. A change is seen
+ * by all of them or, when one throws, taken back from the ones that already saw
+ * it, so the indexes, caches and logs built from the events never keep a change
+ * the repository itself undid. The repository must undo its own part.
+ */
+final class ChangeListeners<T> {
+    private final List<ChangeListener<T>> listeners;
+    private final Function<T, String> idOf;
+    private final BooleanSupplier active;
+
+    ChangeListeners(Function<T, String> idOf) {
+        this(new CopyOnWriteArrayList<>(), idOf, () -> true);
+    }
+
+    private ChangeListeners(List<ChangeListener<T>> listeners, Function<T, String> idOf, BooleanSupplier active) {
+        this.listeners = listeners;
+        this.idOf = idOf;
+        this.active = active;
+    }
+
+    /** The same listeners, told of changes only while {@code active} holds. */
+    ChangeListeners<T> onlyWhile(BooleanSupplier active) {
+        return new ChangeListeners<>(listeners, idOf, active);
+    }
+
+    void add(ChangeListener<T> listener) {
+        listeners.add(listener);
+    }
+
+    /** Tells every listener about {@code saved}, which replaced {@code previous} (null for a new item). */
+    void saved(T saved, T previous) {
+        if (!active.getAsBoolean()) {
+            return;
+        }
+        int told = 0;
+        try {
+            for (ChangeListener<T> listener : listeners) {
+                listener.onSave(saved);
+                told++;
+            }
+        } catch (RuntimeException e) {
+            String id = idOf.apply(saved);
+            takeBack(told, e, listener -> {
+                if (previous == null) {
+                    listener.onDelete(id);
+                } else {
+                    listener.onSave(previous);
+                }
+            });
+            throw e;
+        }
+    }
+
+    /** Tells every listener that {@code previous}, stored under {@code id}, was deleted. */
+    void deleted(String id, T previous) {
+        if (!active.getAsBoolean()) {
+            return;
+        }
+        int told = 0;
+        try {
+            for (ChangeListener<T> listener : listeners) {
+                listener.onDelete(id);
+                told++;
+            }
+        } catch (RuntimeException e) {
+            takeBack(told, e, listener -> listener.onSave(previous));
+            throw e;
+        }
+    }
+
+    // Listeners are only ever appended, so the first ones are the same that were told
+    private void takeBack(int told, RuntimeException cause, Consumer<ChangeListener<T>> undo) {
+        for (int i = 0; i < told; i++) {
+            try {
+                undo.accept(listeners.get(i));
+            } catch (RuntimeException e) {
+                cause.addSuppressed(e);
+            }
+        }
+    }
+}
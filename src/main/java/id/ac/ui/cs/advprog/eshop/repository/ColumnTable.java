@@ -0,0 +1,131 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.UUID;
+
+/**
+ * Row bookkeeping shared by the columnar repositories: binary ids, insertion
+ * sequences, tombstones and the id index. Subclasses own the value columns and
+ * are told when they must grow, move or clear a row. Not thread-safe; callers
+ * guard it with their own lock.
+ */
+abstract class ColumnTable {
+    private static final int MIN_DEAD_ROWS_TO_COMPACT = 1024;
+
+    private final UuidIndex index = new UuidIndex();
+    private final BitSet dead = new BitSet();
+    private long[] idMost = new long[0];
+    private long[] idLeast = new long[0];
+    private long[] sequences = new long[0];
+    private int rows;
+    private int deadRows;
+    private long lastSequence;
+
+    protected abstract void growColumns(int capacity);
+
+    protected abstract void moveRow(int from, int to);
+
+    protected abstract void clearRow(int row);
+
+    /** The binary key for a canonical UUID id, or null for anything this table cannot hold. */
+    static UUID keyOf(String id) {
+        return Ids.parse(id);
+    }
+
+    int rowOf(UUID id) {
+        return index.get(id.getMostSignificantBits(), id.getLeastSignificantBits());
+    }
+
+    int append(UUID id) {
+        if (rows == sequences.length) {
+            int capacity = Math.max(16, rows + (rows >> 1));
+            idMost = Arrays.copyOf(idMost, capacity);
+            idLeast = Arrays.copyOf(idLeast, capacity);
+            sequences = Arrays.copyOf(sequences, capacity);
+            growColumns(capacity);
+        }
+        int row = rows++;
+        idMost[row] = id.getMostSignificantBits();
+        idLeast[row] = id.getLeastSignificantBits();
+        sequences[row] = ++lastSequence;
+        index.put(idMost[row], idLeast[row], row);
+        return row;
+    }
+
+    /**
+     * Marks the id's row dead and returns where it was, or -1 when the id is absent.
+     * Compaction runs before the marking, so the row stays put for {@link #restore(int)}.
+     */
+    int remove(UUID id) {
+        if (rowOf(id) < 0) {
+            return -1;
+        }
+        if (deadRows >= MIN_DEAD_ROWS_TO_COMPACT && deadRows * 2 > rows) {
+            compact();
+        }
+        int row = rowOf(id);
+        index.remove(idMost[row], idLeast[row]);
+        dead.set(row);
+        clearRow(row);
+        deadRows++;
+        return row;
+    }
+
+    /**
+     * Brings back the row the latest {@link #remove(UUID)} returned, at its old place in
+     * insertion order; the caller writes its values again.
+     */
+    void restore(int row) {
+        dead.clear(row);
+        deadRows--;
+        index.put(idMost[row], idLeast[row], row);
+    }
+
+    int size() {
+        return index.size();
+    }
+
+    UUID idAt(int row) {
+        return new UUID(idMost[row], idLeast[row]);
+    }
+
+    long sequenceAt(int row) {
+        return sequences[row];
+    }
+
+    /** First live row inserted after {@code sequence}, or -1 when there is none. */
+    int nextLiveRow(long sequence) {
+        int row = Arrays.binarySearch(sequences, 0, rows, sequence);
+        row = row >= 0 ? row + 1 : -row - 1;
+        row = dead.nextClearBit(row);
+        return row < rows ? row : -1;
+    }
+
+    /** The live row following {@code row} in insertion order, or -1. */
+    int liveRowAfter(int row) {
+        int next = dead.nextClearBit(row + 1);
+        return next < rows ? next : -1;
+    }
+
+    // Sequences keep their order when rows slide down, so cursors stay valid across compaction
+    private void compact() {
+        int to = 0;
+        for (int from = dead.nextClearBit(0); from < rows; from = dead.nextClearBit(from + 1)) {
+            if (from != to) {
+                idMost[to] = idMost[from];
+                idLeast[to] = idLeast[from];
+                sequences[to] = sequences[from];
+                moveRow(from, to);
+                index.put(idMost[to], idLeast[to], to);
+            }
+            to++;
+        }
+        for (int row = to; row < rows; row++) {
+            clearRow(row);
+        }
+        rows = to;
+        deadRows = 0;
+        dead.clear();
+    }
+}
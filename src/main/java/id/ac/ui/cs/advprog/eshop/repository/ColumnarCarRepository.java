@@ -0,0 +1,411 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import id.ac.ui.cs.advprog.eshop.model.BatchOperation;
+import id.ac.ui.cs.advprog.eshop.model.BatchResult;
+import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.model.Page;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Column-oriented car store, enabled with {@code eshop.storage=columnar}. Besides
+ * binary ids and an int[] of quantities, colours are dictionary-encoded: each row
+ * holds an int code and every distinct colour string is stored once.
+ */
+@Repository
+@Primary
+@Timed(value = "eshop.repository", description = "Repository operation latency", histogram = true)
+@ConditionalOnProperty(name = "eshop.storage", havingValue = "columnar")
+public class ColumnarCarRepository extends CarRepository {
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final CarTable table = new CarTable();
+
+    @Override
+    public Car create(Car car) {
+        if (car.getCarId() == null) {
+            car.setCarId(Ids.newId());
+        }
+        UUID key = requireKey(car.getCarId());
+        TextLimits.require("Car", car.getCarName(), car.getCarColor());
+        beginWrite();
+        lock.writeLock().lock();
+        try {
+            save(key, car);
+            markModified();
+        } finally {
+            lock.writeLock().unlock();
+            endWrite();
+        }
+        return car;
+    }
+
+    @Override
+    public void createAll(List<Car> cars) {
+        for (Car car : cars) {
+            if (car.getCarId() == null) {
+                car.setCarId(Ids.newId());
+            }
+            requireKey(car.getCarId());
+            TextLimits.require("Car", car.getCarName(), car.getCarColor());
+        }
+        beginWrite();
+        lock.writeLock().lock();
+        int saved = 0;
+        try {
+            for (Car car : cars) {
+                save(ColumnTable.keyOf(car.getCarId()), car);
+                saved++;
+            }
+        } finally {
+            if (saved > 0) {
+                markModified();
+            }
+            lock.writeLock().unlock();
+            endWrite();
+        }
+    }
+
+    // Under the write lock. If a listener throws, the row is put back as it was
+    private void save(UUID key, Car car) {
+        int row = table.rowOf(key);
+        Car previous = row >= 0 ? table.read(row) : null;
+        if (row < 0) {
+            row = table.append(key);
+        }
+        table.write(row, car.getCarName(), car.getCarColor(), car.getCarQuantity());
+        try {
+            notifySave(car, previous);
+        } catch (RuntimeException e) {
+            if (previous == null) {
+                table.remove(key);
+            } else {
+                table.write(row, previous.getCarName(), previous.getCarColor(), previous.getCarQuantity());
+            }
+            throw e;
+        }
+    }
+
+    private void erase(UUID key, String id) {
+        Car previous = table.read(table.rowOf(key));
+        int row = table.remove(key);
+        try {
+            notifyDelete(id, previous);
+        } catch (RuntimeException e) {
+            table.restore(row);
+            table.write(row, previous.getCarName(), previous.getCarColor(), previous.getCarQuantity());
+            throw e;
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return table.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Iterator<Car> findAll() {
+        return new Iterator<>() {
+            private long lastSequence;
+            private Car next = advance();
+
+            private Car advance() {
+                lock.readLock().lock();
+                try {
+                    int row = table.nextLiveRow(lastSequence);
+                    if (row < 0) {
+                        return null;
+                    }
+                    lastSequence = table.sequenceAt(row);
+                    return table.read(row);
+                } finally {
+                    lock.readLock().unlock();
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public Car next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                Car current = next;
+                next = advance();
+                return current;
+            }
+        };
+    }
+
+    @Override
+    public Page<Car> findPage(int page, int size) {
+        lock.readLock().lock();
+        try {
+            int row = table.nextLiveRow(0);
+            for (long skipped = 0; row >= 0 && skipped < (long) page * size; skipped++) {
+                row = table.liveRowAfter(row);
+            }
+            return pageFrom(row, size);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Page<Car> findPage(String cursor, int size) {
+        if (cursor == null) {
+            return findPage(0, size);
+        }
+        long afterSequence = parseCursor(cursor);
+        lock.readLock().lock();
+        try {
+            return pageFrom(table.nextLiveRow(afterSequence), size);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Page<Car> pageFrom(int row, int size) {
+        List<Car> content = new ArrayList<>(size);
+        int last = -1;
+        while (row >= 0 && content.size() < size) {
+            content.add(table.read(row));
+            last = row;
+            row = table.liveRowAfter(row);
+        }
+        String nextCursor = row >= 0 ? Long.toString(table.sequenceAt(last)) : null;
+        return new Page<>(content, size, nextCursor);
+    }
+
+    @Override
+    public Car findById(String id) {
+        UUID key = ColumnTable.keyOf(id);
+        if (key == null) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            int row = table.rowOf(key);
+            return row < 0 ? null : table.read(row);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Car update(String id, Car updatedCar) {
+        UUID key = ColumnTable.keyOf(id);
+        if (key == null) {
+            return null;
+        }
+        TextLimits.require("Car", updatedCar.getCarName(), updatedCar.getCarColor());
+        beginWrite();
+        lock.writeLock().lock();
+        try {
+            int row = table.rowOf(key);
+            if (row < 0) {
+                return null;
+            }
+            Car stored = table.read(row);
+            stored.setCarName(updatedCar.getCarName());
+            stored.setCarColor(updatedCar.getCarColor());
+            stored.setCarQuantity(updatedCar.getCarQuantity());
+            save(key, stored);
+            markModified();
+            return stored;
+        } finally {
+            lock.writeLock().unlock();
+            endWrite();
+        }
+    }
+
+    @Override
+    public Car adjustQuantity(String id, int delta) {
+        UUID key = ColumnTable.keyOf(id);
+        if (key == null) {
+            return null;
+        }
+        beginWrite();
+        lock.writeLock().lock();
+        try {
+            int row = table.rowOf(key);
+            if (row < 0) {
+                return null;
+            }
+            int quantity = Math.addExact(table.quantities[row], delta);
+            if (quantity < 0) {
+                throw new IllegalArgumentException("Insufficient stock for car " + id);
+            }
+            Car stored = table.read(row);
+            stored.setCarQuantity(quantity);
+            save(key, stored);
+            markModified();
+            return stored;
+        } finally {
+            lock.writeLock().unlock();
+            endWrite();
+        }
+    }
+
+    @Override
+    public boolean delete(String id) {
+        UUID key = ColumnTable.keyOf(id);
+        if (key == null) {
+            return false;
+        }
+        beginWrite();
+        lock.writeLock().lock();
+        try {
+            if (table.rowOf(key) < 0) {
+                return false;
+            }
+            erase(key, id);
+            markModified();
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+            endWrite();
+        }
+    }
+
+    // One write for the whole batch: the version moves once, even if a listener fails partway
+    @Override
+    public List<BatchResult> applyBatch(List<BatchOperation<Car>> operations) {
+        List<BatchResult> results = new ArrayList<>(operations.size());
+        beginWrite();
+        lock.writeLock().lock();
+        boolean applied = false;
+        try {
+            for (int i = 0; i < operations.size(); i++) {
+                BatchResult result = apply(i, operations.get(i));
+                applied |= result.isApplied();
+                results.add(result);
+            }
+        } finally {
+            if (applied) {
+                markModified();
+            }
+            lock.writeLock().unlock();
+            endWrite();
+        }
+        return results;
+    }
+
+    private BatchResult apply(int index, BatchOperation<Car> operation) {
+        String invalidReason = operation.invalidReason();
+        if (invalidReason != null) {
+            return new BatchResult(index, operation.getId(), BatchResult.Status.REJECTED, invalidReason);
+        }
+        Car car = operation.getItem();
+        String tooLong = car == null ? null : TextLimits.check("Car", car.getCarName(), car.getCarColor());
+        if (tooLong != null) {
+            return new BatchResult(index, operation.getId(), BatchResult.Status.REJECTED, tooLong);
+        }
+        if (operation.getType() == BatchOperation.Type.CREATE) {
+            if (car.getCarId() == null) {
+                car.setCarId(Ids.newId());
+            }
+            UUID key = ColumnTable.keyOf(car.getCarId());
+            if (key == null) {
+                return new BatchResult(index, car.getCarId(), BatchResult.Status.REJECTED,
+                        "Columnar storage needs UUID car ids");
+            }
+            if (table.rowOf(key) >= 0) {
+                return new BatchResult(index, car.getCarId(), BatchResult.Status.REJECTED,
+                        "Car " + car.getCarId() + " already exists");
+            }
+            save(key, car);
+            return new BatchResult(index, car.getCarId(), BatchResult.Status.CREATED);
+        }
+        UUID key = ColumnTable.keyOf(operation.getId());
+        int row = key == null ? -1 : table.rowOf(key);
+        if (row < 0) {
+            return new BatchResult(index, operation.getId(), BatchResult.Status.NOT_FOUND);
+        }
+        if (operation.getType() == BatchOperation.Type.UPDATE) {
+            Car stored = table.read(row);
+            stored.setCarName(car.getCarName());
+            stored.setCarColor(car.getCarColor());
+            stored.setCarQuantity(car.getCarQuantity());
+            save(key, stored);
+            return new BatchResult(index, operation.getId(), BatchResult.Status.UPDATED);
+        }
+        erase(key, operation.getId());
+        return new BatchResult(index, operation.getId(), BatchResult.Status.DELETED);
+    }
+
+    private static UUID requireKey(String carId) {
+        UUID key = ColumnTable.keyOf(carId);
+        if (key == null) {
+            throw new IllegalArgumentException("Columnar storage needs UUID car ids: " + carId);
+        }
+        return key;
+    }
+
+    private static final class CarTable extends ColumnTable {
+        private static final int NO_COLOR = -1;
+
+        private final List<String> colors = new ArrayList<>();
+        private final Map<String, Integer> colorCodes = new HashMap<>();
+        private final StringColumn names = new StringColumn();
+        private int[] colorColumn = new int[0];
+        private int[] quantities = new int[0];
+
+        void write(int row, String name, String color, int quantity) {
+            names.set(row, name);
+            colorColumn[row] = color == null ? NO_COLOR : colorCodes.computeIfAbsent(color, key -> {
+                colors.add(key);
+                return colors.size() - 1;
+            });
+            quantities[row] = quantity;
+        }
+
+        Car read(int row) {
+            Car car = new Car();
+            car.setCarId(idAt(row).toString());
+            car.setCarName(names.get(row));
+            car.setCarColor(colorColumn[row] == NO_COLOR ? null : colors.get(colorColumn[row]));
+            car.setCarQuantity(quantities[row]);
+            return car;
+        }
+
+        @Override
+        protected void growColumns(int capacity) {
+            names.grow(capacity);
+            colorColumn = Arrays.copyOf(colorColumn, capacity);
+            quantities = Arrays.copyOf(quantities, capacity);
+        }
+
+        @Override
+        protected void moveRow(int from, int to) {
+            names.move(from, to);
+            colorColumn[to] = colorColumn[from];
+            quantities[to] = quantities[from];
+        }
+
+        @Override
+        protected void clearRow(int row) {
+            names.clear(row);
+        }
+    }
+}
@@ -0,0 +1,390 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import id.ac.ui.cs.advprog.eshop.model.BatchOperation;
+import id.ac.ui.cs.advprog.eshop.model.BatchResult;
+import id.ac.ui.cs.advprog.eshop.model.Page;
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Column-oriented product store, enabled with {@code eshop.storage=columnar}.
+ * Ids are kept as two longs, quantities in an int[] and names as packed UTF-8, so
+ * a product costs a few dozen bytes instead of several objects. Reads hand out a
+ * fresh Product built from the row; ids must be UUIDs.
+ */
+@Repository
+@Primary
+@Timed(value = "eshop.repository", description = "Repository operation latency", histogram = true)
+@ConditionalOnProperty(name = "eshop.storage", havingValue = "columnar")
+public class ColumnarProductRepository extends ProductRepository {
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ProductTable table = new ProductTable();
+
+    @Override
+    public Product create(Product product) {
+        if (product.getProductId() == null) {
+            product.setProductId(Ids.newId());
+        }
+        UUID key = requireKey(product.getProductId());
+        TextLimits.require("Product", product.getProductName());
+        beginWrite();
+        lock.writeLock().lock();
+        try {
+            save(key, product);
+            markModified();
+        } finally {
+            lock.writeLock().unlock();
+            endWrite();
+        }
+        return product;
+    }
+
+    @Override
+    public void createAll(List<Product> products) {
+        for (Product product : products) {
+            if (product.getProductId() == null) {
+                product.setProductId(Ids.newId());
+            }
+            requireKey(product.getProductId());
+            TextLimits.require("Product", product.getProductName());
+        }
+        beginWrite();
+        lock.writeLock().lock();
+        int saved = 0;
+        try {
+            for (Product product : products) {
+                save(ColumnTable.keyOf(product.getProductId()), product);
+                saved++;
+            }
+        } finally {
+            if (saved > 0) {
+                markModified();
+            }
+            lock.writeLock().unlock();
+            endWrite();
+        }
+    }
+
+    // Under the write lock. If a listener throws, the row is put back as it was
+    private void save(UUID key, Product product) {
+        int row = table.rowOf(key);
+        Product previous = row >= 0 ? table.read(row) : null;
+        if (row < 0) {
+            row = table.append(key);
+        }
+        table.write(row, product);
+        try {
+            notifySave(product, previous);
+        } catch (RuntimeException e) {
+            if (previous == null) {
+                table.remove(key);
+            } else {
+                table.write(row, previous);
+            }
+            throw e;
+        }
+    }
+
+    private void erase(UUID key, String productId) {
+        Product previous = table.read(table.rowOf(key));
+        int row = table.remove(key);
+        try {
+            notifyDelete(productId, previous);
+        } catch (RuntimeException e) {
+            table.restore(row);
+            table.write(row, previous);
+            throw e;
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return table.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Iterator<Product> findAll() {
+        return new Iterator<>() {
+            private long lastSequence;
+            private Product next = advance();
+
+            private Product advance() {
+                lock.readLock().lock();
+                try {
+                    int row = table.nextLiveRow(lastSequence);
+                    if (row < 0) {
+                        return null;
+                    }
+                    lastSequence = table.sequenceAt(row);
+                    return table.read(row);
+                } finally {
+                    lock.readLock().unlock();
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public Product next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                Product current = next;
+                next = advance();
+                return current;
+            }
+        };
+    }
+
+    @Override
+    public Page<Product> findPage(int page, int size) {
+        lock.readLock().lock();
+        try {
+            int row = table.nextLiveRow(0);
+            for (long skipped = 0; row >= 0 && skipped < (long) page * size; skipped++) {
+                row = table.liveRowAfter(row);
+            }
+            return pageFrom(row, size);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Page<Product> findPage(String cursor, int size) {
+        if (cursor == null) {
+            return findPage(0, size);
+        }
+        long afterSequence = parseCursor(cursor);
+        lock.readLock().lock();
+        try {
+            return pageFrom(table.nextLiveRow(afterSequence), size);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Page<Product> pageFrom(int row, int size) {
+        List<Product> content = new ArrayList<>(size);
+        int last = -1;
+        while (row >= 0 && content.size() < size) {
+            content.add(table.read(row));
+            last = row;
+            row = table.liveRowAfter(row);
+        }
+        String nextCursor = row >= 0 ? Long.toString(table.sequenceAt(last)) : null;
+        return new Page<>(content, size, nextCursor);
+    }
+
+    @Override
+    public boolean delete(String productId) {
+        UUID key = ColumnTable.keyOf(productId);
+        if (key == null) {
+            return false;
+        }
+        beginWrite();
+        lock.writeLock().lock();
+        try {
+            if (table.rowOf(key) < 0) {
+                return false;
+            }
+            erase(key, productId);
+            markModified();
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+            endWrite();
+        }
+    }
+
+    @Override
+    public Product findById(String productId) {
+        UUID key = ColumnTable.keyOf(productId);
+        if (key == null) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            int row = table.rowOf(key);
+            return row < 0 ? null : table.read(row);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean update(Product updatedProduct) {
+        UUID key = ColumnTable.keyOf(updatedProduct.getProductId());
+        if (key == null) {
+            return false;
+        }
+        TextLimits.require("Product", updatedProduct.getProductName());
+        beginWrite();
+        lock.writeLock().lock();
+        try {
+            if (table.rowOf(key) < 0) {
+                return false;
+            }
+            save(key, updatedProduct);
+            markModified();
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+            endWrite();
+        }
+    }
+
+    @Override
+    public Product adjustQuantity(String productId, int delta) {
+        UUID key = ColumnTable.keyOf(productId);
+        if (key == null) {
+            return null;
+        }
+        beginWrite();
+        lock.writeLock().lock();
+        try {
+            int row = table.rowOf(key);
+            if (row < 0) {
+                return null;
+            }
+            int quantity = Math.addExact(table.quantities[row], delta);
+            if (quantity < 0) {
+                throw new IllegalArgumentException("Insufficient stock for product " + productId);
+            }
+            Product adjusted = table.read(row);
+            adjusted.setProductQuantity(quantity);
+            save(key, adjusted);
+            markModified();
+            return adjusted;
+        } finally {
+            lock.writeLock().unlock();
+            endWrite();
+        }
+    }
+
+    // One write for the whole batch: the version moves once, even if a listener fails partway
+    @Override
+    public List<BatchResult> applyBatch(List<BatchOperation<Product>> operations) {
+        List<BatchResult> results = new ArrayList<>(operations.size());
+        beginWrite();
+        lock.writeLock().lock();
+        boolean applied = false;
+        try {
+            for (int i = 0; i < operations.size(); i++) {
+                BatchResult result = apply(i, operations.get(i));
+                applied |= result.isApplied();
+                results.add(result);
+            }
+        } finally {
+            if (applied) {
+                markModified();
+            }
+            lock.writeLock().unlock();
+            endWrite();
+        }
+        return results;
+    }
+
+    private BatchResult apply(int index, BatchOperation<Product> operation) {
+        String invalidReason = operation.invalidReason();
+        if (invalidReason != null) {
+            return new BatchResult(index, operation.getId(), BatchResult.Status.REJECTED, invalidReason);
+        }
+        Product product = operation.getItem();
+        String tooLong = product == null ? null : TextLimits.check("Product", product.getProductName());
+        if (tooLong != null) {
+            return new BatchResult(index, operation.getId(), BatchResult.Status.REJECTED, tooLong);
+        }
+        if (operation.getType() == BatchOperation.Type.CREATE) {
+            if (product.getProductId() == null) {
+                product.setProductId(Ids.newId());
+            }
+            UUID key = ColumnTable.keyOf(product.getProductId());
+            if (key == null) {
+                return new BatchResult(index, product.getProductId(), BatchResult.Status.REJECTED,
+                        "Columnar storage needs UUID product ids");
+            }
+            if (table.rowOf(key) >= 0) {
+                return new BatchResult(index, product.getProductId(), BatchResult.Status.REJECTED,
+                        "Product " + product.getProductId() + " already exists");
+            }
+            save(key, product);
+            return new BatchResult(index, product.getProductId(), BatchResult.Status.CREATED);
+        }
+        UUID key = ColumnTable.keyOf(operation.getId());
+        int row = key == null ? -1 : table.rowOf(key);
+        if (row < 0) {
+            return new BatchResult(index, operation.getId(), BatchResult.Status.NOT_FOUND);
+        }
+        if (operation.getType() == BatchOperation.Type.UPDATE) {
+            product.setProductId(operation.getId());
+            save(key, product);
+            return new BatchResult(index, operation.getId(), BatchResult.Status.UPDATED);
+        }
+        erase(key, operation.getId());
+        return new BatchResult(index, operation.getId(), BatchResult.Status.DELETED);
+    }
+
+    private static UUID requireKey(String productId) {
+        UUID key = ColumnTable.keyOf(productId);
+        if (key == null) {
+            throw new IllegalArgumentException("Columnar storage needs UUID product ids: " + productId);
+        }
+        return key;
+    }
+
+    private static final class ProductTable extends ColumnTable {
+        private final StringColumn names = new StringColumn();
+        private int[] quantities = new int[0];
+
+        void write(int row, Product product) {
+            names.set(row, product.getProductName());
+            quantities[row] = product.getProductQuantity();
+        }
+
+        Product read(int row) {
+            Product product = new Product();
+            product.setProductId(idAt(row).toString());
+            product.setProductName(names.get(row));
+            product.setProductQuantity(quantities[row]);
+            return product;
+        }
+
+        @Override
+        protected void growColumns(int capacity) {
+            names.grow(capacity);
+            quantities = Arrays.copyOf(quantities, capacity);
+        }
+
+        @Override
+        protected void moveRow(int from, int to) {
+            names.move(from, to);
+            quantities[to] = quantities[from];
+        }
+
+        @Override
+        protected void clearRow(int row) {
+            names.clear(row);
+        }
+    }
+}
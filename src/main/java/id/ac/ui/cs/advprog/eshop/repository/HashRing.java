@@ -0,0 +1,77 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable consistent-hash ring. Each node owns {@value #POINTS_PER_NODE} points
+ * so keys spread evenly, and adding or removing a node only moves the keys on the
+ * arcs it gains or loses, about 1/N of them.
+ */
+final class HashRing {
+    private static final int POINTS_PER_NODE = 128;
+
+    private final List<String> nodes;
+    private final long[] points;
+    private final String[] owners;
+
+    HashRing(List<String> nodes) {
+        if (nodes.isEmpty()) {
+            throw new IllegalArgumentException("A hash ring needs at least one node");
+        }
+        this.nodes = List.copyOf(nodes);
+        long[][] placed = new long[nodes.size() * POINTS_PER_NODE][];
+        for (int n = 0; n < nodes.size(); n++) {
+            for (int point = 0; point < POINTS_PER_NODE; point++) {
+                placed[n * POINTS_PER_NODE + point] = new long[] {hash(nodes.get(n) + "#" + point), n};
+            }
+        }
+        Arrays.sort(placed, (a, b) -> Long.compare(a[0], b[0]));
+        points = new long[placed.length];
+        owners = new String[placed.length];
+        for (int i = 0; i < placed.length; i++) {
+            points[i] = placed[i][0];
+            owners[i] = nodes.get((int) placed[i][1]);
+        }
+    }
+
+    List<String> nodes() {
+        return nodes;
+    }
+
+    HashRing with(String node) {
+        List<String> grown = new ArrayList<>(nodes);
+        grown.add(node);
+        return new HashRing(grown);
+    }
+
+    HashRing without(String node) {
+        List<String> shrunk = new ArrayList<>(nodes);
+        shrunk.remove(node);
+        return new HashRing(shrunk);
+    }
+
+    /** The node owning the first point at or after the key's hash, wrapping around. */
+    String nodeFor(String key) {
+        int index = Arrays.binarySearch(points, hash(key));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return owners[index == points.length ? 0 : index];
+    }
+
+    // FNV-1a over the chars, then the murmur3 finaliser so nearby keys land far apart
+    static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        return hash ^ (hash >>> 33);
+    }
+}
@@ -0,0 +1,83 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Catalogue ids: canonical lowercase UUID strings. New ones are time-ordered
+ * version 7 UUIDs drawn from the calling thread's random source, so creating an
+ * id never contends on the shared SecureRandom behind UUID.randomUUID(). They are
+ * unique but not unguessable.
+ */
+public final class Ids {
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    private Ids() {
+    }
+
+    public static String newId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        // 48-bit Unix milliseconds, version 7, 12 random bits; then variant 10 and 62 random bits
+        long most = System.currentTimeMillis() << 16 | 0x7000L | random.nextInt(1 << 12);
+        long least = random.nextLong() & 0x3fffffffffffffffL | 0x8000000000000000L;
+        return format(most, least);
+    }
+
+    static String format(long most, long least) {
+        byte[] text = new byte[36];
+        hex(text, 0, most >>> 32, 8);
+        text[8] = '-';
+        hex(text, 9, most >>> 16, 4);
+        text[13] = '-';
+        hex(text, 14, most, 4);
+        text[18] = '-';
+        hex(text, 19, least >>> 48, 4);
+        text[23] = '-';
+        hex(text, 24, least, 12);
+        return new String(text, StandardCharsets.ISO_8859_1);
+    }
+
+    private static void hex(byte[] text, int offset, long value, int digits) {
+        for (int i = offset + digits - 1; i >= offset; i--) {
+            text[i] = HEX[(int) value & 0xf];
+            value >>>= 4;
+        }
+    }
+
+    /**
+     * The binary form of a canonical lowercase UUID id, or null for anything else.
+     * Reads the characters in place, without the splitting or re-formatting that a
+     * round trip through UUID.fromString and toString costs.
+     */
+    public static UUID parse(String id) {
+        if (id == null || id.length() != 36
+                || id.charAt(8) != '-' || id.charAt(13) != '-' || id.charAt(18) != '-' || id.charAt(23) != '-') {
+            return null;
+        }
+        long most = 0;
+        long least = 0;
+        for (int i = 0; i < 36; i++) {
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                continue;
+            }
+            int digit = digit(id.charAt(i));
+            if (digit < 0) {
+                return null;
+            }
+            if (i < 18) {
+                most = most << 4 | digit;
+            } else {
+                least = least << 4 | digit;
+            }
+        }
+        return new UUID(most, least);
+    }
+
+    private static int digit(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        return c >= 'a' && c <= 'f' ? c - 'a' + 10 : -1;
+    }
+}
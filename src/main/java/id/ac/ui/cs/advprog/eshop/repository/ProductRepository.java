@@ -1,42 +1,438 @@
 package id.ac.ui.cs.advprog.eshop.repository;
 
+import id.ac.ui.cs.advprog.eshop.model.BatchOperation;
+import id.ac.ui.cs.advprog.eshop.model.BatchResult;
+import id.ac.ui.cs.advprog.eshop.model.CatalogQuery;
+import id.ac.ui.cs.advprog.eshop.model.Page;
 import id.ac.ui.cs.advprog.eshop.model.Product;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.stereotype.Repository;
 
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Repository
+@Timed(value = "eshop.repository", description = "Repository operation latency", histogram = true)
 public class ProductRepository {
-    private List<Product> productData = new ArrayList<>();
+    // id -> slot gives O(1) lookups, the sequence-ordered map keeps findAll() in insertion order
+    private final Map<String, Slot> productIndex = new ConcurrentHashMap<>();
+    private final NavigableMap<Long, Slot> productData = new ConcurrentSkipListMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong version = new AtomicLong();
+    private volatile long lastModified = System.currentTimeMillis();
+    private final ChangeListeners<Product> listeners;
+    private final SnapshotCache<Product> snapshots = new SnapshotCache<>(this::version, this::findAll);
+    private final CatalogIndex index = new CatalogIndex();
+    private final TextIndex textIndex = new TextIndex();
+
+    public ProductRepository() {
+        this(new ChangeListeners<>(Product::getProductId));
+        listeners.add(new ChangeListener<>() {
+            @Override
+            public void onSave(Product product) {
+                index.put(product.getProductId(), product.getProductName(), null, product.getProductQuantity());
+                textIndex.put(product.getProductId(), product.getProductName());
+            }
+
+            @Override
+            public void onDelete(String productId) {
+                index.remove(productId);
+                textIndex.remove(productId);
+            }
+        });
+    }
+
+    // Nodes of a sharded repository report to the router's listeners, which keep the
+    // indexes over all nodes, and have no indexes of their own
+    ProductRepository(ChangeListeners<Product> listeners) {
+        this.listeners = listeners;
+    }
+
+    public void addListener(ChangeListener<Product> listener) {
+        listeners.add(listener);
+    }
+
+    ChangeListeners<Product> listeners() {
+        return listeners;
+    }
 
     public Product create(Product product) {
-        productData.add(product);
-        return product;
+        if (product.getProductId() == null) {
+            product.setProductId(Ids.newId());
+        }
+        TextLimits.require("Product", product.getProductId(), product.getProductName());
+        beginWrite();
+        try {
+            put(product, true);
+            markModified();
+            return product;
+        } finally {
+            endWrite();
+        }
+    }
+
+    // False, leaving the stored product alone, if the id exists and overwrite is off
+    private boolean put(Product product, boolean overwrite) {
+        boolean[] stored = new boolean[1];
+        productIndex.compute(product.getProductId(), (id, slot) -> {
+            if (slot != null && !overwrite) {
+                return slot;
+            }
+            Slot target = slot != null ? slot : new Slot(sequence.incrementAndGet(), null);
+            store(target, product);
+            stored[0] = true;
+            return target;
+        });
+        return stored[0];
+    }
+
+    // Only called inside the id's compute. Listeners run after the change, so a reader
+    // reloading on their signal sees it; if one throws, the listeners before it are
+    // handed the previous state, the row is put back and the compute fails with it
+    private void store(Slot slot, Product product) {
+        Product previous = slot.product;
+        slot.product = product;
+        if (previous == null) {
+            productData.put(slot.sequence, slot);
+        }
+        try {
+            listeners.saved(product, previous);
+        } catch (RuntimeException e) {
+            if (previous == null) {
+                productData.remove(slot.sequence);
+            } else {
+                slot.product = previous;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Stores every product as create does, as one write: the version moves once, after
+     * all of them are visible. Nothing is stored if any of them is invalid.
+     */
+    public void createAll(List<Product> products) {
+        for (Product product : products) {
+            if (product.getProductId() == null) {
+                product.setProductId(Ids.newId());
+            }
+            TextLimits.require("Product", product.getProductId(), product.getProductName());
+        }
+        beginWrite();
+        int stored = 0;
+        try {
+            for (Product product : products) {
+                put(product, true);
+                stored++;
+            }
+        } finally {
+            if (stored > 0) {
+                markModified();
+            }
+            endWrite();
+        }
+    }
+
+    public int size() {
+        return productIndex.size();
     }
 
     public Iterator<Product> findAll() {
-        return productData.iterator();
+        Iterator<Slot> slots = productData.values().iterator();
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return slots.hasNext();
+            }
+
+            @Override
+            public Product next() {
+                return slots.next().product;
+            }
+        };
+    }
+
+    /**
+     * Every product in insertion order, as an immutable list holding the contents at
+     * one version. Between writes all readers share one list, and only the first call
+     * after a change copies. A call that keeps meeting writes mid-copy holds new writes
+     * off for the length of one copy rather than return a mix of versions.
+     */
+    public List<Product> snapshot() {
+        return snapshots.get();
+    }
+
+    public Page<Product> findPage(int page, int size) {
+        // Offset paging has to walk past the earlier pages; prefer the cursor variant for deep pages
+        return pageOf(productData.values().iterator(), (long) page * size, size);
+    }
+
+    public Page<Product> findPage(String cursor, int size) {
+        if (cursor == null) {
+            return findPage(0, size);
+        }
+        return pageOf(productData.tailMap(parseCursor(cursor), false).values().iterator(), 0, size);
     }
 
-    public void delete(String productId) {
-        productData.removeIf(product -> product.getProductId().equals(productId));
+    private static Page<Product> pageOf(Iterator<Slot> slots, long skip, int size) {
+        for (long i = 0; i < skip && slots.hasNext(); i++) {
+            slots.next();
+        }
+        List<Product> content = new ArrayList<>(size);
+        long lastSequence = 0;
+        while (content.size() < size && slots.hasNext()) {
+            Slot slot = slots.next();
+            content.add(slot.product);
+            lastSequence = slot.sequence;
+        }
+        String nextCursor = slots.hasNext() ? Long.toString(lastSequence) : null;
+        return new Page<>(content, size, nextCursor);
+    }
+
+    static long parseCursor(String cursor) {
+        try {
+            return Long.parseLong(cursor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid page cursor: " + cursor, e);
+        }
+    }
+
+    /** False when there was no product with this id. */
+    public boolean delete(String productId) {
+        return remove(productId);
+    }
+
+    private boolean remove(String productId) {
+        if (productId == null) {
+            return false;
+        }
+        beginWrite();
+        try {
+            boolean removed = removeSlot(productId);
+            if (removed) {
+                markModified();
+            }
+            return removed;
+        } finally {
+            endWrite();
+        }
+    }
+
+    private boolean removeSlot(String productId) {
+        boolean[] removed = new boolean[1];
+        productIndex.computeIfPresent(productId, (id, slot) -> {
+            productData.remove(slot.sequence);
+            try {
+                listeners.deleted(id, slot.product);
+            } catch (RuntimeException e) {
+                productData.put(slot.sequence, slot);
+                throw e;
+            }
+            removed[0] = true;
+            return null;
+        });
+        return removed[0];
+    }
+
+    /** Up to {@code limit} products matching every condition of the query, in no particular order. */
+    public List<Product> query(CatalogQuery query, int limit) {
+        return resolve(index.search(query, limit));
+    }
+
+    /** Up to {@code limit} products whose names match every word of {@code text}, best match first. */
+    public List<Product> search(String text, int limit) {
+        return resolve(textIndex.search(text, limit));
+    }
+
+    private List<Product> resolve(List<String> productIds) {
+        List<Product> products = new ArrayList<>(productIds.size());
+        for (String productId : productIds) {
+            Product product = findById(productId);
+            if (product != null) {
+                products.add(product);
+            }
+        }
+        return products;
     }
 
     public Product findById(String productId) {
-        return productData.stream()
-            .filter(product -> product.getProductId().equals(productId))
-            .findFirst()
-            .orElse(null);
+        if (productId == null) {
+            return null;
+        }
+        Slot slot = productIndex.get(productId);
+        return slot == null ? null : slot.product;
+    }
+
+    /** False, changing nothing, when there is no product with this id. */
+    public boolean update(Product updatedProduct) {
+        return replace(updatedProduct);
+    }
+
+    private boolean replace(Product updatedProduct) {
+        if (updatedProduct.getProductId() == null) {
+            return false;
+        }
+        TextLimits.require("Product", updatedProduct.getProductId(), updatedProduct.getProductName());
+        beginWrite();
+        try {
+            boolean replaced = replaceSlot(updatedProduct);
+            if (replaced) {
+                markModified();
+            }
+            return replaced;
+        } finally {
+            endWrite();
+        }
+    }
+
+    private boolean replaceSlot(Product updatedProduct) {
+        return productIndex.computeIfPresent(updatedProduct.getProductId(), (id, current) -> {
+            store(current, updatedProduct);
+            return current;
+        }) != null;
+    }
+
+    // A fresh Product is published, so callers holding the old one never see its quantity change
+    public Product adjustQuantity(String productId, int delta) {
+        if (productId == null) {
+            return null;
+        }
+        beginWrite();
+        try {
+            Slot slot = productIndex.computeIfPresent(productId, (id, current) -> {
+                Product product = current.product;
+                int quantity = Math.addExact(product.getProductQuantity(), delta);
+                if (quantity < 0) {
+                    throw new IllegalArgumentException("Insufficient stock for product " + id);
+                }
+                Product adjusted = new Product();
+                adjusted.setProductId(id);
+                adjusted.setProductName(product.getProductName());
+                adjusted.setProductQuantity(quantity);
+                store(current, adjusted);
+                return current;
+            });
+            if (slot == null) {
+                return null;
+            }
+            markModified();
+            return slot.product;
+        } finally {
+            endWrite();
+        }
     }
 
-    public void update(Product updatedProduct) {
-        for (int i = 0; i < productData.size(); i++) {
-            if (productData.get(i).getProductId().equals(updatedProduct.getProductId())) {
-                productData.set(i, updatedProduct);
-                break;
+    /**
+     * Applies the operations in order in one pass and reports the outcome of each.
+     * A failed operation does not stop the ones after it. A CREATE never replaces:
+     * one naming an id that is already stored is rejected. Each item still locks
+     * only its own id, but the batch counts as one write: the version moves once,
+     * after every applied item is visible.
+     */
+    public List<BatchResult> applyBatch(List<BatchOperation<Product>> operations) {
+        List<BatchResult> results = new ArrayList<>(operations.size());
+        beginWrite();
+        try {
+            boolean applied = false;
+            for (int i = 0; i < operations.size(); i++) {
+                BatchResult result = apply(i, operations.get(i));
+                applied |= result.isApplied();
+                results.add(result);
             }
+            if (applied) {
+                markModified();
+            }
+        } finally {
+            endWrite();
+        }
+        return results;
+    }
+
+    private BatchResult apply(int index, BatchOperation<Product> operation) {
+        String invalidReason = operation.invalidReason();
+        if (invalidReason != null) {
+            return new BatchResult(index, operation.getId(), BatchResult.Status.REJECTED, invalidReason);
+        }
+        Product product = operation.getItem();
+        if (operation.getType() != BatchOperation.Type.DELETE) {
+            String id = operation.getType() == BatchOperation.Type.CREATE ? product.getProductId() : operation.getId();
+            String tooLong = TextLimits.check("Product", id, product.getProductName());
+            if (tooLong != null) {
+                return new BatchResult(index, operation.getId(), BatchResult.Status.REJECTED, tooLong);
+            }
+        }
+        switch (operation.getType()) {
+            case CREATE:
+                if (product.getProductId() == null) {
+                    product.setProductId(Ids.newId());
+                }
+                if (!put(product, false)) {
+                    return new BatchResult(index, product.getProductId(), BatchResult.Status.REJECTED,
+                            "Product " + product.getProductId() + " already exists");
+                }
+                return new BatchResult(index, product.getProductId(), BatchResult.Status.CREATED);
+            case UPDATE:
+                product.setProductId(operation.getId());
+                return new BatchResult(index, operation.getId(),
+                        replaceSlot(product) ? BatchResult.Status.UPDATED : BatchResult.Status.NOT_FOUND);
+            default:
+                return new BatchResult(index, operation.getId(),
+                        removeSlot(operation.getId()) ? BatchResult.Status.DELETED : BatchResult.Status.NOT_FOUND);
+        }
+    }
+
+    /**
+     * Changes whenever the contents do, so pages rendered at one version can be
+     * reused until it moves. It moves only once a change is visible to readers, so
+     * no reader can fetch stale data and then see the version the change ended at.
+     */
+    public long version() {
+        return version.get();
+    }
+
+    /** Wall-clock time of the latest change, in epoch milliseconds. */
+    public long lastModified() {
+        return lastModified;
+    }
+
+    // Writers must move the version before endWrite for snapshot() to notice them
+    protected void beginWrite() {
+        snapshots.beginWrite();
+    }
+
+    protected void endWrite() {
+        snapshots.endWrite();
+    }
+
+    protected void markModified() {
+        lastModified = System.currentTimeMillis();
+        version.incrementAndGet();
+    }
+
+    // For subclasses that apply changes themselves, which move the version on their own,
+    // once per write. previous is what the change replaced, null for a new product; if a
+    // listener throws, the ones already told get previous back and the caller undoes its change
+    protected void notifySave(Product product, Product previous) {
+        listeners.saved(product, previous);
+    }
+
+    protected void notifyDelete(String productId, Product previous) {
+        listeners.deleted(productId, previous);
+    }
+
+    private static final class Slot {
+        private final long sequence;
+        private volatile Product product;
+
+        private Slot(long sequence, Product product) {
+            this.sequence = sequence;
+            this.product = product;
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,210 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import id.ac.ui.cs.advprog.eshop.model.Page;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Routing for the sharded repositories. The node set is an immutable topology
+ * swapped on change. Single-id operations hold the read lock of one of
+ * {@value #STRIPES} stripes picked by the id's hash, so they only contend with
+ * operations on nearby ids. Adding or removing a node takes every stripe's write
+ * lock while keys migrate. Whole-catalogue reads take no lock and can see an item
+ * twice or not at all while a migration runs.
+ */
+final class ShardRouter<R> {
+    private static final int STRIPES = 64;
+
+    interface PageReader<R, T> {
+        Page<T> read(R node, String cursor, int size);
+    }
+
+    private final ReadWriteLock[] stripes = new ReadWriteLock[STRIPES];
+    private final Supplier<R> factory;
+    private volatile Topology<R> topology;
+    // Only set while every stripe is write-locked, so node listeners can tell moves from real changes
+    private volatile boolean migrating;
+    private int nextNodeId;
+
+    ShardRouter(int nodes, Supplier<R> factory) {
+        if (nodes < 1) {
+            throw new IllegalArgumentException("Sharding needs at least one node");
+        }
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantReadWriteLock();
+        }
+        this.factory = factory;
+        Map<String, R> initial = new LinkedHashMap<>();
+        for (int i = 0; i < nodes; i++) {
+            initial.put(nextNodeName(), factory.get());
+        }
+        topology = new Topology<>(initial);
+    }
+
+    boolean isMigrating() {
+        return migrating;
+    }
+
+    Map<String, R> nodes() {
+        return topology.nodes;
+    }
+
+    <T> T route(String id, Function<R, T> operation) {
+        ReadWriteLock stripe = stripes[(int) HashRing.hash(id) & (STRIPES - 1)];
+        stripe.readLock().lock();
+        try {
+            return operation.apply(topology.nodeFor(id));
+        } finally {
+            stripe.readLock().unlock();
+        }
+    }
+
+    String addNode(BiConsumer<R, Function<String, R>> migration) {
+        lockAll();
+        try {
+            String nodeId = nextNodeName();
+            Map<String, R> grown = new LinkedHashMap<>(topology.nodes);
+            grown.put(nodeId, factory.get());
+            rebalance(new Topology<>(grown, topology.ring.with(nodeId)), topology.nodes.values(), migration);
+            return nodeId;
+        } finally {
+            unlockAll();
+        }
+    }
+
+    void removeNode(String nodeId, BiConsumer<R, Function<String, R>> migration) {
+        lockAll();
+        try {
+            R removed = topology.nodes.get(nodeId);
+            if (removed == null) {
+                throw new IllegalArgumentException("Unknown node: " + nodeId);
+            }
+            if (topology.nodes.size() == 1) {
+                throw new IllegalArgumentException("Cannot remove the last node");
+            }
+            Map<String, R> shrunk = new LinkedHashMap<>(topology.nodes);
+            shrunk.remove(nodeId);
+            rebalance(new Topology<>(shrunk, topology.ring.without(nodeId)), List.of(removed), migration);
+        } finally {
+            unlockAll();
+        }
+    }
+
+    // Routing switches to the new ring first, so each migration step asks it where keys now belong
+    private void rebalance(Topology<R> next, Iterable<R> sources, BiConsumer<R, Function<String, R>> migration) {
+        topology = next;
+        migrating = true;
+        try {
+            for (R source : sources) {
+                migration.accept(source, next::nodeFor);
+            }
+        } finally {
+            migrating = false;
+        }
+    }
+
+    /** Every node's items, node after node. */
+    <T> Iterator<T> concat(Function<R, Iterator<T>> iterate) {
+        Iterator<R> nodes = List.copyOf(topology.nodes.values()).iterator();
+        return new Iterator<>() {
+            private Iterator<T> current = Collections.emptyIterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!current.hasNext() && nodes.hasNext()) {
+                    current = iterate.apply(nodes.next());
+                }
+                return current.hasNext();
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return current.next();
+            }
+        };
+    }
+
+    /**
+     * A page spanning nodes in order. Cursors are {@code node:inner}, the inner part
+     * being the node's own cursor, or empty to start at the top of that node.
+     */
+    <T> Page<T> page(String cursor, int size, PageReader<R, T> reader) {
+        Topology<R> current = topology;
+        List<String> nodeIds = new ArrayList<>(current.nodes.keySet());
+        int start = 0;
+        String inner = null;
+        if (cursor != null) {
+            int colon = cursor.indexOf(':');
+            start = colon < 0 ? -1 : nodeIds.indexOf(cursor.substring(0, colon));
+            if (start < 0) {
+                throw new IllegalArgumentException("Invalid page cursor: " + cursor);
+            }
+            inner = colon == cursor.length() - 1 ? null : cursor.substring(colon + 1);
+        }
+        List<T> content = new ArrayList<>(size);
+        for (int n = start; n < nodeIds.size(); n++) {
+            Page<T> page = reader.read(current.nodes.get(nodeIds.get(n)), n == start ? inner : null, size - content.size());
+            content.addAll(page.getContent());
+            if (page.hasNext()) {
+                return new Page<>(content, size, nodeIds.get(n) + ":" + page.getNextCursor());
+            }
+            if (content.size() == size) {
+                for (int next = n + 1; next < nodeIds.size(); next++) {
+                    if (!reader.read(current.nodes.get(nodeIds.get(next)), null, 1).getContent().isEmpty()) {
+                        return new Page<>(content, size, nodeIds.get(next) + ":");
+                    }
+                }
+                break;
+            }
+        }
+        return new Page<>(content, size, null);
+    }
+
+    private String nextNodeName() {
+        return "node-" + nextNodeId++;
+    }
+
+    private void lockAll() {
+        for (ReadWriteLock stripe : stripes) {
+            stripe.writeLock().lock();
+        }
+    }
+
+    private void unlockAll() {
+        for (ReadWriteLock stripe : stripes) {
+            stripe.writeLock().unlock();
+        }
+    }
+
+    private static final class Topology<R> {
+        private final Map<String, R> nodes;
+        private final HashRing ring;
+
+        private Topology(Map<String, R> nodes) {
+            this(nodes, new HashRing(new ArrayList<>(nodes.keySet())));
+        }
+
+        private Topology(Map<String, R> nodes, HashRing ring) {
+            this.nodes = Collections.unmodifiableMap(nodes);
+            this.ring = ring;
+        }
+
+        R nodeFor(String id) {
+            return nodes.get(ring.nodeFor(id));
+        }
+    }
+}
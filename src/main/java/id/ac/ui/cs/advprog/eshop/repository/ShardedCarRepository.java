@@ -0,0 +1,209 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import id.ac.ui.cs.advprog.eshop.model.BatchOperation;
+import id.ac.ui.cs.advprog.eshop.model.BatchResult;
+import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.model.Page;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Car store partitioned across in-process nodes, enabled with
+ * {@code eshop.storage=sharded}; see {@link ShardedProductRepository}.
+ */
+@Repository
+@Primary
+@Timed(value = "eshop.repository", description = "Repository operation latency", histogram = true)
+@ConditionalOnProperty(name = "eshop.storage", havingValue = "sharded")
+public class ShardedCarRepository extends CarRepository {
+    private final ShardRouter<CarRepository> router;
+
+    public ShardedCarRepository(@Value("${eshop.sharding.nodes:4}") int nodes) {
+        router = new ShardRouter<>(nodes, this::newNode);
+    }
+
+    // Nodes tell this repository's listeners directly, except about the moves of a migration
+    private CarRepository newNode() {
+        return new CarRepository(listeners().onlyWhile(() -> !router.isMigrating()));
+    }
+
+    /** Adds an empty node and moves over the cars it now owns; returns its id. */
+    public String addNode() {
+        beginWrite();
+        try {
+            String nodeId = router.addNode(this::migrate);
+            // Listings come out in a new order even though no record changed
+            markModified();
+            return nodeId;
+        } finally {
+            endWrite();
+        }
+    }
+
+    /** Moves the node's cars to the remaining nodes and drops it. */
+    public void removeNode(String nodeId) {
+        beginWrite();
+        try {
+            router.removeNode(nodeId, this::migrate);
+            markModified();
+        } finally {
+            endWrite();
+        }
+    }
+
+    /** Cars held by each node, in node order. */
+    public Map<String, Integer> nodeSizes() {
+        Map<String, Integer> sizes = new LinkedHashMap<>();
+        router.nodes().forEach((nodeId, node) -> sizes.put(nodeId, node.size()));
+        return sizes;
+    }
+
+    private void migrate(CarRepository from, Function<String, CarRepository> ownerOf) {
+        List<Car> leaving = new ArrayList<>();
+        from.findAll().forEachRemaining(car -> {
+            if (ownerOf.apply(car.getCarId()) != from) {
+                leaving.add(car);
+            }
+        });
+        for (Car car : leaving) {
+            ownerOf.apply(car.getCarId()).create(car);
+            from.delete(car.getCarId());
+        }
+    }
+
+    @Override
+    public Car create(Car car) {
+        if (car.getCarId() == null) {
+            car.setCarId(Ids.newId());
+        }
+        return write(car.getCarId(), node -> node.create(car));
+    }
+
+    // One write for the whole list, as in CarRepository#createAll
+    @Override
+    public void createAll(List<Car> cars) {
+        for (Car car : cars) {
+            if (car.getCarId() == null) {
+                car.setCarId(Ids.newId());
+            }
+            TextLimits.require("Car", car.getCarId(), car.getCarName(), car.getCarColor());
+        }
+        beginWrite();
+        int stored = 0;
+        try {
+            for (Car car : cars) {
+                router.route(car.getCarId(), node -> node.create(car));
+                stored++;
+            }
+        } finally {
+            if (stored > 0) {
+                markModified();
+            }
+            endWrite();
+        }
+    }
+
+    // Nodes only move their own version, so this one moves once the node has applied the
+    // change, keeping the guarantee that readers at the final version see it
+    private <V> V write(String id, Function<CarRepository, V> operation) {
+        beginWrite();
+        try {
+            V result = router.route(id, operation);
+            markModified();
+            return result;
+        } finally {
+            endWrite();
+        }
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (CarRepository node : router.nodes().values()) {
+            size += node.size();
+        }
+        return size;
+    }
+
+    @Override
+    public Iterator<Car> findAll() {
+        return router.concat(CarRepository::findAll);
+    }
+
+    @Override
+    public Page<Car> findPage(int page, int size) {
+        Page<Car> current = findPage((String) null, size);
+        for (int i = 0; i < page; i++) {
+            if (!current.hasNext()) {
+                return new Page<>(List.of(), size, null);
+            }
+            current = findPage(current.getNextCursor(), size);
+        }
+        return current;
+    }
+
+    @Override
+    public Page<Car> findPage(String cursor, int size) {
+        return router.page(cursor, size, (node, inner, count) -> node.findPage(inner, count));
+    }
+
+    @Override
+    public Car findById(String id) {
+        return id == null ? null : router.route(id, node -> node.findById(id));
+    }
+
+    @Override
+    public Car update(String id, Car updatedCar) {
+        return id == null ? null : write(id, node -> node.update(id, updatedCar));
+    }
+
+    @Override
+    public Car adjustQuantity(String id, int delta) {
+        return id == null ? null : write(id, node -> node.adjustQuantity(id, delta));
+    }
+
+    @Override
+    public boolean delete(String id) {
+        return id != null && write(id, node -> node.delete(id));
+    }
+
+    // One write for the whole batch, as in CarRepository#applyBatch: the version moves once at the end
+    @Override
+    public List<BatchResult> applyBatch(List<BatchOperation<Car>> operations) {
+        List<BatchResult> results = new ArrayList<>(operations.size());
+        beginWrite();
+        boolean applied = false;
+        try {
+            for (int i = 0; i < operations.size(); i++) {
+                BatchOperation<Car> operation = operations.get(i);
+                Car car = operation.getItem();
+                if (operation.getType() == BatchOperation.Type.CREATE && car != null && car.getCarId() == null) {
+                    car.setCarId(Ids.newId());
+                }
+                String routingId = operation.getType() == BatchOperation.Type.CREATE && car != null
+                        ? car.getCarId() : operation.getId();
+                // Each operation runs as a one-item batch on its node, so its index is put back here
+                BatchResult result = router.route(routingId == null ? "" : routingId,
+                        node -> node.applyBatch(List.of(operation))).get(0);
+                applied |= result.isApplied();
+                results.add(new BatchResult(i, result.getId(), result.getStatus(), result.getMessage()));
+            }
+        } finally {
+            if (applied) {
+                markModified();
+            }
+            endWrite();
+        }
+        return results;
+    }
+}
@@ -0,0 +1,213 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import id.ac.ui.cs.advprog.eshop.model.BatchOperation;
+import id.ac.ui.cs.advprog.eshop.model.BatchResult;
+import id.ac.ui.cs.advprog.eshop.model.Page;
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Product store partitioned across in-process nodes, enabled with
+ * {@code eshop.storage=sharded}. Each id is routed to one node by a consistent-hash
+ * ring; findAll and paging walk the nodes one after another, so listings are in
+ * insertion order per node rather than overall. The secondary and text indexes
+ * live here, over all nodes, fed by the nodes' change events.
+ */
+@Repository
+@Primary
+@Timed(value = "eshop.repository", description = "Repository operation latency", histogram = true)
+@ConditionalOnProperty(name = "eshop.storage", havingValue = "sharded")
+public class ShardedProductRepository extends ProductRepository {
+    private final ShardRouter<ProductRepository> router;
+
+    public ShardedProductRepository(@Value("${eshop.sharding.nodes:4}") int nodes) {
+        router = new ShardRouter<>(nodes, this::newNode);
+    }
+
+    // Nodes tell this repository's listeners directly, except about the moves of a migration
+    private ProductRepository newNode() {
+        return new ProductRepository(listeners().onlyWhile(() -> !router.isMigrating()));
+    }
+
+    /** Adds an empty node and moves over the products it now owns; returns its id. */
+    public String addNode() {
+        beginWrite();
+        try {
+            String nodeId = router.addNode(this::migrate);
+            // Listings come out in a new order even though no record changed
+            markModified();
+            return nodeId;
+        } finally {
+            endWrite();
+        }
+    }
+
+    /** Moves the node's products to the remaining nodes and drops it. */
+    public void removeNode(String nodeId) {
+        beginWrite();
+        try {
+            router.removeNode(nodeId, this::migrate);
+            markModified();
+        } finally {
+            endWrite();
+        }
+    }
+
+    /** Products held by each node, in node order. */
+    public Map<String, Integer> nodeSizes() {
+        Map<String, Integer> sizes = new LinkedHashMap<>();
+        router.nodes().forEach((nodeId, node) -> sizes.put(nodeId, node.size()));
+        return sizes;
+    }
+
+    private void migrate(ProductRepository from, Function<String, ProductRepository> ownerOf) {
+        List<Product> leaving = new ArrayList<>();
+        from.findAll().forEachRemaining(product -> {
+            if (ownerOf.apply(product.getProductId()) != from) {
+                leaving.add(product);
+            }
+        });
+        for (Product product : leaving) {
+            ownerOf.apply(product.getProductId()).create(product);
+            from.delete(product.getProductId());
+        }
+    }
+
+    @Override
+    public Product create(Product product) {
+        if (product.getProductId() == null) {
+            product.setProductId(Ids.newId());
+        }
+        return write(product.getProductId(), node -> node.create(product));
+    }
+
+    // One write for the whole list, as in ProductRepository#createAll
+    @Override
+    public void createAll(List<Product> products) {
+        for (Product product : products) {
+            if (product.getProductId() == null) {
+                product.setProductId(Ids.newId());
+            }
+            TextLimits.require("Product", product.getProductId(), product.getProductName());
+        }
+        beginWrite();
+        int stored = 0;
+        try {
+            for (Product product : products) {
+                router.route(product.getProductId(), node -> node.create(product));
+                stored++;
+            }
+        } finally {
+            if (stored > 0) {
+                markModified();
+            }
+            endWrite();
+        }
+    }
+
+    // Nodes only move their own version, so this one moves once the node has applied the
+    // change, keeping the guarantee that readers at the final version see it
+    private <V> V write(String id, Function<ProductRepository, V> operation) {
+        beginWrite();
+        try {
+            V result = router.route(id, operation);
+            markModified();
+            return result;
+        } finally {
+            endWrite();
+        }
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (ProductRepository node : router.nodes().values()) {
+            size += node.size();
+        }
+        return size;
+    }
+
+    @Override
+    public Iterator<Product> findAll() {
+        return router.concat(ProductRepository::findAll);
+    }
+
+    @Override
+    public Page<Product> findPage(int page, int size) {
+        Page<Product> current = findPage((String) null, size);
+        for (int i = 0; i < page; i++) {
+            if (!current.hasNext()) {
+                return new Page<>(List.of(), size, null);
+            }
+            current = findPage(current.getNextCursor(), size);
+        }
+        return current;
+    }
+
+    @Override
+    public Page<Product> findPage(String cursor, int size) {
+        return router.page(cursor, size, (node, inner, count) -> node.findPage(inner, count));
+    }
+
+    @Override
+    public boolean delete(String productId) {
+        return productId != null && write(productId, node -> node.delete(productId));
+    }
+
+    @Override
+    public Product findById(String productId) {
+        return productId == null ? null : router.route(productId, node -> node.findById(productId));
+    }
+
+    @Override
+    public boolean update(Product updatedProduct) {
+        return updatedProduct.getProductId() != null
+                && write(updatedProduct.getProductId(), node -> node.update(updatedProduct));
+    }
+
+    @Override
+    public Product adjustQuantity(String productId, int delta) {
+        return productId == null ? null : write(productId, node -> node.adjustQuantity(productId, delta));
+    }
+
+    // One write for the whole batch, as in ProductRepository#applyBatch: the version moves once at the end
+    @Override
+    public List<BatchResult> applyBatch(List<BatchOperation<Product>> operations) {
+        List<BatchResult> results = new ArrayList<>(operations.size());
+        beginWrite();
+        boolean applied = false;
+        try {
+            for (int i = 0; i < operations.size(); i++) {
+                BatchOperation<Product> operation = operations.get(i);
+                Product product = operation.getItem();
+                if (operation.getType() == BatchOperation.Type.CREATE && product != null && product.getProductId() == null) {
+                    product.setProductId(Ids.newId());
+                }
+                String routingId = operation.getType() == BatchOperation.Type.CREATE && product != null
+                        ? product.getProductId() : operation.getId();
+                // Each operation runs as a one-item batch on its node, so its index is put back here
+                BatchResult result = router.route(routingId == null ? "" : routingId,
+                        node -> node.applyBatch(List.of(operation))).get(0);
+                applied |= result.isApplied();
+                results.add(new BatchResult(i, result.getId(), result.getStatus(), result.getMessage()));
+            }
+        } finally {
+            if (applied) {
+                markModified();
+            }
+            endWrite();
+        }
+        return results;
+    }
+}
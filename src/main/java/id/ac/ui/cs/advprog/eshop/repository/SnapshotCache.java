@@ -0,0 +1,95 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Immutable whole-repository lists shared by every reader until the contents
+ * change, each exactly the contents at one version. Writers bracket each change
+ * with beginWrite/endWrite and move the version before endWrite. A stale cache is
+ * refilled by a copy taken while no write is in flight, kept only if the version
+ * did not move meanwhile. When writes keep overlapping the copy, the reader holds
+ * new writes off for one copy instead, so under steady writes readers still get a
+ * consistent list and the cache still fills; writers only ever wait for that copy.
+ * A writer must not call get() between its beginWrite and endWrite.
+ */
+final class SnapshotCache<T> {
+    static final int OPTIMISTIC_ATTEMPTS = 2;
+
+    private final LongSupplier version;
+    private final Supplier<Iterator<T>> source;
+    private final AtomicInteger writesInFlight = new AtomicInteger();
+    // Writers share the read side; a reader that gave up on copying alongside them takes the write side
+    private final ReadWriteLock writeGate = new ReentrantReadWriteLock();
+    private volatile Snapshot<T> latest = new Snapshot<>(-1, List.of());
+
+    SnapshotCache(LongSupplier version, Supplier<Iterator<T>> source) {
+        this.version = version;
+        this.source = source;
+    }
+
+    void beginWrite() {
+        writeGate.readLock().lock();
+        writesInFlight.incrementAndGet();
+    }
+
+    void endWrite() {
+        writesInFlight.decrementAndGet();
+        writeGate.readLock().unlock();
+    }
+
+    List<T> get() {
+        for (int attempt = 0; attempt < OPTIMISTIC_ATTEMPTS; attempt++) {
+            long before = version.getAsLong();
+            Snapshot<T> cached = latest;
+            if (cached.version == before) {
+                return cached.items;
+            }
+            if (writesInFlight.get() == 0) {
+                List<T> items = copy(source.get());
+                // In-flight count first: a writer that has left has already moved the version
+                if (writesInFlight.get() == 0 && version.getAsLong() == before) {
+                    return keep(before, items);
+                }
+            }
+        }
+        writeGate.writeLock().lock();
+        try {
+            long current = version.getAsLong();
+            Snapshot<T> cached = latest;
+            return cached.version == current ? cached.items : keep(current, copy(source.get()));
+        } finally {
+            writeGate.writeLock().unlock();
+        }
+    }
+
+    private List<T> keep(long at, List<T> items) {
+        if (at > latest.version) {
+            latest = new Snapshot<>(at, items);
+        }
+        return items;
+    }
+
+    private static <T> List<T> copy(Iterator<T> items) {
+        List<T> copy = new ArrayList<>();
+        items.forEachRemaining(copy::add);
+        return Collections.unmodifiableList(copy);
+    }
+
+    private static final class Snapshot<T> {
+        private final long version;
+        private final List<T> items;
+
+        private Snapshot(long version, List<T> items) {
+            this.version = version;
+            this.items = items;
+        }
+    }
+}
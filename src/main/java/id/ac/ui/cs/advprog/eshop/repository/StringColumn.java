@@ -0,0 +1,78 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Nullable strings stored as UTF-8 in one shared byte[] arena, addressed by an
+ * offset and a length per row. Overwritten values leave garbage behind that is
+ * reclaimed by rewriting the arena once it makes up half of it.
+ */
+final class StringColumn {
+    private static final int NULL_LENGTH = -1;
+    private static final int MIN_GARBAGE_TO_COMPACT = 1 << 20;
+
+    private byte[] arena = new byte[0];
+    private int used;
+    private int garbage;
+    private int[] offsets = new int[0];
+    private int[] lengths = new int[0];
+
+    void grow(int capacity) {
+        int oldCapacity = lengths.length;
+        offsets = Arrays.copyOf(offsets, capacity);
+        lengths = Arrays.copyOf(lengths, capacity);
+        Arrays.fill(lengths, oldCapacity, capacity, NULL_LENGTH);
+    }
+
+    String get(int row) {
+        int length = lengths[row];
+        return length == NULL_LENGTH ? null : new String(arena, offsets[row], length, StandardCharsets.UTF_8);
+    }
+
+    void set(int row, String value) {
+        clear(row);
+        if (value == null) {
+            return;
+        }
+        byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+        if (used + encoded.length > arena.length) {
+            arena = Arrays.copyOf(arena, Math.max(used + encoded.length, arena.length + (arena.length >> 1) + 64));
+        }
+        System.arraycopy(encoded, 0, arena, used, encoded.length);
+        offsets[row] = used;
+        lengths[row] = encoded.length;
+        used += encoded.length;
+    }
+
+    void move(int from, int to) {
+        offsets[to] = offsets[from];
+        lengths[to] = lengths[from];
+        lengths[from] = NULL_LENGTH;
+    }
+
+    void clear(int row) {
+        if (lengths[row] != NULL_LENGTH) {
+            garbage += lengths[row];
+            lengths[row] = NULL_LENGTH;
+            if (garbage >= MIN_GARBAGE_TO_COMPACT && garbage * 2 > used) {
+                compact();
+            }
+        }
+    }
+
+    private void compact() {
+        byte[] compacted = new byte[used - garbage];
+        int position = 0;
+        for (int row = 0; row < lengths.length; row++) {
+            if (lengths[row] != NULL_LENGTH) {
+                System.arraycopy(arena, offsets[row], compacted, position, lengths[row]);
+                offsets[row] = position;
+                position += lengths[row];
+            }
+        }
+        arena = compacted;
+        used = position;
+        garbage = 0;
+    }
+}
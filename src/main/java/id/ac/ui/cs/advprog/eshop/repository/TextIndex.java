@@ -0,0 +1,405 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Full-text index over names: an inverted index from normalised words to the
+ * documents holding them, ranked with BM25. Every query word has to match; the
+ * last one also matches as a prefix so results follow typing, and a longer word
+ * that matches nothing falls back to terms one edit away. Postings hold ordinals
+ * in ascending order, so the rarest word drives and every other posting list is
+ * walked forward alongside it with galloping search. Each posting list knows
+ * its best possible score, so the walk stops once the top results reach it. As in {@link CatalogIndex}, a renamed document gets a new
+ * ordinal and the postings are rebuilt once dead ordinals outnumber live ones.
+ * <p>
+ * Writers share one lock, with the same trade-off as {@link CatalogIndex}. Only the
+ * name is indexed here, so most saves, such as stock changes, find the words
+ * unchanged and return before locking.
+ */
+final class TextIndex {
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final double PREFIX_WEIGHT = 0.8;
+    private static final double FUZZY_WEIGHT = 0.6;
+    private static final int MIN_FUZZY_LENGTH = 4;
+    private static final int MAX_EXPANSIONS = 32;
+    private static final int MIN_DEAD_ORDINALS_TO_REBUILD = 1 << 16;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Concurrent only so put and remove can skip no-op changes without the lock
+    private final Map<String, Document> documents = new ConcurrentHashMap<>();
+    private final NavigableMap<String, Postings> terms = new TreeMap<>();
+    // Each term and its one-letter deletions point back at the term: words one edit apart share a key
+    private final Map<String, Set<String>> deletions = new HashMap<>();
+    private final List<String> idsByOrdinal = new ArrayList<>();
+    private int[] lengths = new int[16];
+    private long totalLength;
+    private int deadOrdinals;
+
+    void put(String id, String text) {
+        List<String> words = tokenize(text);
+        Document current = documents.get(id);
+        if (current != null && current.words.equals(words)) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            Document previous = documents.get(id);
+            int ordinal = idsByOrdinal.size();
+            idsByOrdinal.add(id);
+            index(ordinal, words);
+            documents.put(id, new Document(ordinal, words));
+            if (previous != null) {
+                retire(previous);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(String id) {
+        if (!documents.containsKey(id)) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            Document previous = documents.remove(id);
+            if (previous != null) {
+                retire(previous);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Ids of up to {@code limit} documents matching every word of {@code text}, best first. */
+    List<String> search(String text, int limit) {
+        List<String> words = tokenize(text);
+        if (words.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            double averageLength = documents.isEmpty() ? 1 : Math.max(1, (double) totalLength / documents.size());
+            List<List<Match>> matches = new ArrayList<>(words.size());
+            for (int i = 0; i < words.size(); i++) {
+                List<Match> expansions = expand(words.get(i), i == words.size() - 1);
+                if (expansions.isEmpty()) {
+                    return List.of();
+                }
+                matches.add(expansions);
+            }
+            matches.sort(Comparator.comparingLong(TextIndex::postingCount));
+
+            double ceiling = 0;
+            for (List<Match> expansions : matches) {
+                double best = 0;
+                for (Match match : expansions) {
+                    best = Math.max(best, match.score(match.postings.maxFrequency, match.postings.minLength, averageLength));
+                }
+                ceiling += best;
+            }
+            PriorityQueue<Hit> top = new PriorityQueue<>(Hit.WORST_FIRST);
+            Postings driver = candidates(matches.get(0));
+            for (int i = 0; i < driver.size; i++) {
+                int ordinal = driver.ordinals[i];
+                if (idsByOrdinal.get(ordinal) == null) {
+                    continue;
+                }
+                double score = 0;
+                for (List<Match> expansions : matches) {
+                    double wordScore = score(expansions, ordinal, averageLength);
+                    if (wordScore == 0) {
+                        score = 0;
+                        break;
+                    }
+                    score += wordScore;
+                }
+                if (score > 0 && (top.size() < limit || score > top.peek().score)) {
+                    top.add(new Hit(ordinal, score));
+                    if (top.size() > limit) {
+                        top.poll();
+                    }
+                    // Later documents can at best tie, and ties go to the earlier one
+                    if (top.size() == limit && top.peek().score >= ceiling) {
+                        break;
+                    }
+                }
+            }
+            List<Hit> hits = new ArrayList<>(top);
+            hits.sort(Hit.WORST_FIRST.reversed());
+            List<String> ids = new ArrayList<>(hits.size());
+            for (Hit hit : hits) {
+                ids.add(idsByOrdinal.get(hit.ordinal));
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null) {
+            return List.of();
+        }
+        String folded = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        List<String> words = new ArrayList<>();
+        for (String word : SEPARATORS.split(folded.toLowerCase(Locale.ROOT))) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    private List<Match> expand(String word, boolean last) {
+        double documentCount = documents.size();
+        Map<String, Match> expansions = new LinkedHashMap<>();
+        Postings exact = terms.get(word);
+        if (exact != null && exact.live > 0) {
+            expansions.put(word, new Match(exact, 1, documentCount));
+        }
+        if (last) {
+            for (Map.Entry<String, Postings> term : terms.subMap(word, false, word + Character.MAX_VALUE, false).entrySet()) {
+                if (expansions.size() >= MAX_EXPANSIONS) {
+                    break;
+                }
+                if (term.getValue().live > 0) {
+                    expansions.put(term.getKey(), new Match(term.getValue(), PREFIX_WEIGHT, documentCount));
+                }
+            }
+        }
+        if (expansions.isEmpty() && word.length() >= MIN_FUZZY_LENGTH) {
+            for (String key : deletionKeys(word)) {
+                for (String term : deletions.getOrDefault(key, Set.of())) {
+                    Postings postings = terms.get(term);
+                    if (postings.live > 0 && !expansions.containsKey(term) && withinOneEdit(word, term)) {
+                        expansions.put(term, new Match(postings, FUZZY_WEIGHT, documentCount));
+                    }
+                }
+            }
+        }
+        return new ArrayList<>(expansions.values());
+    }
+
+    private static Postings candidates(List<Match> expansions) {
+        if (expansions.size() == 1) {
+            return expansions.get(0).postings;
+        }
+        int[] merged = new int[Math.toIntExact(postingCount(expansions))];
+        int size = 0;
+        for (Match match : expansions) {
+            System.arraycopy(match.postings.ordinals, 0, merged, size, match.postings.size);
+            size += match.postings.size;
+        }
+        Arrays.sort(merged);
+        Postings union = new Postings();
+        union.ordinals = merged;
+        for (int i = 0; i < size; i++) {
+            if (union.size == 0 || merged[i] != merged[union.size - 1]) {
+                merged[union.size++] = merged[i];
+            }
+        }
+        return union;
+    }
+
+    // A word scores as its best-matching expansion, or 0 when none of them holds the document
+    private double score(List<Match> expansions, int ordinal, double averageLength) {
+        double best = 0;
+        for (Match match : expansions) {
+            int position = match.seek(ordinal);
+            if (position >= 0) {
+                best = Math.max(best, match.score(match.postings.frequencies[position], lengths[ordinal], averageLength));
+            }
+        }
+        return best;
+    }
+
+    private static long postingCount(List<Match> expansions) {
+        long count = 0;
+        for (Match match : expansions) {
+            count += match.postings.size;
+        }
+        return count;
+    }
+
+    private void index(int ordinal, List<String> words) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String word : words) {
+            frequencies.merge(word, 1, Integer::sum);
+        }
+        for (Map.Entry<String, Integer> frequency : frequencies.entrySet()) {
+            terms.computeIfAbsent(frequency.getKey(), term -> {
+                for (String key : deletionKeys(term)) {
+                    deletions.computeIfAbsent(key, ignored -> new HashSet<>()).add(term);
+                }
+                return new Postings();
+            }).add(ordinal, frequency.getValue(), words.size());
+        }
+        if (ordinal >= lengths.length) {
+            lengths = Arrays.copyOf(lengths, Math.max(ordinal + 1, lengths.length * 2));
+        }
+        lengths[ordinal] = words.size();
+        totalLength += words.size();
+    }
+
+    private void retire(Document document) {
+        idsByOrdinal.set(document.ordinal, null);
+        for (String term : new HashSet<>(document.words)) {
+            terms.get(term).live--;
+        }
+        totalLength -= document.words.size();
+        deadOrdinals++;
+        if (deadOrdinals >= MIN_DEAD_ORDINALS_TO_REBUILD && deadOrdinals > documents.size()) {
+            rebuild();
+        }
+    }
+
+    private void rebuild() {
+        terms.clear();
+        deletions.clear();
+        idsByOrdinal.clear();
+        lengths = new int[Math.max(16, documents.size())];
+        totalLength = 0;
+        deadOrdinals = 0;
+        for (Map.Entry<String, Document> each : documents.entrySet()) {
+            int ordinal = idsByOrdinal.size();
+            idsByOrdinal.add(each.getKey());
+            index(ordinal, each.getValue().words);
+            each.setValue(new Document(ordinal, each.getValue().words));
+        }
+    }
+
+    private static Set<String> deletionKeys(String term) {
+        Set<String> keys = new HashSet<>();
+        keys.add(term);
+        if (term.length() >= MIN_FUZZY_LENGTH - 1) {
+            for (int i = 0; i < term.length(); i++) {
+                keys.add(term.substring(0, i) + term.substring(i + 1));
+            }
+        }
+        return keys;
+    }
+
+    // One insertion, deletion, substitution or swap of neighbouring letters
+    static boolean withinOneEdit(String a, String b) {
+        if (a.length() < b.length()) {
+            String shorter = a;
+            a = b;
+            b = shorter;
+        }
+        if (a.length() - b.length() > 1) {
+            return false;
+        }
+        int i = 0;
+        while (i < b.length() && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        if (i == b.length()) {
+            return true;
+        }
+        if (a.length() != b.length()) {
+            return a.regionMatches(i + 1, b, i, b.length() - i);
+        }
+        if (a.regionMatches(i + 1, b, i + 1, b.length() - i - 1)) {
+            return true;
+        }
+        return i + 1 < a.length() && a.charAt(i) == b.charAt(i + 1) && a.charAt(i + 1) == b.charAt(i)
+                && a.regionMatches(i + 2, b, i + 2, b.length() - i - 2);
+    }
+
+    private static final class Document {
+        private final int ordinal;
+        private final List<String> words;
+
+        private Document(int ordinal, List<String> words) {
+            this.ordinal = ordinal;
+            this.words = words;
+        }
+    }
+
+    private static final class Postings {
+        private int[] ordinals = new int[4];
+        private int[] frequencies = new int[4];
+        private int size;
+        private int live;
+        // Bounds over every document ever added, so they stay safe (if loose) after removals
+        private int maxFrequency;
+        private int minLength = Integer.MAX_VALUE;
+
+        void add(int ordinal, int frequency, int length) {
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            ordinals[size] = ordinal;
+            frequencies[size++] = frequency;
+            live++;
+            maxFrequency = Math.max(maxFrequency, frequency);
+            minLength = Math.min(minLength, length);
+        }
+    }
+
+    private static final class Match {
+        private final Postings postings;
+        private final double weight;
+        private final double idf;
+        private int position;
+
+        private Match(Postings postings, double weight, double documentCount) {
+            this.postings = postings;
+            this.weight = weight;
+            this.idf = Math.log(1 + (documentCount - postings.live + 0.5) / (postings.live + 0.5));
+        }
+
+        double score(int frequency, int length, double averageLength) {
+            double norm = K1 * (1 - B + B * length / averageLength);
+            return weight * idf * frequency * (K1 + 1) / (frequency + norm);
+        }
+
+        // Targets only ever increase, so gallop forward from the last position instead of searching from 0
+        int seek(int ordinal) {
+            int[] ordinals = postings.ordinals;
+            int high = position;
+            for (int step = 1; high < postings.size && ordinals[high] < ordinal; step <<= 1) {
+                position = high + 1;
+                high += step;
+            }
+            int found = Arrays.binarySearch(ordinals, position, Math.min(high + 1, postings.size), ordinal);
+            position = found >= 0 ? found : -found - 1;
+            return found;
+        }
+    }
+
+    private static final class Hit {
+        private static final Comparator<Hit> WORST_FIRST = Comparator.<Hit>comparingDouble(hit -> hit.score)
+                .thenComparingInt(hit -> -hit.ordinal);
+
+        private final int ordinal;
+        private final double score;
+
+        private Hit(int ordinal, double score) {
+            this.ordinal = ordinal;
+            this.score = score;
+        }
+    }
+}
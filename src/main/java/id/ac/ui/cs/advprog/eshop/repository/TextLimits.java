@@ -0,0 +1,30 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+/**
+ * Bounds on stored text. Ids and names reach the write-ahead log through
+ * DataOutput.writeUTF, which fails past 64KB; checking up front turns that into a
+ * rejected request instead of an exception from inside a listener.
+ */
+final class TextLimits {
+    static final int MAX_LENGTH = 1024;
+
+    private TextLimits() {
+    }
+
+    /** Why a record of the given kind cannot be stored, or null when every value fits. */
+    static String check(String kind, String... values) {
+        for (String value : values) {
+            if (value != null && value.length() > MAX_LENGTH) {
+                return kind + " ids and text fields are limited to " + MAX_LENGTH + " characters";
+            }
+        }
+        return null;
+    }
+
+    static void require(String kind, String... values) {
+        String reason = check(kind, values);
+        if (reason != null) {
+            throw new IllegalArgumentException(reason);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing map from a 128-bit id (two longs) to a row number. Keys live in
+ * a flat long[] so an entry costs 20 bytes and no objects.
+ */
+final class UuidIndex {
+    private static final int FREE = -1;
+
+    private long[] keys;
+    private int[] rows;
+    private int mask;
+    private int size;
+
+    UuidIndex() {
+        allocate(16);
+    }
+
+    int size() {
+        return size;
+    }
+
+    int get(long most, long least) {
+        for (int slot = home(most, least); ; slot = (slot + 1) & mask) {
+            int row = rows[slot];
+            if (row == FREE) {
+                return FREE;
+            }
+            if (keys[slot << 1] == most && keys[(slot << 1) + 1] == least) {
+                return row;
+            }
+        }
+    }
+
+    void put(long most, long least, int row) {
+        if ((size + 1) * 4 > rows.length * 3) {
+            rehash(rows.length << 1);
+        }
+        for (int slot = home(most, least); ; slot = (slot + 1) & mask) {
+            if (rows[slot] == FREE) {
+                keys[slot << 1] = most;
+                keys[(slot << 1) + 1] = least;
+                rows[slot] = row;
+                size++;
+                return;
+            }
+            if (keys[slot << 1] == most && keys[(slot << 1) + 1] == least) {
+                rows[slot] = row;
+                return;
+            }
+        }
+    }
+
+    void remove(long most, long least) {
+        int slot = home(most, least);
+        while (true) {
+            if (rows[slot] == FREE) {
+                return;
+            }
+            if (keys[slot << 1] == most && keys[(slot << 1) + 1] == least) {
+                break;
+            }
+            slot = (slot + 1) & mask;
+        }
+        size--;
+        // Backward-shift deletion keeps every probe chain contiguous without tombstones
+        int hole = slot;
+        for (int next = (hole + 1) & mask; rows[next] != FREE; next = (next + 1) & mask) {
+            int wanted = home(keys[next << 1], keys[(next << 1) + 1]);
+            boolean reachable = hole <= next ? wanted <= hole || wanted > next : wanted <= hole && wanted > next;
+            if (reachable) {
+                keys[hole << 1] = keys[next << 1];
+                keys[(hole << 1) + 1] = keys[(next << 1) + 1];
+                rows[hole] = rows[next];
+                hole = next;
+            }
+        }
+        rows[hole] = FREE;
+    }
+
+    private int home(long most, long least) {
+        long hash = (most ^ least) * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> 32) & mask;
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity << 1];
+        rows = new int[capacity];
+        Arrays.fill(rows, FREE);
+        mask = capacity - 1;
+        size = 0;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldRows = rows;
+        allocate(capacity);
+        for (int slot = 0; slot < oldRows.length; slot++) {
+            if (oldRows[slot] != FREE) {
+                put(oldKeys[slot << 1], oldKeys[(slot << 1) + 1], oldRows[slot]);
+            }
+        }
+    }
+}
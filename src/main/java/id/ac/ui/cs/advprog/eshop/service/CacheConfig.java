@@ -0,0 +1,41 @@
+package id.ac.ui.cs.advprog.eshop.service;
+
+import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.repository.CarRepository;
+import id.ac.ui.cs.advprog.eshop.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Lookup caches for the services. Each cache listens to its repository, so every
+ * save or delete drops the cached entry whichever path made the change.
+ */
+@Configuration
+@ConditionalOnProperty(name = "eshop.cache.enabled", havingValue = "true", matchIfMissing = true)
+public class CacheConfig {
+
+    @Value("${eshop.cache.maximum-size:10000}")
+    private int maximumSize;
+
+    @Value("${eshop.cache.ttl:5m}")
+    private Duration ttl;
+
+    @Bean
+    public LookupCache<Product> productCache(ProductRepository productRepository) {
+        LookupCache<Product> cache = new TinyLfuCache<>(maximumSize, ttl);
+        productRepository.addListener(cache.invalidator(Product::getProductId));
+        return cache;
+    }
+
+    @Bean
+    public LookupCache<Car> carCache(CarRepository carRepository) {
+        LookupCache<Car> cache = new TinyLfuCache<>(maximumSize, ttl);
+        carRepository.addListener(cache.invalidator(Car::getCarId));
+        return cache;
+    }
+}
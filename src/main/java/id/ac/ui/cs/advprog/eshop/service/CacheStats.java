@@ -0,0 +1,26 @@
+package id.ac.ui.cs.advprog.eshop.service;
+
+import lombok.Getter;
+
+@Getter
+public class CacheStats {
+    private final long hits;
+    private final long misses;
+    // Entries dropped to make room; expired and invalidated entries are not counted
+    private final long evictions;
+    private final long expirations;
+    private final long size;
+
+    public CacheStats(long hits, long misses, long evictions, long expirations, long size) {
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.expirations = expirations;
+        this.size = size;
+    }
+
+    public double hitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+}
@@ -1,16 +1,43 @@
 
 package id.ac.ui.cs.advprog.eshop.service;
+import id.ac.ui.cs.advprog.eshop.model.BatchOperation;
+import id.ac.ui.cs.advprog.eshop.model.BatchResult;
 import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.model.CatalogQuery;
+import id.ac.ui.cs.advprog.eshop.model.Page;
+import java.util.Iterator;
 import java.util.List;
 
 public interface CarService {
     public Car create(Car car);
 
+    public long createAll(Iterator<Car> cars);
+
     public List<Car> findAll();
 
+    public Iterator<Car> iterateAll();
+
+    public Page<Car> findPage(int page, int size);
+
+    public Page<Car> findPage(String cursor, int size);
+
+    public List<Car> query(CatalogQuery query, int limit);
+
+    public List<Car> search(String text, int limit);
+
     Car findById(String carId);
 
-    public void update(String carId, Car car);
+    /** False, changing nothing, when there is no car with this id. */
+    public boolean update(String carId, Car car);
+
+    /** False when there was no car with this id. */
+    public boolean deleteCarById(String CarId);
+
+    public Car adjustQuantity(String carId, int delta);
+
+    public List<BatchResult> applyBatch(List<BatchOperation<Car>> operations);
+
+    public long version();
 
-    public void deleteCarById(String CarId);
+    public long lastModified();
 }
\ No newline at end of file
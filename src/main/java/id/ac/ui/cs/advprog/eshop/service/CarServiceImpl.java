@@ -1,7 +1,12 @@
 
 package id.ac.ui.cs.advprog.eshop.service;
+import id.ac.ui.cs.advprog.eshop.model.BatchOperation;
+import id.ac.ui.cs.advprog.eshop.model.BatchResult;
 import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.model.CatalogQuery;
+import id.ac.ui.cs.advprog.eshop.model.Page;
 import id.ac.ui.cs.advprog.eshop.repository.CarRepository;
+import id.ac.ui.cs.advprog.eshop.repository.Ids;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import java.util.ArrayList;
@@ -13,40 +18,121 @@ import java.util.List;
 @Service
 public class CarServiceImpl implements CarService {
 
+    static final int MAX_PAGE_SIZE = 100;
+    static final int IMPORT_BATCH_SIZE = 1000;
+    static final int MAX_BATCH_OPERATIONS = 10_000;
+
     @Autowired
     private CarRepository carRepository;
-    
+
+    @Autowired(required = false)
+    private LookupCache<Car> carCache = LookupCache.passThrough();
 
     @Override
     public Car create (Car car) {
-        // TODO Auto-generated method stub
+        // Like products, a new car always gets a fresh id; a client-supplied one would overwrite
+        car.setCarId(Ids.newId());
         carRepository.create(car);
         return car;
     }
 
+    @Override
+    public long createAll(Iterator<Car> cars) {
+        // Imported rows keep their ids so an export can be re-imported; blank ones get a new id
+        List<Car> batch = new ArrayList<>(IMPORT_BATCH_SIZE);
+        long created = 0;
+        while (cars.hasNext()) {
+            Car car = cars.next();
+            if (car.getCarId() == null || car.getCarId().isBlank()) {
+                car.setCarId(Ids.newId());
+            }
+            batch.add(car);
+            if (batch.size() == IMPORT_BATCH_SIZE || !cars.hasNext()) {
+                carRepository.createAll(batch);
+                created += batch.size();
+                batch = new ArrayList<>(IMPORT_BATCH_SIZE);
+            }
+        }
+        return created;
+    }
+
     @Override
     public List<Car> findAll() {
-        Iterator<Car> carIterator = carRepository.findAll();
-        List<Car> allCar = new ArrayList<>();
-        carIterator.forEachRemaining (allCar::add);
-        return allCar;
+        return carRepository.snapshot();
+    }
+
+    @Override
+    public Iterator<Car> iterateAll() {
+        return carRepository.findAll();
+    }
+
+    @Override
+    public Page<Car> findPage(int page, int size) {
+        return carRepository.findPage(Math.max(page, 0), clampPageSize(size));
+    }
+
+    @Override
+    public Page<Car> findPage(String cursor, int size) {
+        return carRepository.findPage(cursor, clampPageSize(size));
+    }
+
+    @Override
+    public List<Car> query(CatalogQuery query, int limit) {
+        return carRepository.query(query, clampPageSize(limit));
+    }
+
+    @Override
+    public List<Car> search(String text, int limit) {
+        return carRepository.search(text, clampPageSize(limit));
     }
 
     @Override
     public Car findById(String carId) {
-        Car car = carRepository.findById(carId);
+        Car car = carCache.get(carId, carRepository::findById);
         return car;
     }
 
     @Override
-    public void update(String carId, Car car) {
-        // TODO auto-generated method stub
-        carRepository.update(carId, car);
+    public boolean update(String carId, Car car) {
+        return carRepository.update(carId, car) != null;
+    }
+
+    @Override
+    public boolean deleteCarById(String carId) {
+        return carRepository.delete(carId);
+    }
+
+    @Override
+    public Car adjustQuantity(String carId, int delta) {
+        return carRepository.adjustQuantity(carId, delta);
     }
 
     @Override
-    public void deleteCarById(String carId) {
-        // TODO Auto-generated method stub
-        carRepository.delete(carId);
+    public List<BatchResult> applyBatch(List<BatchOperation<Car>> operations) {
+        if (operations.size() > MAX_BATCH_OPERATIONS) {
+            throw new IllegalArgumentException("A batch holds at most " + MAX_BATCH_OPERATIONS + " operations");
+        }
+        for (BatchOperation<Car> operation : operations) {
+            Car car = operation.getItem();
+            if (operation.getType() == BatchOperation.Type.CREATE && car != null
+                    && car.getCarId() != null && car.getCarId().isBlank()) {
+                car.setCarId(null);
+            }
+        }
+        return carRepository.applyBatch(operations);
+    }
+
+    @Override
+    public long version() {
+        return carRepository.version();
+    }
+
+    @Override
+    public long lastModified() {
+        return carRepository.lastModified();
+    }
+
+    private static int clampPageSize(int size) {
+        return Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
     }
 }
\ No newline at end of file
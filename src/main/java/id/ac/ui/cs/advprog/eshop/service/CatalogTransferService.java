@@ -0,0 +1,93 @@
+package id.ac.ui.cs.advprog.eshop.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Iterator;
+
+/**
+ * Streams products and cars in and out as CSV or NDJSON. Records are parsed and
+ * written one at a time, so memory use does not depend on the size of the file.
+ * Imports are not atomic: rows before a malformed one stay imported.
+ */
+@Service
+public class CatalogTransferService {
+
+    static final CsvSchema PRODUCT_COLUMNS = CsvSchema.builder()
+            .addColumn("productId")
+            .addColumn("productName")
+            .addNumberColumn("productQuantity")
+            .build()
+            .withHeader();
+
+    static final CsvSchema CAR_COLUMNS = CsvSchema.builder()
+            .addColumn("carId")
+            .addColumn("carName")
+            .addColumn("carColor")
+            .addNumberColumn("carQuantity")
+            .build()
+            .withHeader();
+
+    private final CsvMapper csvMapper = new CsvMapper();
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CarService carService;
+
+    public long importProducts(InputStream in, TransferFormat format) throws IOException {
+        Iterator<Product> products = reader(Product.class, format).readValues(in);
+        return productService.createAll(products);
+    }
+
+    public long importCars(InputStream in, TransferFormat format) throws IOException {
+        Iterator<Car> cars = reader(Car.class, format).readValues(in);
+        return carService.createAll(cars);
+    }
+
+    public void exportProducts(OutputStream out, TransferFormat format) throws IOException {
+        write(writer(PRODUCT_COLUMNS, format), out, productService.iterateAll());
+    }
+
+    public void exportCars(OutputStream out, TransferFormat format) throws IOException {
+        write(writer(CAR_COLUMNS, format), out, carService.iterateAll());
+    }
+
+    private ObjectReader reader(Class<?> type, TransferFormat format) {
+        if (format == TransferFormat.CSV) {
+            // Columns are matched by the header row, so their order does not matter
+            return csvMapper.readerFor(type).with(CsvSchema.emptySchema().withHeader());
+        }
+        return objectMapper.readerFor(type);
+    }
+
+    private ObjectWriter writer(CsvSchema columns, TransferFormat format) {
+        if (format == TransferFormat.CSV) {
+            return csvMapper.writer(columns);
+        }
+        return objectMapper.writer().withRootValueSeparator("\n");
+    }
+
+    private static void write(ObjectWriter writer, OutputStream out, Iterator<?> records) throws IOException {
+        try (SequenceWriter sequence = writer.writeValues(out)) {
+            while (records.hasNext()) {
+                sequence.write(records.next());
+            }
+        }
+    }
+}
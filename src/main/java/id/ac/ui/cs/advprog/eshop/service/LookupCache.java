@@ -0,0 +1,36 @@
+package id.ac.ui.cs.advprog.eshop.service;
+
+import id.ac.ui.cs.advprog.eshop.repository.ChangeListener;
+
+import java.util.function.Function;
+
+/**
+ * Read-through cache in front of a repository's id lookups. Implementations load
+ * missing entries with the supplied loader and never cache a null result.
+ */
+public interface LookupCache<V> {
+    V get(String id, Function<String, V> loader);
+
+    void invalidate(String id);
+
+    CacheStats stats();
+
+    /** A repository listener that drops the cached entry for every saved or deleted id. */
+    default ChangeListener<V> invalidator(Function<V, String> idOf) {
+        return new ChangeListener<>() {
+            @Override
+            public void onSave(V entity) {
+                invalidate(idOf.apply(entity));
+            }
+
+            @Override
+            public void onDelete(String id) {
+                invalidate(id);
+            }
+        };
+    }
+
+    static <V> LookupCache<V> passThrough() {
+        return new PassThroughCache<>();
+    }
+}
@@ -1,13 +1,29 @@
 package id.ac.ui.cs.advprog.eshop.service;
 
+import id.ac.ui.cs.advprog.eshop.model.BatchOperation;
+import id.ac.ui.cs.advprog.eshop.model.BatchResult;
+import id.ac.ui.cs.advprog.eshop.model.CatalogQuery;
+import id.ac.ui.cs.advprog.eshop.model.Page;
 import id.ac.ui.cs.advprog.eshop.model.Product;
+import java.util.Iterator;
 import java.util.List;
 
 public interface ProductService {
     public Product create(Product product);
+    public long createAll(Iterator<Product> products);
     public List<Product> findAll();
-    void delete(String productId);
+    public Iterator<Product> iterateAll();
+    public Page<Product> findPage(int page, int size);
+    public Page<Product> findPage(String cursor, int size);
+    public List<Product> query(CatalogQuery query, int limit);
+    public List<Product> search(String text, int limit);
+    /** False when there was no product with this id. */
+    boolean delete(String productId);
     public Product findById(String productId);
-    void update(Product product);
+    /** False, changing nothing, when there is no product with this id. */
+    boolean update(Product product);
+    public List<BatchResult> applyBatch(List<BatchOperation<Product>> operations);
+    public long version();
+    public long lastModified();
 }
 
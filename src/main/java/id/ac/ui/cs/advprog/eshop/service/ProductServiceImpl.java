@@ -1,6 +1,11 @@
 package id.ac.ui.cs.advprog.eshop.service;
 
+import id.ac.ui.cs.advprog.eshop.model.BatchOperation;
+import id.ac.ui.cs.advprog.eshop.model.BatchResult;
+import id.ac.ui.cs.advprog.eshop.model.CatalogQuery;
+import id.ac.ui.cs.advprog.eshop.model.Page;
 import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.repository.Ids;
 import id.ac.ui.cs.advprog.eshop.repository.ProductRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -8,41 +13,118 @@ import org.springframework.stereotype.Service;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
-import java.util.UUID;
 
 @Service
 public class ProductServiceImpl implements ProductService {
 
+    static final int MAX_PAGE_SIZE = 100;
+    static final int IMPORT_BATCH_SIZE = 1000;
+    static final int MAX_BATCH_OPERATIONS = 10_000;
+
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired(required = false)
+    private LookupCache<Product> productCache = LookupCache.passThrough();
+
     @Override
     public Product create(Product product) {
-        product.setProductId(UUID.randomUUID().toString());
+        product.setProductId(Ids.newId());
         productRepository.create(product);
         return product;
     }
 
+    @Override
+    public long createAll(Iterator<Product> products) {
+        // Imported rows keep their ids so an export can be re-imported; blank ones get a new id
+        List<Product> batch = new ArrayList<>(IMPORT_BATCH_SIZE);
+        long created = 0;
+        while (products.hasNext()) {
+            Product product = products.next();
+            if (product.getProductId() == null || product.getProductId().isBlank()) {
+                product.setProductId(Ids.newId());
+            }
+            batch.add(product);
+            if (batch.size() == IMPORT_BATCH_SIZE || !products.hasNext()) {
+                productRepository.createAll(batch);
+                created += batch.size();
+                batch = new ArrayList<>(IMPORT_BATCH_SIZE);
+            }
+        }
+        return created;
+    }
+
     @Override
     public List<Product> findAll() {
-        Iterator<Product> productIterator = productRepository.findAll();
-        List<Product> allProduct = new ArrayList<>();
-        productIterator.forEachRemaining(allProduct::add);
-        return allProduct;
+        return productRepository.snapshot();
+    }
+
+    @Override
+    public Iterator<Product> iterateAll() {
+        return productRepository.findAll();
     }
 
     @Override
-    public void delete(String productId) {
-        productRepository.delete(productId);
+    public Page<Product> findPage(int page, int size) {
+        return productRepository.findPage(Math.max(page, 0), clampPageSize(size));
+    }
+
+    @Override
+    public Page<Product> findPage(String cursor, int size) {
+        return productRepository.findPage(cursor, clampPageSize(size));
+    }
+
+    @Override
+    public List<Product> query(CatalogQuery query, int limit) {
+        return productRepository.query(query, clampPageSize(limit));
+    }
+
+    @Override
+    public List<Product> search(String text, int limit) {
+        return productRepository.search(text, clampPageSize(limit));
+    }
+
+    @Override
+    public boolean delete(String productId) {
+        return productRepository.delete(productId);
     }
 
     @Override
     public Product findById(String productId) {
-        return productRepository.findById(productId);
+        return productCache.get(productId, productRepository::findById);
     }
 
     @Override
-    public void update(Product product) {
-        productRepository.update(product);
+    public boolean update(Product product) {
+        return productRepository.update(product);
+    }
+
+    @Override
+    public List<BatchResult> applyBatch(List<BatchOperation<Product>> operations) {
+        if (operations.size() > MAX_BATCH_OPERATIONS) {
+            throw new IllegalArgumentException("A batch holds at most " + MAX_BATCH_OPERATIONS + " operations");
+        }
+        for (BatchOperation<Product> operation : operations) {
+            Product product = operation.getItem();
+            if (operation.getType() == BatchOperation.Type.CREATE && product != null
+                    && product.getProductId() != null && product.getProductId().isBlank()) {
+                product.setProductId(null);
+            }
+        }
+        return productRepository.applyBatch(operations);
+    }
+
+    @Override
+    public long version() {
+        return productRepository.version();
+    }
+
+    @Override
+    public long lastModified() {
+        return productRepository.lastModified();
+    }
+
+    private static int clampPageSize(int size) {
+        return Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
     }
 }
\ No newline at end of file
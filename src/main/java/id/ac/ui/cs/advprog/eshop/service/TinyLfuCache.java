@@ -0,0 +1,278 @@
+package id.ac.ui.cs.advprog.eshop.service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded cache with W-TinyLFU admission. New entries land in a small LRU window;
+ * when the window overflows its oldest entry may enter the main segmented LRU only
+ * if the frequency sketch says it is more popular than the entry it would evict.
+ * Main space is split into probation and a protected segment for entries hit at
+ * least twice. Entries also expire a fixed time after they were loaded.
+ * <p>
+ * Hits take no lock: the entry is read from a concurrent map and the access is
+ * dropped into a small lossy buffer that whoever holds the lock next replays into
+ * the sketch and the queues. Under heavy contention some accesses are never
+ * recorded, which only blurs the frequency estimate. Misses, admission and
+ * invalidation take the lock. Loads run outside it; a load that overlaps an
+ * invalidation is returned but not cached, so a racing write can never be hidden
+ * behind a stale entry.
+ */
+public class TinyLfuCache<V> implements LookupCache<V> {
+    private final int windowCapacity;
+    private final int mainCapacity;
+    private final int protectedCapacity;
+    private final long ttlNanos;
+    private final LongSupplier ticker;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<String, Node<V>> data = new ConcurrentHashMap<>();
+    private final ReadBuffer<V> reads = new ReadBuffer<>();
+    private final FrequencySketch sketch;
+    private final AccessQueue<V> window = new AccessQueue<>();
+    private final AccessQueue<V> probation = new AccessQueue<>();
+    private final AccessQueue<V> protectedQueue = new AccessQueue<>();
+    private long invalidations;
+
+    private final LongAdder hits = new LongAdder();
+    private long misses;
+    private long evictions;
+    private long expirations;
+
+    public TinyLfuCache(int maximumSize, Duration ttl) {
+        this(maximumSize, ttl, System::nanoTime);
+    }
+
+    TinyLfuCache(int maximumSize, Duration ttl, LongSupplier ticker) {
+        if (maximumSize < 2) {
+            throw new IllegalArgumentException("Cache needs room for at least two entries: " + maximumSize);
+        }
+        windowCapacity = Math.max(1, maximumSize / 100);
+        mainCapacity = maximumSize - windowCapacity;
+        protectedCapacity = mainCapacity * 4 / 5;
+        ttlNanos = ttl.toNanos();
+        this.ticker = ticker;
+        sketch = new FrequencySketch(maximumSize);
+    }
+
+    @Override
+    public V get(String id, Function<String, V> loader) {
+        if (id == null) {
+            // The map takes no null keys; the loader decides, as it would without a cache
+            return loader.apply(null);
+        }
+        Node<V> node = data.get(id);
+        if (node != null && isFresh(node)) {
+            hits.increment();
+            if (reads.offer(node) && lock.tryLock()) {
+                try {
+                    drainReads();
+                } finally {
+                    lock.unlock();
+                }
+            }
+            return node.value;
+        }
+
+        long epoch;
+        lock.lock();
+        try {
+            drainReads();
+            sketch.increment(id);
+            node = data.get(id);
+            if (node != null && isFresh(node)) {
+                hits.increment();
+                onHit(node);
+                return node.value;
+            }
+            if (node != null) {
+                remove(node);
+                expirations++;
+            }
+            misses++;
+            epoch = invalidations;
+        } finally {
+            lock.unlock();
+        }
+
+        V value = loader.apply(id);
+        if (value == null) {
+            return null;
+        }
+        lock.lock();
+        try {
+            if (epoch == invalidations && !data.containsKey(id)) {
+                admit(new Node<>(id, value, ticker.getAsLong()));
+            }
+        } finally {
+            lock.unlock();
+        }
+        return value;
+    }
+
+    @Override
+    public void invalidate(String id) {
+        lock.lock();
+        try {
+            invalidations++;
+            Node<V> node = data.get(id);
+            if (node != null) {
+                remove(node);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public CacheStats stats() {
+        lock.lock();
+        try {
+            return new CacheStats(hits.sum(), misses, evictions, expirations, data.size());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean isFresh(Node<V> node) {
+        return ticker.getAsLong() - node.loadedAt < ttlNanos;
+    }
+
+    private void drainReads() {
+        reads.drain(node -> {
+            sketch.increment(node.key);
+            // The entry may have been evicted or invalidated since the hit was buffered
+            if (node.queue != null) {
+                onHit(node);
+            }
+        });
+    }
+
+    private void onHit(Node<V> node) {
+        if (node.queue == probation) {
+            probation.unlink(node);
+            protectedQueue.addLast(node);
+            if (protectedQueue.size > protectedCapacity) {
+                probation.addLast(protectedQueue.unlink(protectedQueue.head));
+            }
+        } else {
+            node.queue.moveToLast(node);
+        }
+    }
+
+    private void admit(Node<V> node) {
+        data.put(node.key, node);
+        window.addLast(node);
+        if (window.size <= windowCapacity) {
+            return;
+        }
+        Node<V> candidate = window.unlink(window.head);
+        probation.addLast(candidate);
+        if (probation.size + protectedQueue.size <= mainCapacity) {
+            return;
+        }
+        Node<V> victim = probation.head != candidate ? probation.head : protectedQueue.head;
+        remove(sketch.frequency(candidate.key) > sketch.frequency(victim.key) ? victim : candidate);
+        evictions++;
+    }
+
+    private void remove(Node<V> node) {
+        node.queue.unlink(node);
+        data.remove(node.key);
+    }
+
+    private static final class Node<V> {
+        private final String key;
+        private final V value;
+        private final long loadedAt;
+        private AccessQueue<V> queue;
+        private Node<V> previous;
+        private Node<V> next;
+
+        private Node(String key, V value, long loadedAt) {
+            this.key = key;
+            this.value = value;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    /**
+     * Fixed ring of buffered hits. Readers claim a slot and give up if it is still
+     * taken; the lock holder empties every slot.
+     */
+    private static final class ReadBuffer<V> {
+        private static final int SIZE = 128;
+        private static final int DRAIN_EVERY = 32;
+
+        private final AtomicReferenceArray<Node<V>> slots = new AtomicReferenceArray<>(SIZE);
+        private final AtomicLong writes = new AtomicLong();
+
+        /** True when the buffer is due for a drain. */
+        boolean offer(Node<V> node) {
+            long index = writes.getAndIncrement();
+            slots.compareAndSet((int) (index & (SIZE - 1)), null, node);
+            return (index & (DRAIN_EVERY - 1)) == DRAIN_EVERY - 1;
+        }
+
+        void drain(Consumer<Node<V>> action) {
+            for (int i = 0; i < SIZE; i++) {
+                Node<V> node = slots.getAndSet(i, null);
+                if (node != null) {
+                    action.accept(node);
+                }
+            }
+        }
+    }
+
+    /** Intrusive doubly linked list, least recently used at the head. */
+    private static final class AccessQueue<V> {
+        private Node<V> head;
+        private Node<V> tail;
+        private int size;
+
+        void addLast(Node<V> node) {
+            node.queue = this;
+            node.previous = tail;
+            node.next = null;
+            if (tail == null) {
+                head = node;
+            } else {
+                tail.next = node;
+            }
+            tail = node;
+            size++;
+        }
+
+        Node<V> unlink(Node<V> node) {
+            if (node.previous == null) {
+                head = node.next;
+            } else {
+                node.previous.next = node.next;
+            }
+            if (node.next == null) {
+                tail = node.previous;
+            } else {
+                node.next.previous = node.previous;
+            }
+            node.previous = null;
+            node.next = null;
+            node.queue = null;
+            size--;
+            return node;
+        }
+
+        void moveToLast(Node<V> node) {
+            if (node != tail) {
+                addLast(unlink(node));
+            }
+        }
+    }
+}
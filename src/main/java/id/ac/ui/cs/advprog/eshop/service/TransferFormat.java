@@ -0,0 +1,27 @@
+package id.ac.ui.cs.advprog.eshop.service;
+
+import lombok.Getter;
+
+import java.util.Locale;
+
+@Getter
+public enum TransferFormat {
+    CSV("text/csv", "csv"),
+    NDJSON("application/x-ndjson", "ndjson");
+
+    private final String mediaType;
+    private final String extension;
+
+    TransferFormat(String mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public static TransferFormat of(String name) {
+        try {
+            return valueOf(name.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported format: " + name);
+        }
+    }
+}
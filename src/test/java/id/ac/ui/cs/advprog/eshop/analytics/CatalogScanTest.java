@@ -0,0 +1,68 @@
+package id.ac.ui.cs.advprog.eshop.analytics;
+
+import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogScanTest {
+
+    private static Car car(String colour, int quantity) {
+        Car car = new Car();
+        car.setCarColor(colour);
+        car.setCarQuantity(quantity);
+        return car;
+    }
+
+    @Test
+    void testEmpty() {
+        CatalogStats stats = CatalogScan.of(List.of(), AnalyticsConfig.CAR_STATS, 5);
+
+        assertEquals(0, stats.getCount());
+        assertEquals(0, stats.getTotalQuantity());
+        assertTrue(stats.getQuantityByGroup().isEmpty());
+    }
+
+    @Test
+    void testUngroupedProducts() {
+        Product product = new Product();
+        product.setProductQuantity(3);
+
+        CatalogStats stats = CatalogScan.of(List.of(product, product), AnalyticsConfig.PRODUCT_STATS, 2);
+
+        assertEquals(2, stats.getCount());
+        assertEquals(6, stats.getTotalQuantity());
+        assertEquals(0, stats.getLowStock());
+        assertNull(stats.getGroupedBy());
+        assertTrue(stats.getCountByGroup().isEmpty());
+    }
+
+    @Test
+    void testParallelScanMatchesSequentialTotals() {
+        List<Car> cars = new ArrayList<>();
+        long total = 0;
+        long low = 0;
+        long red = 0;
+        for (int i = 0; i < 100_000; i++) {
+            int quantity = i % 50;
+            String colour = i % 3 == 0 ? "red" : i % 3 == 1 ? "blue" : null;
+            cars.add(car(colour, quantity));
+            total += quantity;
+            low += quantity <= 10 ? 1 : 0;
+            red += "red".equals(colour) ? quantity : 0;
+        }
+
+        CatalogStats stats = CatalogScan.of(cars, AnalyticsConfig.CAR_STATS, 10);
+
+        assertEquals(100_000, stats.getCount());
+        assertEquals(total, stats.getTotalQuantity());
+        assertEquals(low, stats.getLowStock());
+        assertEquals(Long.valueOf(red), stats.getQuantityByGroup().get("red"));
+        assertEquals(Map.of("red", 33_334L, "blue", 33_333L, "(none)", 33_333L), stats.getCountByGroup());
+    }
+}
@@ -0,0 +1,142 @@
+package id.ac.ui.cs.advprog.eshop.analytics;
+
+import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.repository.CarRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RunningStatsTest {
+
+    private CarRepository carRepository;
+    private RunningStats<Car> stats;
+
+    @BeforeEach
+    void setUp() {
+        carRepository = new CarRepository();
+        stats = new RunningStats<>(AnalyticsConfig.CAR_STATS, 5);
+        carRepository.addListener(stats);
+    }
+
+    private Car car(String id, String colour, int quantity) {
+        Car car = new Car();
+        car.setCarId(id);
+        car.setCarName("Car " + id);
+        car.setCarColor(colour);
+        car.setCarQuantity(quantity);
+        return carRepository.create(car);
+    }
+
+    @Test
+    void testTracksSavesUpdatesAndDeletes() {
+        car("a", "red", 10);
+        car("b", "red", 2);
+        car("c", "blue", 7);
+        car("d", null, 0);
+
+        CatalogStats current = stats.stats();
+        assertEquals(4, current.getCount());
+        assertEquals(19, current.getTotalQuantity());
+        assertEquals(2, current.getLowStock());
+        assertEquals("carColor", current.getGroupedBy());
+        assertEquals(Map.of("red", 12L, "blue", 7L, "(none)", 0L), current.getQuantityByGroup());
+        assertEquals(Map.of("red", 2L, "blue", 1L, "(none)", 1L), current.getCountByGroup());
+
+        Car recoloured = car("b", "blue", 20);
+        carRepository.update("a", recoloured);
+        carRepository.adjustQuantity("c", -7);
+        carRepository.delete("d");
+
+        current = stats.stats();
+        assertEquals(3, current.getCount());
+        assertEquals(40, current.getTotalQuantity());
+        assertEquals(1, current.getLowStock());
+        assertEquals(Map.of("blue", 40L), current.getQuantityByGroup());
+        assertEquals(Map.of("blue", 3L), current.getCountByGroup());
+    }
+
+    @Test
+    void testSeedCountsExistingItemsOnce() {
+        car("a", "red", 3);
+        RunningStats<Car> late = new RunningStats<>(AnalyticsConfig.CAR_STATS, 5);
+        carRepository.addListener(late);
+        late.seed(carRepository.findAll());
+        car("a", "red", 4);
+        late.seed(carRepository.findAll());
+
+        assertEquals(1, late.stats().getCount());
+        assertEquals(4, late.stats().getTotalQuantity());
+    }
+
+    @Test
+    void testSeedSkipsItemsChangedSinceTheyWereRead() {
+        car("a", "red", 10);
+        car("b", "red", 2);
+        car("c", "blue", 7);
+        List<Car> staleRead = List.of(carRepository.findById("a"), carRepository.findById("b"),
+                carRepository.findById("c"));
+        RunningStats<Car> late = new RunningStats<>(AnalyticsConfig.CAR_STATS, 5);
+        carRepository.addListener(late);
+
+        Iterator<Car> items = staleRead.iterator();
+        late.seed(new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return items.hasNext();
+            }
+
+            @Override
+            public Car next() {
+                Car next = items.next();
+                if (next.getCarId().equals("a")) {
+                    carRepository.delete("a");
+                    car("b", "blue", 1);
+                }
+                return next;
+            }
+        });
+
+        CatalogStats seeded = late.stats();
+        assertEquals(2, seeded.getCount());
+        assertEquals(8, seeded.getTotalQuantity());
+        assertEquals(Map.of("blue", 2L), seeded.getCountByGroup());
+        assertEquals(stats.stats().getTotalQuantity(), seeded.getTotalQuantity());
+    }
+
+    @Test
+    void testMatchesScanAfterConcurrentWrites() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int t = 0; t < 4; t++) {
+            int worker = t;
+            executor.submit(() -> {
+                for (int i = 0; i < 2000; i++) {
+                    String id = "car-" + (i % 300);
+                    if (i % 7 == worker) {
+                        carRepository.delete(id);
+                    } else {
+                        car(id, i % 2 == 0 ? "red" : "black", (i * 31 + worker) % 12);
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        List<Car> cars = carRepository.snapshot();
+        CatalogStats scanned = CatalogScan.of(cars, AnalyticsConfig.CAR_STATS, 5);
+        CatalogStats running = stats.stats();
+        assertEquals(scanned.getCount(), running.getCount());
+        assertEquals(scanned.getTotalQuantity(), running.getTotalQuantity());
+        assertEquals(scanned.getLowStock(), running.getLowStock());
+        assertEquals(scanned.getQuantityByGroup(), running.getQuantityByGroup());
+        assertEquals(scanned.getCountByGroup(), running.getCountByGroup());
+    }
+}
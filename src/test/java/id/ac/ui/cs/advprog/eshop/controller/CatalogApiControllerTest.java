@@ -0,0 +1,180 @@
+package id.ac.ui.cs.advprog.eshop.controller;
+
+import id.ac.ui.cs.advprog.eshop.model.BatchResult;
+import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.service.CarService;
+import id.ac.ui.cs.advprog.eshop.service.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest({ProductApiController.class, CarApiController.class})
+class CatalogApiControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ProductService productService;
+
+    @MockBean
+    private CarService carService;
+
+    private Product product;
+    private Car car;
+
+    @BeforeEach
+    void setUp() {
+        product = new Product();
+        product.setProductId("test-id");
+        product.setProductName("Test Product");
+        product.setProductQuantity(10);
+
+        car = new Car();
+        car.setCarId("test-car-id");
+        car.setCarName("Test Car");
+        car.setCarColor("Red");
+        car.setCarQuantity(5);
+    }
+
+    @Test
+    void findAllProducts_StreamsNdjson() throws Exception {
+        Product other = new Product();
+        other.setProductId("other-id");
+        other.setProductName("Other");
+        when(productService.iterateAll()).thenReturn(Arrays.asList(product, other).iterator());
+
+        MvcResult result = mockMvc.perform(get("/api/products").accept("application/x-ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andExpect(content().string(containsString("\"productId\":\"test-id\"")))
+                .andExpect(content().string(containsString("\"productId\":\"other-id\"")));
+    }
+
+    @Test
+    void findAllCars_StreamsServerSentEvents() throws Exception {
+        when(carService.iterateAll()).thenReturn(Arrays.asList(car).iterator());
+
+        MvcResult result = mockMvc.perform(get("/api/cars").accept("text/event-stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("data:{\"carId\":\"test-car-id\"")));
+    }
+
+    @Test
+    void findProductById_NotFound() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/products/missing")).andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void createProduct_ReturnsCreated() throws Exception {
+        when(productService.create(any(Product.class))).thenReturn(product);
+
+        MvcResult result = mockMvc.perform(post("/api/products")
+                .contentType("application/json")
+                .content("{\"productName\":\"Test Product\",\"productQuantity\":10}"))
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.productId").value("test-id"));
+    }
+
+    @Test
+    void updateCar_UsesPathId() throws Exception {
+        when(carService.update(eq("test-car-id"), any(Car.class))).thenReturn(true);
+
+        MvcResult result = mockMvc.perform(put("/api/cars/test-car-id")
+                .contentType("application/json")
+                .content("{\"carName\":\"Renamed\",\"carColor\":\"Blue\",\"carQuantity\":1}"))
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.carId").value("test-car-id"))
+                .andExpect(jsonPath("$.carName").value("Renamed"));
+
+        verify(carService).update(eq("test-car-id"), any(Car.class));
+    }
+
+    @Test
+    void updateCar_MissWhileWritingIsNotFound() throws Exception {
+        MvcResult result = mockMvc.perform(put("/api/cars/missing")
+                .contentType("application/json")
+                .content("{\"carName\":\"Renamed\"}"))
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void deleteCar_MissIsNotFound() throws Exception {
+        MvcResult result = mockMvc.perform(delete("/api/cars/missing")).andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isNotFound());
+
+        verify(carService).deleteCarById("missing");
+        verify(carService, never()).findById("missing");
+    }
+
+    @Test
+    void deleteProduct_NoContent() throws Exception {
+        when(productService.delete("test-id")).thenReturn(true);
+
+        MvcResult result = mockMvc.perform(delete("/api/products/test-id")).andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isNoContent());
+
+        verify(productService).delete("test-id");
+    }
+
+    @Test
+    void applyProductBatch_ReturnsPerItemResults() throws Exception {
+        when(productService.applyBatch(anyList())).thenReturn(List.of(
+                new BatchResult(0, "new-id", BatchResult.Status.CREATED),
+                new BatchResult(1, "missing", BatchResult.Status.NOT_FOUND)));
+
+        MvcResult result = mockMvc.perform(post("/api/products/batch")
+                .contentType("application/json")
+                .content("[{\"type\":\"CREATE\",\"item\":{\"productName\":\"Sampo\"}},"
+                        + "{\"type\":\"DELETE\",\"id\":\"missing\"}]"))
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("CREATED"))
+                .andExpect(jsonPath("$[0].applied").value(true))
+                .andExpect(jsonPath("$[1].status").value("NOT_FOUND"));
+    }
+}
@@ -0,0 +1,73 @@
+package id.ac.ui.cs.advprog.eshop.controller;
+
+import id.ac.ui.cs.advprog.eshop.service.CatalogTransferService;
+import id.ac.ui.cs.advprog.eshop.service.TransferFormat;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.InputStream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(CatalogTransferController.class)
+class CatalogTransferControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private CatalogTransferService transferService;
+
+    @Test
+    void importProducts_ReturnsCount() throws Exception {
+        when(transferService.importProducts(any(InputStream.class), eq(TransferFormat.CSV))).thenReturn(2L);
+
+        mockMvc.perform(post("/product/import")
+                .contentType("text/csv")
+                .content("productName,productQuantity\nSampo,1\nSabun,2\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2));
+    }
+
+    @Test
+    void importCars_Ndjson() throws Exception {
+        when(transferService.importCars(any(InputStream.class), eq(TransferFormat.NDJSON))).thenReturn(1L);
+
+        mockMvc.perform(post("/car/import")
+                .param("format", "ndjson")
+                .contentType("application/x-ndjson")
+                .content("{\"carName\":\"Avanza\"}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1));
+    }
+
+    @Test
+    void import_UnknownFormatIsBadRequest() throws Exception {
+        mockMvc.perform(post("/product/import").param("format", "xml").content("<products/>"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void exportProducts_StreamsAttachment() throws Exception {
+        mockMvc.perform(get("/product/export").param("format", "ndjson"))
+                .andExpect(request().asyncStarted())
+                .andExpect(header().string("Content-Disposition", "attachment; filename=products.ndjson"))
+                .andExpect(content().contentType("application/x-ndjson"));
+    }
+
+    @Test
+    void exportCars_WritesCsv() throws Exception {
+        mockMvc.perform(asyncDispatch(mockMvc.perform(get("/car/export")).andReturn()))
+                .andExpect(status().isOk());
+
+        verify(transferService).exportCars(any(), eq(TransferFormat.CSV));
+    }
+}
@@ -0,0 +1,78 @@
+package id.ac.ui.cs.advprog.eshop.controller;
+
+import id.ac.ui.cs.advprog.eshop.events.ChangeStream;
+import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.repository.ChangeListener;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ChangeStreamController.class)
+class ChangeStreamControllerTest {
+
+    @TestConfiguration
+    static class StreamConfig {
+        @Bean
+        ChangeStream changeStream() {
+            return new ChangeStream(16);
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ChangeStream changeStream;
+
+    @Test
+    void pollReturnsEventsAfterSequence() throws Exception {
+        long start = changeStream.lastSequence();
+        ChangeListener<Product> products = changeStream.listenerFor("product", Product::getProductId);
+        ChangeListener<Car> cars = changeStream.listenerFor("car", Car::getCarId);
+        Product product = new Product();
+        product.setProductId("sku-1");
+        product.setProductName("Kopi");
+        products.onSave(product);
+        cars.onDelete("car-1");
+
+        MvcResult result = mockMvc.perform(get("/api/changes")
+                        .param("after", Long.toString(start))
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.events.length()").value(2))
+                .andExpect(jsonPath("$.events[0].type").value("SAVED"))
+                .andExpect(jsonPath("$.events[0].item.productName").value("Kopi"))
+                .andExpect(jsonPath("$.events[1].entity").value("car"))
+                .andExpect(jsonPath("$.position").value(start + 2));
+
+        MvcResult filtered = mockMvc.perform(get("/api/changes")
+                        .param("after", Long.toString(start))
+                        .param("entity", "car")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andReturn();
+        mockMvc.perform(asyncDispatch(filtered))
+                .andExpect(jsonPath("$.events.length()").value(1))
+                .andExpect(jsonPath("$.events[0].id").value("car-1"));
+    }
+
+    @Test
+    void invalidSequenceIsBadRequest() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/changes")
+                        .param("after", "-5")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().isBadRequest());
+    }
+}
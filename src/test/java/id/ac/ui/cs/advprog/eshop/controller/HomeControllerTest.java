@@ -5,7 +5,14 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.view;
 
@@ -21,4 +28,18 @@ class HomeControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(view().name("home"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testHome_StylesheetIsLocalFingerprintedAndPrecompressed() throws Exception {
+        String page = mockMvc.perform(get("/")).andReturn().getResponse().getContentAsString();
+        Matcher stylesheet = Pattern.compile("href=\"(/vendor/bootstrap/css/bootstrap\\.min-[0-9a-f]{32}\\.css)\"")
+                .matcher(page);
+        assertTrue(stylesheet.find(), page);
+        assertFalse(page.contains("https://"));
+
+        mockMvc.perform(get(stylesheet.group(1)).header("Accept-Encoding", "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().string("Cache-Control", containsString("max-age=31536000")));
+    }
+}
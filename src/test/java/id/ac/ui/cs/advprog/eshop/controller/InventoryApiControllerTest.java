@@ -0,0 +1,138 @@
+package id.ac.ui.cs.advprog.eshop.controller;
+
+import id.ac.ui.cs.advprog.eshop.inventory.InsufficientStockException;
+import id.ac.ui.cs.advprog.eshop.inventory.InventoryLedger;
+import id.ac.ui.cs.advprog.eshop.inventory.Reservation;
+import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(InventoryApiController.class)
+class InventoryApiControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private InventoryLedger<Product> productInventory;
+
+    @MockBean
+    private InventoryLedger<Car> carInventory;
+
+    @Test
+    void reserveProduct_UsesRequestedTimeout() throws Exception {
+        Reservation reservation = new Reservation("r-1", "sku-1", 2, Instant.parse("2024-01-01T00:00:30Z"));
+        when(productInventory.reserve("sku-1", 2, Duration.ofSeconds(30))).thenReturn(reservation);
+
+        MvcResult result = mockMvc.perform(post("/api/products/sku-1/reservations")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"quantity\": 2, \"timeoutSeconds\": 30}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.reservationId").value("r-1"))
+                .andExpect(jsonPath("$.quantity").value(2));
+    }
+
+    @Test
+    void reserveProduct_DefaultTimeoutAndUnknownItem() throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/products/missing/reservations")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"quantity\": 1}"))
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().isNotFound());
+        verify(productInventory).reserve("missing", 1, Duration.ofMinutes(10));
+    }
+
+    @Test
+    void reserveCar_InsufficientStockIsConflict() throws Exception {
+        when(carInventory.reserve(eq("car-1"), anyInt(), any(Duration.class)))
+                .thenThrow(new InsufficientStockException("car-1"));
+
+        MvcResult result = mockMvc.perform(post("/api/cars/car-1/reservations")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"quantity\": 9}"))
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").value("Insufficient stock for car-1"));
+    }
+
+    @Test
+    void reserveCar_BadQuantityIsBadRequest() throws Exception {
+        when(carInventory.reserve(eq("car-1"), eq(0), any(Duration.class)))
+                .thenThrow(new IllegalArgumentException("Reservation quantity must be positive"));
+
+        MvcResult result = mockMvc.perform(post("/api/cars/car-1/reservations")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"quantity\": 0}"))
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Reservation quantity must be positive"));
+    }
+
+    @Test
+    void commitProduct_ReturnsUpdatedProduct() throws Exception {
+        Product product = new Product();
+        product.setProductId("sku-1");
+        product.setProductQuantity(3);
+        when(productInventory.commit("r-1")).thenReturn(product);
+
+        MvcResult result = mockMvc.perform(post("/api/products/reservations/r-1/commit")).andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.productQuantity").value(3));
+    }
+
+    @Test
+    void commitCar_ExpiredIsNotFound() throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/cars/reservations/r-2/commit")).andReturn();
+
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void releaseProduct() throws Exception {
+        when(productInventory.release("r-1")).thenReturn(true);
+
+        mockMvc.perform(asyncDispatch(mockMvc.perform(delete("/api/products/reservations/r-1")).andReturn()))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(asyncDispatch(mockMvc.perform(delete("/api/products/reservations/r-9")).andReturn()))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void productStock() throws Exception {
+        when(productInventory.available("sku-1")).thenReturn(4L);
+
+        mockMvc.perform(asyncDispatch(mockMvc.perform(get("/api/products/sku-1/stock")).andReturn()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.available").value(4));
+        mockMvc.perform(asyncDispatch(mockMvc.perform(get("/api/products/missing/stock")).andReturn()))
+                .andExpect(status().isNotFound());
+    }
+}
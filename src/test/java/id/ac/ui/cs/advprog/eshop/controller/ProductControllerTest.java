@@ -1,5 +1,6 @@
 package id.ac.ui.cs.advprog.eshop.controller;
 
+import id.ac.ui.cs.advprog.eshop.model.Page;
 import id.ac.ui.cs.advprog.eshop.model.Product;
 import id.ac.ui.cs.advprog.eshop.model.Car;
 import id.ac.ui.cs.advprog.eshop.service.ProductService;
@@ -14,6 +15,11 @@ import org.springframework.test.web.servlet.MockMvc;
 import java.util.Arrays;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -72,14 +78,94 @@ class ProductControllerTest {
 
     @Test
     void listProducts_Success() throws Exception {
-        when(productService.findAll()).thenReturn(Arrays.asList(product));
+        when(productService.findPage(anyInt(), anyInt()))
+                .thenReturn(new Page<>(Arrays.asList(product), 20, null));
 
         mockMvc.perform(get("/product/list"))
                 .andExpect(status().isOk())
                 .andExpect(view().name("productList"))
+                .andExpect(model().attributeExists("products"))
+                .andExpect(model().attributeExists("page"));
+
+        verify(productService).findPage(0, 20);
+    }
+
+    @Test
+    void listProducts_NotModifiedSkipsService() throws Exception {
+        when(productService.version()).thenReturn(7L);
+        when(productService.findPage(anyInt(), anyInt()))
+                .thenReturn(new Page<>(Arrays.asList(product), 20, null));
+
+        String etag = mockMvc.perform(get("/product/list"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", startsWith("W/\"")))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/product/list").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+        verify(productService, times(1)).findPage(0, 20);
+
+        when(productService.version()).thenReturn(8L);
+        mockMvc.perform(get("/product/list").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(etag)));
+        verify(productService, times(2)).findPage(0, 20);
+    }
+
+    @Test
+    void listProducts_WithCursor() throws Exception {
+        when(productService.findPage(eq("42"), anyInt()))
+                .thenReturn(new Page<>(Arrays.asList(product), 5, "43"));
+
+        mockMvc.perform(get("/product/list").param("cursor", "42").param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(view().name("productList"))
+                .andExpect(model().attributeExists("products"));
+
+        verify(productService).findPage("42", 5);
+    }
+
+    @Test
+    void listProducts_BadCursorIsBadRequest() throws Exception {
+        when(productService.findPage(eq("bogus"), anyInt()))
+                .thenThrow(new IllegalArgumentException("Invalid page cursor: bogus"));
+
+        mockMvc.perform(get("/product/list").param("cursor", "bogus"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Invalid page cursor: bogus"));
+    }
+
+    @Test
+    void listProducts_Streaming() throws Exception {
+        when(productService.iterateAll()).thenReturn(Arrays.asList(product).iterator());
+
+        mockMvc.perform(get("/product/list").param("stream", "true"))
+                .andExpect(status().isOk())
+                .andExpect(view().name("productList"))
+                .andExpect(model().attributeExists("products"))
+                .andExpect(model().attributeDoesNotExist("page"));
+
+        verify(productService).iterateAll();
+    }
+
+    @Test
+    void searchProducts_Success() throws Exception {
+        when(productService.search("test prod", 20)).thenReturn(Arrays.asList(product));
+
+        mockMvc.perform(get("/product/search").param("q", "test prod"))
+                .andExpect(status().isOk())
+                .andExpect(view().name("productList"))
+                .andExpect(model().attribute("q", "test prod"))
                 .andExpect(model().attributeExists("products"));
 
-        verify(productService).findAll();
+        verify(productService).search("test prod", 20);
+    }
+
+    @Test
+    void searchProducts_BlankRedirectsToList() throws Exception {
+        mockMvc.perform(get("/product/search").param("q", " "))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrl("/product/list"));
     }
 
     @Test
@@ -141,14 +227,36 @@ class ProductControllerTest {
 
     @Test
     void listCars_Success() throws Exception {
-        when(carService.findAll()).thenReturn(Arrays.asList(car));
+        when(carService.findPage(anyInt(), anyInt()))
+                .thenReturn(new Page<>(Arrays.asList(car), 20, null));
 
         mockMvc.perform(get("/car/listCar"))
                 .andExpect(status().isOk())
                 .andExpect(view().name("carList"))
                 .andExpect(model().attributeExists("cars"));
 
-        verify(carService).findAll();
+        verify(carService).findPage(0, 20);
+    }
+
+    @Test
+    void listCars_BadCursorIsBadRequest() throws Exception {
+        when(carService.findPage(eq("bogus"), anyInt()))
+                .thenThrow(new IllegalArgumentException("Invalid page cursor: bogus"));
+
+        mockMvc.perform(get("/car/listCar").param("cursor", "bogus"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void listCars_Streaming() throws Exception {
+        when(carService.iterateAll()).thenReturn(Arrays.asList(car).iterator());
+
+        mockMvc.perform(get("/car/listCar").param("stream", "true"))
+                .andExpect(status().isOk())
+                .andExpect(view().name("carList"))
+                .andExpect(model().attributeExists("cars"));
+
+        verify(carService).iterateAll();
     }
 
     @Test
@@ -163,6 +271,17 @@ class ProductControllerTest {
         verify(carService).findById(car.getCarId());
     }
 
+    @Test
+    void editCar_NotModified() throws Exception {
+        when(carService.findById(car.getCarId())).thenReturn(car);
+        String etag = mockMvc.perform(get("/car/editCar/{id}", car.getCarId()))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/car/editCar/{id}", car.getCarId()).header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+        verify(carService, times(1)).findById(car.getCarId());
+    }
+
     @Test
     void editCarPost_Success() throws Exception {
         mockMvc.perform(post("/car/editCar")
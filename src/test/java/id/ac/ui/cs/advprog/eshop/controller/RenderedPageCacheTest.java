@@ -0,0 +1,120 @@
+package id.ac.ui.cs.advprog.eshop.controller;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RenderedPageCacheTest {
+
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicInteger renders = new AtomicInteger();
+    private RenderedPageCache cache;
+    private FilterChain render;
+
+    @BeforeEach
+    void setUp() {
+        cache = new RenderedPageCache(version::get, 2);
+        render = (request, response) -> {
+            renders.incrementAndGet();
+            response.setContentType("text/html;charset=UTF-8");
+            ((HttpServletResponse) response).setHeader("ETag", "\"v" + version.get() + "\"");
+            response.getWriter().write("<p>version " + version.get() + "</p>");
+        };
+    }
+
+    private MockHttpServletResponse get(String uri, String query) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        request.setQueryString(query);
+        if (query != null && query.startsWith("stream=")) {
+            request.setParameter("stream", query.substring("stream=".length()));
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        cache.doFilter(request, response, render);
+        return response;
+    }
+
+    @Test
+    void testReplaysPageUntilVersionMoves() throws Exception {
+        MockHttpServletResponse first = get("/product/list", null);
+        MockHttpServletResponse second = get("/product/list", null);
+        assertEquals(1, renders.get());
+        assertEquals(first.getContentAsString(), second.getContentAsString());
+        assertEquals("\"v0\"", second.getHeader("ETag"));
+        assertTrue(second.getContentType().startsWith("text/html"));
+
+        version.incrementAndGet();
+        assertEquals("<p>version 1</p>", get("/product/list", null).getContentAsString());
+        assertEquals(2, renders.get());
+    }
+
+    @Test
+    void testQueryStringsAreSeparatePages() throws Exception {
+        get("/product/list", "page=1");
+        get("/product/list", "page=2");
+        get("/product/list", "page=1");
+        assertEquals(2, renders.get());
+    }
+
+    @Test
+    void testMatchingValidatorGetsNotModified() throws Exception {
+        get("/product/list", null);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/product/list");
+        request.addHeader("If-None-Match", "\"v0\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        cache.doFilter(request, response, render);
+
+        assertEquals(304, response.getStatus());
+        assertEquals(0, response.getContentLength());
+        assertEquals(1, renders.get());
+    }
+
+    @Test
+    void testWeakValidatorMatchesEitherForm() throws Exception {
+        render = (request, response) -> {
+            renders.incrementAndGet();
+            ((HttpServletResponse) response).setHeader("ETag", "W/\"v0\"");
+            response.getWriter().write("<p>weak</p>");
+        };
+        get("/product/list", null);
+        for (String validator : new String[] {"W/\"v0\"", "\"v0\""}) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/product/list");
+            request.addHeader("If-None-Match", validator);
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            cache.doFilter(request, response, render);
+
+            assertEquals(304, response.getStatus());
+        }
+        assertEquals(1, renders.get());
+    }
+
+    @Test
+    void testStreamedAndOtherMethodsPassThrough() throws Exception {
+        get("/product/list", "stream=true");
+        get("/product/list", "stream=true");
+        assertEquals(2, renders.get());
+
+        MockHttpServletRequest post = new MockHttpServletRequest("POST", "/product/list");
+        cache.doFilter(post, new MockHttpServletResponse(), render);
+        assertEquals(3, renders.get());
+    }
+
+    @Test
+    void testEvictsLeastRecentlyUsed() throws Exception {
+        get("/a", null);
+        get("/b", null);
+        get("/a", null);
+        get("/c", null);
+        get("/a", null);
+        assertEquals(3, renders.get());
+        get("/b", null);
+        assertEquals(4, renders.get());
+    }
+}
@@ -0,0 +1,79 @@
+package id.ac.ui.cs.advprog.eshop.controller;
+
+import id.ac.ui.cs.advprog.eshop.analytics.CatalogStats;
+import id.ac.ui.cs.advprog.eshop.analytics.RunningStats;
+import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.service.CarService;
+import id.ac.ui.cs.advprog.eshop.service.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(StatsController.class)
+class StatsControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private RunningStats<Product> productStats;
+
+    @MockBean
+    private RunningStats<Car> carStats;
+
+    @MockBean
+    private ProductService productService;
+
+    @MockBean
+    private CarService carService;
+
+    @BeforeEach
+    void setUp() {
+        when(productStats.getLowStockThreshold()).thenReturn(5);
+    }
+
+    @Test
+    void stats_ServedFromRunningAggregates() throws Exception {
+        when(productStats.stats()).thenReturn(new CatalogStats(3, 12, 1, 5, null, Map.of(), Map.of()));
+        when(carStats.stats()).thenReturn(new CatalogStats(2, 9, 0, 5, "carColor",
+                Map.of("red", 2L), Map.of("red", 9L)));
+
+        mockMvc.perform(asyncDispatch(mockMvc.perform(get("/stats")).andReturn()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.mode").value("running"))
+                .andExpect(jsonPath("$.products.totalQuantity").value(12))
+                .andExpect(jsonPath("$.cars.quantityByGroup.red").value(9));
+        verify(productService, never()).findAll();
+    }
+
+    @Test
+    void stats_ScanWithOtherThreshold() throws Exception {
+        Car car = new Car();
+        car.setCarColor("red");
+        car.setCarQuantity(8);
+        when(productService.findAll()).thenReturn(List.of());
+        when(carService.findAll()).thenReturn(List.of(car));
+
+        mockMvc.perform(asyncDispatch(mockMvc.perform(get("/stats").param("lowStockThreshold", "10")).andReturn()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.mode").value("scan"))
+                .andExpect(jsonPath("$.products.count").value(0))
+                .andExpect(jsonPath("$.cars.lowStock").value(1))
+                .andExpect(jsonPath("$.cars.lowStockThreshold").value(10));
+        verify(carStats, never()).stats();
+    }
+}
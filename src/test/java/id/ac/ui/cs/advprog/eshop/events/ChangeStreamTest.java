@@ -0,0 +1,184 @@
+package id.ac.ui.cs.advprog.eshop.events;
+
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChangeStreamTest {
+
+    private static Product product(String id, String name) {
+        Product product = new Product();
+        product.setProductId(id);
+        product.setProductName(name);
+        product.setProductQuantity(1);
+        return product;
+    }
+
+    @Test
+    void testRepositoryMutationsArePublishedInOrder() {
+        ChangeStream stream = new ChangeStream(16);
+        ProductRepository productRepository = new ProductRepository();
+        productRepository.addListener(stream.listenerFor("product", Product::getProductId));
+        ChangeCursor cursor = stream.cursor(null);
+
+        productRepository.create(product("sku-1", "Kopi"));
+        productRepository.update(product("sku-1", "Kopi Susu"));
+        productRepository.delete("sku-1");
+
+        List<ChangeEvent> events = cursor.poll(10);
+        assertEquals(3, events.size());
+        assertEquals(List.of(0L, 1L, 2L), events.stream().map(ChangeEvent::getSequence).toList());
+        assertEquals(ChangeEvent.Type.SAVED, events.get(0).getType());
+        assertEquals("Kopi Susu", ((Product) events.get(1).getItem()).getProductName());
+        assertEquals(ChangeEvent.Type.DELETED, events.get(2).getType());
+        assertEquals("sku-1", events.get(2).getId());
+        assertEquals("product", events.get(2).getEntity());
+        assertNull(events.get(2).getItem());
+
+        assertTrue(cursor.poll(10).isEmpty());
+        assertEquals(2, cursor.getPosition());
+        assertEquals(2, stream.lastSequence());
+    }
+
+    @Test
+    void testCursorsResumeAfterASequence() {
+        ChangeStream stream = new ChangeStream(16);
+        ProductRepository productRepository = new ProductRepository();
+        productRepository.addListener(stream.listenerFor("product", Product::getProductId));
+        for (int i = 0; i < 5; i++) {
+            productRepository.create(product("sku-" + i, "Product " + i));
+        }
+
+        ChangeCursor cursor = stream.cursor(1L);
+        assertEquals(3, cursor.lag());
+        List<ChangeEvent> first = cursor.poll(2);
+        assertEquals(List.of("sku-2", "sku-3"), first.stream().map(ChangeEvent::getId).toList());
+        assertEquals("sku-4", cursor.poll(2).get(0).getId());
+        assertEquals(5, stream.cursor(-1L).poll(10).size());
+        assertThrows(IllegalArgumentException.class, () -> stream.cursor(-2L));
+    }
+
+    @Test
+    void testResumingFromAnEarlierRunIsAnOverrun() {
+        ChangeStream stream = new ChangeStream(16);
+        ProductRepository productRepository = new ProductRepository();
+        productRepository.addListener(stream.listenerFor("product", Product::getProductId));
+        productRepository.create(product("sku-1", "Kopi"));
+        productRepository.create(product("sku-2", "Teh"));
+        ChangeEvent first = stream.cursor(-1L).poll(1).get(0);
+
+        List<ChangeEvent> resumed = stream.resume(stream.eventId(first)).poll(10);
+        assertEquals(List.of("sku-2"), resumed.stream().map(ChangeEvent::getId).toList());
+
+        List<Supplier<ChangeCursor>> staleCursors = List.of(
+                () -> stream.cursor(50_000L), () -> stream.resume("earlier-0"), () -> stream.resume("7"));
+        for (Supplier<ChangeCursor> staleCursor : staleCursors) {
+            ChangeCursor stale = staleCursor.get();
+            productRepository.create(product("sku-3", "Susu"));
+            List<ChangeEvent> events = stale.poll(10);
+            assertEquals(ChangeEvent.Type.OVERRUN, events.get(0).getType());
+            assertEquals(List.of("sku-3"), events.stream().skip(1).map(ChangeEvent::getId).toList());
+        }
+        assertThrows(IllegalArgumentException.class, () -> stream.resume("not-a-sequence"));
+    }
+
+    @Test
+    void testLappedReaderGetsOverrun() {
+        ChangeStream stream = new ChangeStream(8);
+        ProductRepository productRepository = new ProductRepository();
+        productRepository.addListener(stream.listenerFor("product", Product::getProductId));
+        ChangeCursor cursor = stream.cursor(null);
+        for (int i = 0; i < 20; i++) {
+            productRepository.create(product("sku-" + i, "Product " + i));
+        }
+
+        List<ChangeEvent> events = cursor.poll(100);
+        assertEquals(ChangeEvent.Type.OVERRUN, events.get(0).getType());
+        long resumed = events.get(1).getSequence();
+        assertEquals(events.get(0).getSequence() + 1, resumed);
+        assertTrue(resumed >= 12);
+        assertEquals(19, events.get(events.size() - 1).getSequence());
+        for (int i = 2; i < events.size(); i++) {
+            assertEquals(events.get(i - 1).getSequence() + 1, events.get(i).getSequence());
+        }
+    }
+
+    @Test
+    void testConcurrentWritersLeaveNoGaps() throws InterruptedException {
+        ChangeStream stream = new ChangeStream(1 << 16);
+        ProductRepository productRepository = new ProductRepository();
+        productRepository.addListener(stream.listenerFor("product", Product::getProductId));
+        ChangeCursor cursor = stream.cursor(null);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            int thread = t;
+            pool.execute(() -> {
+                for (int i = 0; i < 2000; i++) {
+                    productRepository.create(product("sku-" + thread + "-" + i, "Product"));
+                }
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+
+        List<ChangeEvent> events = cursor.poll(100_000);
+        assertEquals(16000, events.size());
+        for (int i = 0; i < events.size(); i++) {
+            assertEquals(i, events.get(i).getSequence());
+        }
+    }
+
+    @Test
+    void testSubscribersReceiveBatches() throws InterruptedException {
+        ChangeStream stream = new ChangeStream(1024);
+        ProductRepository productRepository = new ProductRepository();
+        productRepository.addListener(stream.listenerFor("product", Product::getProductId));
+        List<String> first = Collections.synchronizedList(new ArrayList<>());
+        List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(2);
+        ChangeSubscription a = stream.subscribe("a", -1L, 10, batch -> {
+            batchSizes.add(batch.size());
+            batch.forEach(event -> first.add(event.getId()));
+            if (first.size() == 50) {
+                done.countDown();
+            }
+        });
+        List<String> second = Collections.synchronizedList(new ArrayList<>());
+        ChangeSubscription b = stream.subscribe("b", -1L, 100, batch -> {
+            batch.forEach(event -> second.add(event.getId()));
+            if (second.size() == 50) {
+                done.countDown();
+            }
+        });
+        assertEquals(2, stream.getSubscriptions().size());
+
+        for (int i = 0; i < 50; i++) {
+            productRepository.create(product("sku-" + i, "Product " + i));
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(first, second);
+        assertEquals("sku-49", first.get(49));
+        batchSizes.forEach(size -> assertTrue(size <= 10));
+        assertEquals(0, a.lag());
+
+        a.close();
+        b.close();
+        assertTrue(stream.getSubscriptions().isEmpty());
+    }
+
+    @Test
+    void testCapacityMustBePowerOfTwo() {
+        assertThrows(IllegalArgumentException.class, () -> new ChangeStream(100));
+    }
+}
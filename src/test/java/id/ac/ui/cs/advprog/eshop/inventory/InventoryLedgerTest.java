@@ -0,0 +1,222 @@
+package id.ac.ui.cs.advprog.eshop.inventory;
+
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.repository.ChangeListener;
+import id.ac.ui.cs.advprog.eshop.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InventoryLedgerTest {
+
+    private static final Duration TIMEOUT = Duration.ofMinutes(10);
+
+    private ProductRepository productRepository;
+    private MutableClock clock;
+    private InventoryLedger<Product> ledger;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        productRepository = new ProductRepository();
+        clock = new MutableClock();
+        ledger = new InventoryLedger<>(productRepository::findById, Product::getProductId,
+                Product::getProductQuantity, productRepository::adjustQuantity, clock);
+        productRepository.addListener(ledger);
+
+        product = new Product();
+        product.setProductId("sku-1");
+        product.setProductName("Flash Sale Item");
+        product.setProductQuantity(5);
+        productRepository.create(product);
+    }
+
+    @Test
+    void testReserveAndCommit() {
+        Reservation reservation = ledger.reserve("sku-1", 3, TIMEOUT);
+        assertEquals(2, available());
+        assertEquals(5, productRepository.findById("sku-1").getProductQuantity());
+        assertThrows(InsufficientStockException.class, () -> ledger.reserve("sku-1", 3, TIMEOUT));
+
+        Product committed = ledger.commit(reservation.getReservationId());
+        assertEquals(2, committed.getProductQuantity());
+        assertEquals(2, productRepository.findById("sku-1").getProductQuantity());
+        assertEquals(2, available());
+        assertNull(ledger.commit(reservation.getReservationId()));
+    }
+
+    @Test
+    void testReleaseReturnsUnits() {
+        Reservation reservation = ledger.reserve("sku-1", 5, TIMEOUT);
+        assertEquals(0, available());
+
+        assertTrue(ledger.release(reservation.getReservationId()));
+        assertFalse(ledger.release(reservation.getReservationId()));
+        assertEquals(5, available());
+        assertEquals(5, productRepository.findById("sku-1").getProductQuantity());
+    }
+
+    @Test
+    void testExpiredReservationsReturnUnits() {
+        Reservation reservation = ledger.reserve("sku-1", 4, Duration.ofSeconds(30));
+        clock.advance(Duration.ofSeconds(29));
+        assertEquals(0, ledger.expireReservations());
+
+        clock.advance(Duration.ofSeconds(1));
+        assertEquals(1, ledger.expireReservations());
+        assertEquals(5, available());
+        assertNull(ledger.commit(reservation.getReservationId()));
+    }
+
+    @Test
+    void testCommitAfterDeadlineFails() {
+        Reservation reservation = ledger.reserve("sku-1", 4, Duration.ofSeconds(30));
+        clock.advance(Duration.ofMinutes(1));
+
+        assertNull(ledger.commit(reservation.getReservationId()));
+        assertEquals(5, available());
+        assertEquals(5, productRepository.findById("sku-1").getProductQuantity());
+    }
+
+    @Test
+    void testFollowsQuantityEdits() {
+        ledger.reserve("sku-1", 2, TIMEOUT);
+        Product restocked = new Product();
+        restocked.setProductId("sku-1");
+        restocked.setProductName("Flash Sale Item");
+        restocked.setProductQuantity(9);
+        productRepository.update(restocked);
+        assertEquals(7, available());
+
+        restocked.setProductQuantity(1);
+        productRepository.update(restocked);
+        assertEquals(-1, available());
+        assertThrows(InsufficientStockException.class, () -> ledger.reserve("sku-1", 1, TIMEOUT));
+    }
+
+    @Test
+    void testUnknownItemsAndBadArguments() {
+        assertNull(ledger.reserve("missing", 1, TIMEOUT));
+        assertNull(ledger.available("missing"));
+        assertEquals(5, available());
+        assertThrows(IllegalArgumentException.class, () -> ledger.reserve("sku-1", 0, TIMEOUT));
+        assertThrows(IllegalArgumentException.class, () -> ledger.reserve("sku-1", 1, Duration.ZERO));
+    }
+
+    @Test
+    void testCounterIsDroppedWithItsLastReservation() {
+        assertEquals(0, ledger.trackedItems());
+        Reservation committed = ledger.reserve("sku-1", 1, TIMEOUT);
+        Reservation released = ledger.reserve("sku-1", 1, TIMEOUT);
+        Reservation expiring = ledger.reserve("sku-1", 1, Duration.ofSeconds(30));
+        assertThrows(InsufficientStockException.class, () -> ledger.reserve("sku-1", 3, TIMEOUT));
+        assertEquals(1, ledger.trackedItems());
+
+        ledger.commit(committed.getReservationId());
+        ledger.release(released.getReservationId());
+        assertEquals(1, ledger.trackedItems());
+        clock.advance(Duration.ofMinutes(1));
+        ledger.expireReservations();
+        assertEquals(0, ledger.trackedItems());
+        assertEquals(4, available());
+        assertNull(ledger.commit(expiring.getReservationId()));
+
+        assertThrows(InsufficientStockException.class, () -> ledger.reserve("sku-1", 5, TIMEOUT));
+        assertEquals(0, ledger.trackedItems());
+        assertEquals(4, ledger.reserve("sku-1", 4, TIMEOUT).getQuantity());
+        assertEquals(0, available());
+    }
+
+    @Test
+    void testDeletedItemCannotBeCommitted() {
+        Reservation reservation = ledger.reserve("sku-1", 1, TIMEOUT);
+        productRepository.delete("sku-1");
+        assertNull(ledger.commit(reservation.getReservationId()));
+    }
+
+    @Test
+    void testConcurrentBuyersNeverOversell() throws InterruptedException {
+        product.setProductQuantity(100);
+        productRepository.update(product);
+        AtomicInteger sold = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 1000; i++) {
+            pool.execute(() -> {
+                try {
+                    Reservation reservation = ledger.reserve("sku-1", 1, TIMEOUT);
+                    if (ledger.commit(reservation.getReservationId()) != null) {
+                        sold.incrementAndGet();
+                    }
+                } catch (InsufficientStockException | IllegalArgumentException soldOut) {
+                    // Expected once the stock runs out, on reserving or on the commit's save
+                }
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+
+        int left = productRepository.findById("sku-1").getProductQuantity();
+        assertEquals(100, sold.get() + left);
+        assertEquals(left, available());
+        assertEquals(0, left);
+    }
+
+    @Test
+    void testCommitNeverDipsAvailableStock() {
+        Reservation reservation = ledger.reserve("sku-1", 3, TIMEOUT);
+        AtomicLong seenDuringSave = new AtomicLong(Long.MIN_VALUE);
+        productRepository.addListener(new ChangeListener<>() {
+            @Override
+            public void onSave(Product saved) {
+                seenDuringSave.set(available());
+            }
+
+            @Override
+            public void onDelete(String id) {
+            }
+        });
+
+        ledger.commit(reservation.getReservationId());
+        assertEquals(2, seenDuringSave.get());
+        assertEquals(2, available());
+    }
+
+    private long available() {
+        return ledger.available("sku-1");
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
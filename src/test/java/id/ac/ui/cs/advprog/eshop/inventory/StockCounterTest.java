@@ -0,0 +1,107 @@
+package id.ac.ui.cs.advprog.eshop.inventory;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StockCounterTest {
+
+    @Test
+    void testTakeAndRelease() {
+        StockCounter counter = new StockCounter(5);
+        assertTrue(counter.tryTake(3));
+        assertFalse(counter.tryTake(3));
+        assertEquals(2, counter.available());
+
+        counter.release(3);
+        assertTrue(counter.tryTake(5));
+        assertEquals(0, counter.available());
+    }
+
+    @Test
+    void testWriteOffBeyondFreeStockBecomesDebt() {
+        StockCounter counter = new StockCounter(2);
+        counter.writeOff(5);
+        assertEquals(-3, counter.available());
+        assertFalse(counter.tryTake(1));
+
+        counter.release(4);
+        assertEquals(1, counter.available());
+        assertTrue(counter.tryTake(1));
+        assertFalse(counter.tryTake(1));
+    }
+
+    @Test
+    void testNegativeStartIsDebt() {
+        StockCounter counter = new StockCounter(-2);
+        counter.release(2);
+        assertFalse(counter.tryTake(1));
+        assertEquals(0, counter.available());
+    }
+
+    @Test
+    void testConcurrentTakesNeverOversell() throws InterruptedException {
+        StockCounter counter = new StockCounter(10_000);
+        AtomicInteger taken = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int thread = 0; thread < 8; thread++) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 5_000; i++) {
+                    if (counter.tryTake(1)) {
+                        taken.incrementAndGet();
+                    }
+                    if (i % 10 == 0 && counter.tryTake(2)) {
+                        counter.release(2);
+                    }
+                }
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(0, counter.available());
+        assertEquals(10_000, taken.get());
+    }
+
+    @Test
+    void testEveryTakerGetsItsShareWhenThereIsEnough() throws InterruptedException {
+        int takers = 32;
+        for (int round = 0; round < 200; round++) {
+            StockCounter counter = new StockCounter((long) takers * 3);
+            AtomicInteger failed = new AtomicInteger();
+            CountDownLatch start = new CountDownLatch(1);
+            ExecutorService pool = Executors.newFixedThreadPool(takers);
+            for (int thread = 0; thread < takers; thread++) {
+                pool.execute(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    if (!counter.tryTake(3)) {
+                        failed.incrementAndGet();
+                    }
+                });
+            }
+            start.countDown();
+            pool.shutdown();
+            assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+
+            assertEquals(0, failed.get(), "round " + round);
+            assertEquals(0, counter.available());
+        }
+    }
+}
@@ -0,0 +1,459 @@
+package id.ac.ui.cs.advprog.eshop.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import id.ac.ui.cs.advprog.eshop.EshopApplication;
+import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.service.CarService;
+import id.ac.ui.cs.advprog.eshop.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Replays a mix of list, view, edit, create and delete requests against the
+ * product and car pages of an embedded server and writes throughput and latency
+ * percentiles per operation to a JSON report. Run with ./gradlew loadTest, e.g.
+ * {@code -Pload.concurrency=128 -Pload.duration=60 -Pload.catalogue=100000}.
+ *
+ * <p>With {@code load.rate} set, requests are paced at that total rate and timed
+ * from when they were due rather than when they were sent, so a stall shows up
+ * in the tail instead of just slowing the generator down. {@code load.maxP99Ms},
+ * {@code load.maxP999Ms} and {@code load.minThroughput} turn the run into a gate.
+ * Properties starting with {@code load.app.} are passed to the application with
+ * the prefix stripped, e.g. {@code -Pload.app.eshop.storage=sharded}.
+ *
+ * <p>{@code load.threads=platform,virtual} repeats the run once per request thread
+ * mode, each on a freshly seeded server, and reports the runs side by side.
+ */
+class CatalogueLoadTest {
+
+    private static final int CONCURRENCY = Integer.getInteger("load.concurrency", 64);
+    private static final int DURATION_SECONDS = Integer.getInteger("load.duration", 30);
+    private static final int WARMUP_SECONDS = Integer.getInteger("load.warmup", 5);
+    private static final int CATALOGUE_SIZE = Integer.getInteger("load.catalogue", 10_000);
+    private static final double TARGET_RATE = Double.parseDouble(System.getProperty("load.rate", "0"));
+    private static final String REPORT = System.getProperty("load.report", "build/reports/load/catalogue.json");
+    private static final List<String> THREAD_MODES = List.of(System.getProperty("load.threads", "platform").split(","));
+    private static final int PAGE_SIZE = 20;
+
+    enum Operation {
+        PRODUCT_LIST("product.list", 20),
+        PRODUCT_VIEW("product.view", 25),
+        PRODUCT_EDIT("product.edit", 6),
+        PRODUCT_CREATE("product.create", 4),
+        PRODUCT_DELETE("product.delete", 2),
+        CAR_LIST("car.list", 15),
+        CAR_VIEW("car.view", 18),
+        CAR_EDIT("car.edit", 5),
+        CAR_CREATE("car.create", 3),
+        CAR_DELETE("car.delete", 2);
+
+        private final String key;
+        private final int defaultWeight;
+
+        Operation(String key, int defaultWeight) {
+            this.key = key;
+            this.defaultWeight = defaultWeight;
+        }
+    }
+
+    @Test
+    void replayCatalogueMix() throws Exception {
+        int[] weights = weights(System.getProperty("load.mix"));
+        Map<String, Object> runs = new LinkedHashMap<>();
+        for (String threads : THREAD_MODES) {
+            runs.put(threads, run(threads, weights));
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("timestamp", Instant.now().toString());
+        report.put("config", config());
+        report.put("runs", runs);
+        Path path = Path.of(REPORT);
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(path.toFile(), report);
+        System.out.println("Load report written to " + path.toAbsolutePath());
+        runs.forEach(CatalogueLoadTest::check);
+    }
+
+    private static Map<String, Object> run(String threads, int[] weights) throws Exception {
+        if (!threads.equals("platform") && !threads.equals("virtual")) {
+            throw new IllegalArgumentException("Unknown thread mode in load.threads: " + threads);
+        }
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(EshopApplication.class)
+                .properties(applicationProperties())
+                .properties("spring.threads.virtual.enabled=" + threads.equals("virtual"))
+                .run()) {
+            Catalogue catalogue = seed(context.getBean(ProductService.class), context.getBean(CarService.class));
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+            // The warmup may use up to half of the records set aside for deletes
+            drive(client, baseUrl, catalogue, weights, WARMUP_SECONDS, 2);
+            long started = System.nanoTime();
+            List<Recorder> recorders = drive(client, baseUrl, catalogue, weights, DURATION_SECONDS, 1);
+            return results(recorders, System.nanoTime() - started);
+        }
+    }
+
+    private static String[] applicationProperties() {
+        List<String> properties = new ArrayList<>(List.of("server.port=0"));
+        System.getProperties().stringPropertyNames().stream()
+                .filter(name -> name.startsWith("load.app."))
+                .forEach(name -> properties.add(name.substring("load.app.".length()) + "=" + System.getProperty(name)));
+        return properties.toArray(new String[0]);
+    }
+
+    private static int[] weights(String mix) {
+        int[] weights = new int[Operation.values().length];
+        for (Operation operation : Operation.values()) {
+            weights[operation.ordinal()] = mix == null ? operation.defaultWeight : 0;
+        }
+        if (mix != null) {
+            // e.g. product.view:80,product.edit:20; operations left out are not run
+            for (String entry : mix.split(",")) {
+                String[] parts = entry.trim().split(":");
+                Operation operation = Arrays.stream(Operation.values())
+                        .filter(candidate -> candidate.key.equals(parts[0]))
+                        .findFirst()
+                        .orElseThrow(() -> new IllegalArgumentException("Unknown operation in load.mix: " + parts[0]));
+                weights[operation.ordinal()] = Integer.parseInt(parts[1]);
+            }
+        }
+        for (int i = 1; i < weights.length; i++) {
+            weights[i] += weights[i - 1];
+        }
+        if (weights[weights.length - 1] <= 0) {
+            throw new IllegalArgumentException("load.mix has no operation with a positive weight");
+        }
+        return weights;
+    }
+
+    /**
+     * Views and edits go to records that are never deleted, so no request races a
+     * delete into a 404; deletes take from a separate pool split between workers.
+     */
+    private static Catalogue seed(ProductService productService, CarService carService) {
+        Catalogue catalogue = new Catalogue();
+        for (int i = 0; i < CATALOGUE_SIZE + CATALOGUE_SIZE / 2; i++) {
+            Product product = new Product();
+            product.setProductName("Product " + i);
+            product.setProductQuantity(i % 500);
+            String productId = productService.create(product).getProductId();
+            Car car = new Car();
+            car.setCarName("Car " + i);
+            car.setCarColor(i % 2 == 0 ? "Red" : "Blue");
+            car.setCarQuantity(i % 50);
+            String carId = carService.create(car).getCarId();
+            (i < CATALOGUE_SIZE ? catalogue.productIds : catalogue.deletableProductIds).add(productId);
+            (i < CATALOGUE_SIZE ? catalogue.carIds : catalogue.deletableCarIds).add(carId);
+        }
+        return catalogue;
+    }
+
+    private static List<Recorder> drive(HttpClient client, String baseUrl, Catalogue catalogue, int[] weights,
+                                        int seconds, int deletePoolShare) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        int productDeletes = catalogue.deletableProductIds.size() / deletePoolShare / CONCURRENCY;
+        int carDeletes = catalogue.deletableCarIds.size() / deletePoolShare / CONCURRENCY;
+        List<Future<Recorder>> workers = new ArrayList<>(CONCURRENCY);
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < CONCURRENCY; i++) {
+                Worker worker = new Worker(client, baseUrl, catalogue, weights,
+                        take(catalogue.deletableProductIds, productDeletes), take(catalogue.deletableCarIds, carDeletes));
+                workers.add(pool.submit(() -> worker.run(deadline)));
+            }
+        }
+        List<Recorder> recorders = new ArrayList<>(CONCURRENCY);
+        for (Future<Recorder> worker : workers) {
+            recorders.add(worker.get());
+        }
+        return recorders;
+    }
+
+    private static List<String> take(List<String> pool, int count) {
+        List<String> tail = pool.subList(pool.size() - count, pool.size());
+        List<String> taken = new ArrayList<>(tail);
+        tail.clear();
+        return taken;
+    }
+
+    private static Map<String, Object> config() {
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("concurrency", CONCURRENCY);
+        config.put("durationSeconds", DURATION_SECONDS);
+        config.put("warmupSeconds", WARMUP_SECONDS);
+        config.put("catalogueSize", CATALOGUE_SIZE);
+        config.put("targetRate", TARGET_RATE);
+        config.put("threads", THREAD_MODES);
+        config.put("application", applicationProperties());
+        return config;
+    }
+
+    private static Map<String, Object> results(List<Recorder> recorders, long elapsedNanos) {
+        Map<String, Object> operations = new LinkedHashMap<>();
+        LongList all = new LongList();
+        int allErrors = 0;
+        for (Operation operation : Operation.values()) {
+            LongList latencies = new LongList();
+            int errors = 0;
+            for (Recorder recorder : recorders) {
+                latencies.addAll(recorder.latencies.get(operation));
+                errors += recorder.errors[operation.ordinal()];
+            }
+            if (latencies.size == 0 && errors == 0) {
+                continue;
+            }
+            all.addAll(latencies);
+            allErrors += errors;
+            operations.put(operation.key, summary(latencies, errors, elapsedNanos));
+        }
+
+        Map<String, Object> results = new LinkedHashMap<>();
+        results.put("total", summary(all, allErrors, elapsedNanos));
+        results.put("operations", operations);
+        return results;
+    }
+
+    private static Map<String, Object> summary(LongList latencies, int errors, long elapsedNanos) {
+        long[] sorted = latencies.sorted();
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("requests", sorted.length);
+        summary.put("errors", errors);
+        summary.put("throughput", sorted.length / (elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1)));
+        summary.put("p50Ms", percentileMillis(sorted, 0.50));
+        summary.put("p99Ms", percentileMillis(sorted, 0.99));
+        summary.put("p999Ms", percentileMillis(sorted, 0.999));
+        summary.put("maxMs", percentileMillis(sorted, 1.0));
+        return summary;
+    }
+
+    private static double percentileMillis(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1e6;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void check(String threads, Object run) {
+        Map<String, Object> results = (Map<String, Object>) run;
+        Map<String, Object> total = (Map<String, Object>) results.get("total");
+        System.out.println(threads + " threads:");
+        System.out.printf("%-15s %10s %8s %12s %10s %10s %10s%n",
+                "operation", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p99.9 ms");
+        Map<String, Object> rows = new LinkedHashMap<>((Map<String, Object>) results.get("operations"));
+        rows.put("total", total);
+        rows.forEach((name, value) -> {
+            Map<String, Object> row = (Map<String, Object>) value;
+            System.out.printf("%-15s %10d %8d %12.0f %10.2f %10.2f %10.2f%n", name, row.get("requests"),
+                    row.get("errors"), row.get("throughput"), row.get("p50Ms"), row.get("p99Ms"), row.get("p999Ms"));
+        });
+
+        assertTrue((int) total.get("errors") == 0, threads + ": requests failed: " + total.get("errors"));
+        String maxP99 = System.getProperty("load.maxP99Ms");
+        if (maxP99 != null) {
+            assertTrue((double) total.get("p99Ms") <= Double.parseDouble(maxP99), threads + ": p99 above " + maxP99 + " ms");
+        }
+        String maxP999 = System.getProperty("load.maxP999Ms");
+        if (maxP999 != null) {
+            assertTrue((double) total.get("p999Ms") <= Double.parseDouble(maxP999), threads + ": p99.9 above " + maxP999 + " ms");
+        }
+        String minThroughput = System.getProperty("load.minThroughput");
+        if (minThroughput != null) {
+            assertTrue((double) total.get("throughput") >= Double.parseDouble(minThroughput),
+                    threads + ": throughput below " + minThroughput + " req/s");
+        }
+    }
+
+    private static final class Catalogue {
+        private final List<String> productIds = new ArrayList<>();
+        private final List<String> carIds = new ArrayList<>();
+        private final List<String> deletableProductIds = new ArrayList<>();
+        private final List<String> deletableCarIds = new ArrayList<>();
+    }
+
+    private static final class Worker {
+        private final HttpClient client;
+        private final String baseUrl;
+        private final Catalogue catalogue;
+        private final int[] weights;
+        private final Recorder recorder = new Recorder();
+        // This worker's own share of the delete pools, so no two requests delete the same record
+        private final List<String> productsToDelete;
+        private final List<String> carsToDelete;
+
+        private Worker(HttpClient client, String baseUrl, Catalogue catalogue, int[] weights,
+                       List<String> productsToDelete, List<String> carsToDelete) {
+            this.client = client;
+            this.baseUrl = baseUrl;
+            this.catalogue = catalogue;
+            this.weights = weights;
+            this.productsToDelete = productsToDelete;
+            this.carsToDelete = carsToDelete;
+        }
+
+        Recorder run(long deadline) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long interval = TARGET_RATE > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) * CONCURRENCY / TARGET_RATE) : 0;
+            long due = System.nanoTime();
+            while (System.nanoTime() < deadline) {
+                if (interval > 0) {
+                    due += interval;
+                    long wait = due - System.nanoTime();
+                    if (wait > 0) {
+                        LockSupport.parkNanos(wait);
+                    }
+                }
+                Operation operation = pick(random);
+                HttpRequest request = request(operation, random);
+                if (request == null) {
+                    continue;
+                }
+                long start = interval > 0 ? due : System.nanoTime();
+                try {
+                    int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                    boolean ok = request.method().equals("GET") ? status == 200 : status == 302;
+                    recorder.record(operation, ok ? System.nanoTime() - start : -1);
+                } catch (Exception e) {
+                    recorder.record(operation, -1);
+                }
+            }
+            return recorder;
+        }
+
+        private Operation pick(ThreadLocalRandom random) {
+            int roll = random.nextInt(weights[weights.length - 1]);
+            int index = 0;
+            while (roll >= weights[index]) {
+                index++;
+            }
+            return Operation.values()[index];
+        }
+
+        // Null when the operation has nothing left to act on
+        private HttpRequest request(Operation operation, ThreadLocalRandom random) {
+            String productId = catalogue.productIds.get(random.nextInt(catalogue.productIds.size()));
+            String carId = catalogue.carIds.get(random.nextInt(catalogue.carIds.size()));
+            int pages = Math.max(1, CATALOGUE_SIZE / PAGE_SIZE);
+            switch (operation) {
+                case PRODUCT_LIST:
+                    return get("/product/list?page=" + random.nextInt(pages));
+                case PRODUCT_VIEW:
+                    return get("/product/edit/" + productId);
+                case PRODUCT_EDIT:
+                    return post("/product/edit", Map.of("productId", productId,
+                            "productName", "Product " + random.nextInt(CATALOGUE_SIZE),
+                            "productQuantity", Integer.toString(random.nextInt(500))));
+                case PRODUCT_CREATE:
+                    return post("/product/create", Map.of("productName", "Load product " + random.nextInt(),
+                            "productQuantity", Integer.toString(random.nextInt(500))));
+                case PRODUCT_DELETE:
+                    return productsToDelete.isEmpty() ? null
+                            : post("/product/delete/" + productsToDelete.remove(productsToDelete.size() - 1), Map.of());
+                case CAR_LIST:
+                    return get("/car/listCar?page=" + random.nextInt(pages));
+                case CAR_VIEW:
+                    return get("/car/editCar/" + carId);
+                case CAR_EDIT:
+                    return post("/car/editCar", Map.of("carId", carId, "carName", "Car " + random.nextInt(CATALOGUE_SIZE),
+                            "carColor", random.nextBoolean() ? "Red" : "Blue",
+                            "carQuantity", Integer.toString(random.nextInt(50))));
+                case CAR_CREATE:
+                    return post("/car/createCar", Map.of("carName", "Load car " + random.nextInt(),
+                            "carColor", "Green", "carQuantity", Integer.toString(random.nextInt(50))));
+                default:
+                    return carsToDelete.isEmpty() ? null
+                            : post("/car/deleteCar", Map.of("carId", carsToDelete.remove(carsToDelete.size() - 1)));
+            }
+        }
+
+        private HttpRequest get(String path) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+        }
+
+        private HttpRequest post(String path, Map<String, String> form) {
+            StringBuilder body = new StringBuilder();
+            form.forEach((name, value) -> {
+                if (body.length() > 0) {
+                    body.append('&');
+                }
+                body.append(name).append('=').append(URLEncoder.encode(value, StandardCharsets.UTF_8));
+            });
+            return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .header("Content-Type", "application/x-www-form-urlencoded")
+                    .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                    .build();
+        }
+    }
+
+    private static final class Recorder {
+        private final Map<Operation, LongList> latencies = new EnumMap<>(Operation.class);
+        private final int[] errors = new int[Operation.values().length];
+
+        private Recorder() {
+            for (Operation operation : Operation.values()) {
+                latencies.put(operation, new LongList());
+            }
+        }
+
+        // Latency in nanoseconds, negative for a failed request
+        void record(Operation operation, long latency) {
+            if (latency < 0) {
+                errors[operation.ordinal()]++;
+            } else {
+                latencies.get(operation).add(latency);
+            }
+        }
+    }
+
+    private static final class LongList {
+        private long[] values = new long[1024];
+        private int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        void addAll(LongList other) {
+            for (int i = 0; i < other.size; i++) {
+                add(other.values[i]);
+            }
+        }
+
+        long[] sorted() {
+            long[] sorted = Arrays.copyOf(values, size);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package id.ac.ui.cs.advprog.eshop.metrics;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class CatalogMetricsTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void prometheusScrapeCoversHandlersAndRepositories() throws Exception {
+        mockMvc.perform(post("/product/create")
+                .param("productName", "Sampo")
+                .param("productQuantity", "3"));
+        mockMvc.perform(get("/product/list")).andExpect(status().isOk());
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("http_server_requests_seconds_bucket")))
+                .andExpect(content().string(containsString("uri=\"/product/list\"")))
+                .andExpect(content().string(containsString("eshop_repository_seconds_bucket")))
+                .andExpect(content().string(containsString("method=\"findPage\"")))
+                .andExpect(content().string(containsString("eshop_repository_size{repository=\"product\"}")))
+                .andExpect(content().string(containsString("eshop_cache_requests_total")));
+    }
+}
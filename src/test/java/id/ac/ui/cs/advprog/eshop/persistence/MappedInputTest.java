@@ -0,0 +1,46 @@
+package id.ac.ui.cs.advprog.eshop.persistence;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedInputTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testReadLine_MatchesDataInputStream() throws IOException {
+        Path file = directory.resolve("lines.txt");
+        Files.write(file, "first\nsecond\r\nthird\r\rlast".getBytes(StandardCharsets.ISO_8859_1));
+
+        try (FileChannel channel = FileChannel.open(file)) {
+            MappedInput in = new MappedInput(channel, 0);
+            assertEquals("first", in.readLine());
+            assertEquals("second", in.readLine());
+            assertEquals("third", in.readLine());
+            assertEquals("", in.readLine());
+            assertEquals("last", in.readLine());
+            assertNull(in.readLine());
+        }
+    }
+
+    @Test
+    void testReadLine_ThenBinaryReadsContinue() throws IOException {
+        Path file = directory.resolve("mixed.bin");
+        Files.write(file, new byte[] {'h', 'i', '\r', 0, 0, 0, 42});
+
+        try (FileChannel channel = FileChannel.open(file)) {
+            MappedInput in = new MappedInput(channel, 0);
+            assertEquals("hi", in.readLine());
+            assertEquals(42, in.readInt());
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package id.ac.ui.cs.advprog.eshop.persistence;
+
+import id.ac.ui.cs.advprog.eshop.model.Car;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedSnapshotTest {
+
+    @TempDir
+    Path directory;
+
+    private static Car car(String id, String name, String color, int quantity) {
+        Car car = new Car();
+        car.setCarId(id);
+        car.setCarName(name);
+        car.setCarColor(color);
+        car.setCarQuantity(quantity);
+        return car;
+    }
+
+    @Test
+    void testWriteAndRead_RoundTrip() throws IOException {
+        String uuid = UUID.randomUUID().toString();
+        List<Car> cars = List.of(car(uuid, "Avanza", "Red", 3), car("legacy-id", null, "Blue", 0));
+        Path snapshot = directory.resolve("cars.bin");
+
+        assertEquals(2, MappedSnapshot.write(snapshot, 7, cars.iterator(), new CarCodec()));
+
+        List<Car> loaded = new ArrayList<>();
+        assertEquals(7, MappedSnapshot.read(snapshot, new CarCodec(), loaded::add));
+        assertEquals(2, loaded.size());
+        assertEquals(uuid, loaded.get(0).getCarId());
+        assertEquals("Avanza", loaded.get(0).getCarName());
+        assertEquals(3, loaded.get(0).getCarQuantity());
+        assertEquals("legacy-id", loaded.get(1).getCarId());
+        assertNull(loaded.get(1).getCarName());
+        assertEquals("Blue", loaded.get(1).getCarColor());
+        assertEquals(7, MappedSnapshot.coveredSegment(snapshot));
+    }
+
+    @Test
+    void testWrite_UuidIdsAreFixedWidth() throws IOException {
+        Path snapshot = directory.resolve("cars.bin");
+        MappedSnapshot.write(snapshot, 1, List.of(car(UUID.randomUUID().toString(), "", "", 1)).iterator(),
+                new CarCodec());
+        // 24-byte header + 17-byte id + two 3-byte empty strings + 4-byte quantity
+        assertEquals(24 + 17 + 3 + 3 + 4, Files.size(snapshot));
+    }
+
+    @Test
+    void testRead_MissingFile() throws IOException {
+        List<Car> loaded = new ArrayList<>();
+        assertEquals(0, MappedSnapshot.read(directory.resolve("missing.bin"), new CarCodec(), loaded::add));
+        assertTrue(loaded.isEmpty());
+    }
+
+    @Test
+    void testRead_RejectsForeignFile() throws IOException {
+        Path snapshot = directory.resolve("cars.bin");
+        Files.writeString(snapshot, "definitely not a snapshot file");
+        assertThrows(IOException.class, () -> MappedSnapshot.read(snapshot, new CarCodec(), car -> { }));
+    }
+}
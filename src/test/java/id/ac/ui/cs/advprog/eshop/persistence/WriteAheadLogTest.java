@@ -0,0 +1,107 @@
+package id.ac.ui.cs.advprog.eshop.persistence;
+
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteAheadLogTest {
+
+    @TempDir
+    Path directory;
+
+    private static Product product(String id, String name, int quantity) {
+        Product product = new Product();
+        product.setProductId(id);
+        product.setProductName(name);
+        product.setProductQuantity(quantity);
+        return product;
+    }
+
+    private ProductRepository restore() throws IOException {
+        ProductRepository restored = new ProductRepository();
+        try (WriteAheadLog<Product> log = new WriteAheadLog<>(directory, new ProductCodec())) {
+            log.replay(restored::create, restored::delete);
+        }
+        return restored;
+    }
+
+    @Test
+    void testReplay_RestoresCreateUpdateDelete() throws IOException {
+        ProductRepository repository = new ProductRepository();
+        try (WriteAheadLog<Product> log = new WriteAheadLog<>(directory, new ProductCodec())) {
+            repository.addListener(log);
+            repository.create(product("1", "Sampo", 10));
+            repository.create(product("2", "Sabun", 5));
+            repository.update(product("1", "Sampo Cap Bambang", 7));
+            repository.delete("2");
+        }
+
+        ProductRepository restored = restore();
+        assertEquals("Sampo Cap Bambang", restored.findById("1").getProductName());
+        assertEquals(7, restored.findById("1").getProductQuantity());
+        assertNull(restored.findById("2"));
+    }
+
+    @Test
+    void testCompact_SnapshotReplacesSegments() throws IOException {
+        ProductRepository repository = new ProductRepository();
+        try (WriteAheadLog<Product> log = new WriteAheadLog<>(directory, new ProductCodec())) {
+            repository.addListener(log);
+            repository.create(product("1", "Sampo", 10));
+            repository.create(product("2", null, 5));
+            log.flush();
+            assertEquals(2, log.getRecordsSinceSnapshot());
+
+            log.compact(repository.findAll());
+            assertEquals(0, log.getRecordsSinceSnapshot());
+            repository.delete("1");
+        }
+
+        ProductRepository restored = restore();
+        assertNull(restored.findById("1"));
+        assertNull(restored.findById("2").getProductName());
+        assertEquals(5, restored.findById("2").getProductQuantity());
+    }
+
+    @Test
+    void testReplay_IgnoresTornTail() throws IOException {
+        ProductRepository repository = new ProductRepository();
+        try (WriteAheadLog<Product> log = new WriteAheadLog<>(directory, new ProductCodec())) {
+            repository.addListener(log);
+            repository.create(product("1", "Sampo", 10));
+            repository.create(product("2", "Sabun", 5));
+        }
+        Path segment;
+        try (Stream<Path> files = Files.list(directory)) {
+            segment = files.filter(path -> path.toString().endsWith(".log")).sorted().toList().get(0);
+        }
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        ProductRepository restored = restore();
+        assertNotNull(restored.findById("1"));
+        assertNull(restored.findById("2"));
+    }
+
+    @Test
+    void testReplay_EmptyDirectory() throws IOException {
+        ProductRepository restored = restore();
+        assertFalse(restored.findAll().hasNext());
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> segments = files.toList();
+            assertEquals(1, segments.size());
+        }
+    }
+}
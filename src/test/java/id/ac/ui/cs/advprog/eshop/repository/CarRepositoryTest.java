@@ -0,0 +1,232 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import id.ac.ui.cs.advprog.eshop.model.BatchOperation;
+import id.ac.ui.cs.advprog.eshop.model.BatchResult;
+import id.ac.ui.cs.advprog.eshop.model.Car;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class CarRepositoryTest {
+
+    @InjectMocks
+    private CarRepository carRepository;
+
+    private Car car;
+
+    @BeforeEach
+    void setUp() {
+        car = new Car();
+        car.setCarId("test-car-id");
+        car.setCarName("Test Car");
+        car.setCarColor("Red");
+        car.setCarQuantity(5);
+    }
+
+    @Test
+    void testCreate_GeneratesIdWhenMissing() {
+        Car withoutId = new Car();
+        carRepository.create(withoutId);
+        assertNotNull(withoutId.getCarId());
+        assertSame(withoutId, carRepository.findById(withoutId.getCarId()));
+    }
+
+    @Test
+    void testUpdate_PublishesNewSnapshot() {
+        carRepository.create(car);
+
+        Car changes = new Car();
+        changes.setCarName("Updated Car");
+        changes.setCarColor("Blue");
+        changes.setCarQuantity(10);
+        Car updated = carRepository.update(car.getCarId(), changes);
+
+        assertEquals("Updated Car", updated.getCarName());
+        assertEquals(car.getCarId(), updated.getCarId());
+        assertSame(updated, carRepository.findById(car.getCarId()));
+        assertEquals("Test Car", car.getCarName());
+    }
+
+    @Test
+    void testUpdate_CarNotFound() {
+        assertNull(carRepository.update("non-existent", car));
+    }
+
+    @Test
+    void testDelete_KeepsOrderOfRemainingCars() {
+        for (int i = 0; i < 3; i++) {
+            Car c = new Car();
+            c.setCarId(String.valueOf(i));
+            carRepository.create(c);
+        }
+        carRepository.delete("1");
+
+        List<String> ids = new ArrayList<>();
+        carRepository.findAll().forEachRemaining(c -> ids.add(c.getCarId()));
+        assertEquals(List.of("0", "2"), ids);
+        assertNull(carRepository.findById("1"));
+    }
+
+    @Test
+    void testAdjustQuantity_Success() {
+        carRepository.create(car);
+        Car adjusted = carRepository.adjustQuantity(car.getCarId(), -2);
+        assertEquals(3, adjusted.getCarQuantity());
+        assertEquals(3, carRepository.findById(car.getCarId()).getCarQuantity());
+    }
+
+    @Test
+    void testAdjustQuantity_RejectsOversell() {
+        carRepository.create(car);
+        assertThrows(IllegalArgumentException.class, () -> carRepository.adjustQuantity(car.getCarId(), -6));
+        assertEquals(5, carRepository.findById(car.getCarId()).getCarQuantity());
+    }
+
+    @Test
+    void testAdjustQuantity_CarNotFound() {
+        assertNull(carRepository.adjustQuantity("non-existent", 1));
+    }
+
+    @Test
+    void testAdjustQuantity_ConcurrentUpdatesAreNotLost() throws InterruptedException {
+        car.setCarQuantity(0);
+        carRepository.create(car);
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 1000; i++) {
+            pool.execute(() -> carRepository.adjustQuantity(car.getCarId(), 1));
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(1000, carRepository.findById(car.getCarId()).getCarQuantity());
+    }
+
+    @Test
+    void testApplyBatch_ReportsEachOperation() {
+        carRepository.create(car);
+        Car repainted = new Car();
+        repainted.setCarName("Test Car");
+        repainted.setCarColor("Blue");
+
+        List<BatchResult> results = carRepository.applyBatch(List.of(
+                operation(BatchOperation.Type.UPDATE, car.getCarId(), repainted),
+                operation(BatchOperation.Type.CREATE, null, new Car()),
+                operation(BatchOperation.Type.DELETE, car.getCarId(), null),
+                operation(BatchOperation.Type.DELETE, car.getCarId(), null),
+                operation(null, null, null)));
+
+        assertEquals(BatchResult.Status.UPDATED, results.get(0).getStatus());
+        assertEquals(BatchResult.Status.CREATED, results.get(1).getStatus());
+        assertNotNull(carRepository.findById(results.get(1).getId()));
+        assertEquals(BatchResult.Status.DELETED, results.get(2).getStatus());
+        assertEquals(BatchResult.Status.NOT_FOUND, results.get(3).getStatus());
+        assertEquals(BatchResult.Status.REJECTED, results.get(4).getStatus());
+        assertFalse(results.get(4).isApplied());
+        assertNull(carRepository.findById(car.getCarId()));
+    }
+
+    @Test
+    void testApplyBatch_CreateOnExistingIdIsRejected() {
+        carRepository.create(car);
+        Car clash = new Car();
+        clash.setCarId(car.getCarId());
+        clash.setCarName("Clobbered");
+
+        List<BatchResult> results = carRepository.applyBatch(List.of(
+                operation(BatchOperation.Type.CREATE, null, clash)));
+
+        assertEquals(BatchResult.Status.REJECTED, results.get(0).getStatus());
+        assertEquals(car.getCarName(), carRepository.findById(car.getCarId()).getCarName());
+        assertEquals(1, carRepository.size());
+    }
+
+    @Test
+    void testUpdate_FailingListenerKeepsStoredCar() {
+        carRepository.create(car);
+        carRepository.addListener(new ChangeListener<>() {
+            @Override
+            public void onSave(Car saved) {
+                throw new IllegalStateException("log unavailable");
+            }
+
+            @Override
+            public void onDelete(String carId) {
+            }
+        });
+        Car renamed = new Car();
+        renamed.setCarName("Renamed");
+
+        assertThrows(IllegalStateException.class, () -> carRepository.update(car.getCarId(), renamed));
+        assertEquals("Test Car", carRepository.findById(car.getCarId()).getCarName());
+    }
+
+    @Test
+    void testOverlongColorIsRejectedUpFront() {
+        car.setCarColor("x".repeat(TextLimits.MAX_LENGTH + 1));
+        assertThrows(IllegalArgumentException.class, () -> carRepository.create(car));
+        assertEquals(0, carRepository.size());
+    }
+
+    @Test
+    void testCreateAllIsOneWrite() {
+        Car second = new Car();
+        second.setCarName("Second Car");
+        long before = carRepository.version();
+        carRepository.createAll(List.of(car, second));
+
+        assertEquals(before + 1, carRepository.version());
+        assertNotNull(second.getCarId());
+        assertEquals(2, carRepository.size());
+    }
+
+    @Test
+    void testVersionMovesOnlyWithChanges() {
+        long initial = carRepository.version();
+        assertNull(carRepository.update("missing", car));
+        assertEquals(initial, carRepository.version());
+
+        carRepository.create(car);
+        long created = carRepository.version();
+        assertTrue(created > initial);
+        carRepository.update(car.getCarId(), car);
+        assertTrue(carRepository.version() > created);
+        long updated = carRepository.version();
+        carRepository.delete(car.getCarId());
+        assertTrue(carRepository.version() > updated);
+    }
+
+    @Test
+    void testSnapshot_SharedUntilNextChange() {
+        carRepository.create(car);
+        List<Car> first = carRepository.snapshot();
+
+        assertSame(first, carRepository.snapshot());
+        assertEquals(1, first.size());
+
+        carRepository.update(car.getCarId(), car);
+        List<Car> second = carRepository.snapshot();
+        assertNotSame(first, second);
+        assertNotSame(first.get(0), second.get(0));
+        assertThrows(UnsupportedOperationException.class, () -> second.remove(0));
+    }
+
+    private static <T> BatchOperation<T> operation(BatchOperation.Type type, String id, T item) {
+        BatchOperation<T> operation = new BatchOperation<>();
+        operation.setType(type);
+        operation.setId(id);
+        operation.setItem(item);
+        return operation;
+    }
+}
@@ -0,0 +1,126 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import id.ac.ui.cs.advprog.eshop.model.CatalogQuery;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogIndexTest {
+
+    private CatalogIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new CatalogIndex();
+        index.put("1", "Sampo Cap Bambang", null, 10);
+        index.put("2", "Sabun Mandi", null, 3);
+        index.put("3", "Avanza", "Red", 2);
+        index.put("4", "Brio", "red", 8);
+        index.put("5", "Jazz", "Blue", 1);
+    }
+
+    private static CatalogQuery query(String name, String contains, String color, Integer min, Integer max) {
+        CatalogQuery query = new CatalogQuery();
+        query.setName(name);
+        query.setContains(contains);
+        query.setColor(color);
+        query.setMinQuantity(min);
+        query.setMaxQuantity(max);
+        return query;
+    }
+
+    private Set<String> search(CatalogQuery query) {
+        return new HashSet<>(index.search(query, 100));
+    }
+
+    @Test
+    void testNamePrefixIsCaseInsensitive() {
+        assertEquals(Set.of("1", "2"), search(query("sa", null, null, null, null)));
+        assertEquals(Set.of("1"), search(query("SAMPO", null, null, null, null)));
+    }
+
+    @Test
+    void testContainsUsesTrigramsAndShortNeedles() {
+        assertEquals(Set.of("1"), search(query(null, "bamb", null, null, null)));
+        assertEquals(Set.of("1", "2", "3"), search(query(null, "an", null, null, null)));
+        assertTrue(search(query(null, "xyz", null, null, null)).isEmpty());
+    }
+
+    @Test
+    void testColourAndQuantityRange() {
+        assertEquals(Set.of("3"), search(query(null, null, "Red", null, 4)));
+        assertEquals(Set.of("3", "4"), search(query(null, null, "RED", null, null)));
+        assertEquals(Set.of("2", "3", "5"), search(query(null, null, null, 1, 3)));
+        assertTrue(search(query(null, null, null, 5, 1)).isEmpty());
+    }
+
+    @Test
+    void testUpdatesAndRemovesAreReindexed() {
+        index.put("3", "Avanza Veloz", "Black", 20);
+        assertEquals(Set.of("4"), search(query(null, null, "red", null, null)));
+        assertEquals(Set.of("3"), search(query(null, "veloz", null, 15, null)));
+
+        index.remove("1");
+        assertEquals(Set.of("2"), search(query("sa", null, null, null, null)));
+    }
+
+    @Test
+    void testRenamesSurviveTrigramRebuild() {
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 40_000; i++) {
+                index.put("bulk" + i, (round % 2 == 0 ? "kopi " : "teh ") + i, null, i);
+            }
+        }
+        assertEquals(1, index.search(query(null, "kopi 39999", null, null, null), 100).size());
+        assertTrue(search(query(null, "teh 1234", null, null, null)).isEmpty());
+        assertEquals(Set.of("1"), search(query(null, "bamb", null, null, null)));
+    }
+
+    @Test
+    void testLimit() {
+        assertEquals(2, index.search(query(null, null, null, 0, 100), 2).size());
+    }
+
+    @Test
+    void testMatchesBruteForce() {
+        Random random = new Random(42);
+        String[] names = {"alpha", "alpine", "beta", "bravo", "charlie", "delta", "al", "b"};
+        String[] colors = {"red", "blue", "green", null};
+        CatalogIndex large = new CatalogIndex();
+        String[][] rows = new String[2000][];
+        int[] quantities = new int[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = new String[] {names[random.nextInt(names.length)] + " " + random.nextInt(50),
+                    colors[random.nextInt(colors.length)]};
+            quantities[i] = random.nextInt(100);
+            large.put(String.valueOf(i), rows[i][0], rows[i][1], quantities[i]);
+        }
+        for (int round = 0; round < 200; round++) {
+            String name = names[random.nextInt(names.length)];
+            String prefix = random.nextBoolean() ? name.substring(0, Math.min(name.length(), 1 + random.nextInt(2))) : null;
+            String contains = random.nextInt(3) == 0 ? "ph" + random.nextInt(3) : null;
+            String color = random.nextBoolean() ? colors[random.nextInt(3)] : null;
+            Integer min = random.nextBoolean() ? random.nextInt(100) : null;
+            Integer max = random.nextBoolean() ? random.nextInt(100) : null;
+
+            Set<String> expected = new HashSet<>();
+            for (int i = 0; i < rows.length; i++) {
+                if ((prefix == null || rows[i][0].startsWith(prefix))
+                        && (contains == null || rows[i][0].contains(contains))
+                        && (color == null || color.equals(rows[i][1]))
+                        && (min == null || quantities[i] >= min) && (max == null || quantities[i] <= max)) {
+                    expected.add(String.valueOf(i));
+                }
+            }
+            List<String> actual = large.search(query(prefix, contains, color, min, max), rows.length);
+            assertEquals(expected, new HashSet<>(actual));
+            assertEquals(expected.size(), actual.size());
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import id.ac.ui.cs.advprog.eshop.model.BatchOperation;
+import id.ac.ui.cs.advprog.eshop.model.BatchResult;
+import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.model.Page;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarCarRepositoryTest {
+
+    private ColumnarCarRepository carRepository;
+
+    @BeforeEach
+    void setUp() {
+        carRepository = new ColumnarCarRepository();
+    }
+
+    private Car car(String name, String color, int quantity) {
+        Car car = new Car();
+        car.setCarName(name);
+        car.setCarColor(color);
+        car.setCarQuantity(quantity);
+        return carRepository.create(car);
+    }
+
+    @Test
+    void testCreateAndFindById() {
+        Car created = car("Avanza", "Red", 3);
+        Car found = carRepository.findById(created.getCarId());
+        assertEquals(created.getCarId(), found.getCarId());
+        assertEquals("Avanza", found.getCarName());
+        assertEquals("Red", found.getCarColor());
+        assertEquals(3, found.getCarQuantity());
+    }
+
+    @Test
+    void testCreate_RejectsNonUuidId() {
+        Car car = new Car();
+        car.setCarId("legacy-id");
+        assertThrows(IllegalArgumentException.class, () -> carRepository.create(car));
+        assertNull(carRepository.findById("legacy-id"));
+    }
+
+    @Test
+    void testUpdate_SharesColourDictionary() {
+        Car red = car("Avanza", "Red", 3);
+        Car blue = car("Xenia", "Blue", 1);
+
+        Car changes = new Car();
+        changes.setCarName("Xenia");
+        changes.setCarColor("Red");
+        changes.setCarQuantity(4);
+        Car updated = carRepository.update(blue.getCarId(), changes);
+
+        assertEquals("Red", updated.getCarColor());
+        assertSame(carRepository.findById(red.getCarId()).getCarColor(),
+                carRepository.findById(blue.getCarId()).getCarColor());
+        assertNull(carRepository.update(UUID.randomUUID().toString(), changes));
+    }
+
+    @Test
+    void testAdjustQuantity() {
+        Car created = car("Avanza", null, 3);
+        assertEquals(1, carRepository.adjustQuantity(created.getCarId(), -2).getCarQuantity());
+        assertThrows(IllegalArgumentException.class, () -> carRepository.adjustQuantity(created.getCarId(), -2));
+        assertNull(carRepository.findById(created.getCarId()).getCarColor());
+    }
+
+    @Test
+    void testDelete_CompactionKeepsOrderAndCursors() {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            ids.add(car("Car " + i, "Red", i).getCarId());
+        }
+        Page<Car> first = carRepository.findPage(null, 10);
+
+        // Deleting two thirds of the rows triggers compaction
+        for (int i = 0; i < 3000; i++) {
+            if (i % 3 != 0) {
+                carRepository.delete(ids.get(i));
+            }
+        }
+
+        Page<Car> second = carRepository.findPage(first.getNextCursor(), 2);
+        assertEquals("Car 12", second.getContent().get(0).getCarName());
+        assertEquals("Car 15", second.getContent().get(1).getCarName());
+
+        List<Integer> quantities = new ArrayList<>();
+        carRepository.findAll().forEachRemaining(c -> quantities.add(c.getCarQuantity()));
+        assertEquals(1000, quantities.size());
+        for (int i = 0; i < quantities.size(); i++) {
+            assertEquals(i * 3, quantities.get(i).intValue());
+        }
+        assertNotNull(carRepository.findById(ids.get(2997)));
+        assertNull(carRepository.findById(ids.get(2998)));
+    }
+
+    @Test
+    void testFindPage_Offset() {
+        for (int i = 0; i < 5; i++) {
+            car("Car " + i, "Red", i);
+        }
+        Page<Car> page = carRepository.findPage(2, 2);
+        assertEquals(1, page.getContent().size());
+        assertEquals("Car 4", page.getContent().get(0).getCarName());
+        assertFalse(page.hasNext());
+    }
+
+    @Test
+    void testApplyBatch() {
+        Car red = car("Avanza", "Red", 3);
+        Car changes = new Car();
+        changes.setCarName("Avanza");
+        changes.setCarColor("Black");
+        changes.setCarQuantity(1);
+        Car notUuid = new Car();
+        notUuid.setCarId("car-1");
+
+        List<BatchResult> results = carRepository.applyBatch(List.of(
+                operation(BatchOperation.Type.UPDATE, red.getCarId(), changes),
+                operation(BatchOperation.Type.CREATE, null, notUuid),
+                operation(BatchOperation.Type.CREATE, null, new Car()),
+                operation(BatchOperation.Type.DELETE, "car-1", null)));
+
+        assertEquals(BatchResult.Status.UPDATED, results.get(0).getStatus());
+        assertEquals("Black", carRepository.findById(red.getCarId()).getCarColor());
+        assertEquals(BatchResult.Status.REJECTED, results.get(1).getStatus());
+        assertEquals(BatchResult.Status.CREATED, results.get(2).getStatus());
+        assertEquals(BatchResult.Status.NOT_FOUND, results.get(3).getStatus());
+        assertEquals(2, carRepository.size());
+    }
+
+    private static <T> BatchOperation<T> operation(BatchOperation.Type type, String id, T item) {
+        BatchOperation<T> operation = new BatchOperation<>();
+        operation.setType(type);
+        operation.setId(id);
+        operation.setItem(item);
+        return operation;
+    }
+
+    @Test
+    void testFailingListenerLeavesRowsAsTheyWere() {
+        Car kept = car("Avanza", "Red", 3);
+        Car deleted = car("Xenia", "Blue", 1);
+        carRepository.addListener(new ChangeListener<>() {
+            @Override
+            public void onSave(Car car) {
+                if ("Green".equals(car.getCarColor())) {
+                    throw new IllegalStateException("log unavailable");
+                }
+            }
+
+            @Override
+            public void onDelete(String id) {
+                throw new IllegalStateException("log unavailable");
+            }
+        });
+        Car repainted = new Car();
+        repainted.setCarName("Avanza");
+        repainted.setCarColor("Green");
+
+        assertThrows(IllegalStateException.class, () -> carRepository.update(kept.getCarId(), repainted));
+        assertThrows(IllegalStateException.class, () -> carRepository.delete(deleted.getCarId()));
+
+        assertEquals("Red", carRepository.findById(kept.getCarId()).getCarColor());
+        assertEquals(3, carRepository.findById(kept.getCarId()).getCarQuantity());
+        List<String> colors = new ArrayList<>();
+        carRepository.findAll().forEachRemaining(c -> colors.add(c.getCarColor()));
+        assertEquals(List.of("Red", "Blue"), colors);
+    }
+
+    @Test
+    void testCreateAllMovesVersionOnce() {
+        long before = carRepository.version();
+        Car first = new Car();
+        first.setCarName("Avanza");
+        Car second = new Car();
+        second.setCarName("Xenia");
+        carRepository.createAll(List.of(first, second));
+        assertEquals(before + 1, carRepository.version());
+        assertEquals(2, carRepository.size());
+    }
+}
@@ -0,0 +1,156 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import id.ac.ui.cs.advprog.eshop.model.BatchOperation;
+import id.ac.ui.cs.advprog.eshop.model.BatchResult;
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarProductRepositoryTest {
+
+    private ColumnarProductRepository productRepository;
+
+    @BeforeEach
+    void setUp() {
+        productRepository = new ColumnarProductRepository();
+    }
+
+    private Product product(String name, int quantity) {
+        Product product = new Product();
+        product.setProductName(name);
+        product.setProductQuantity(quantity);
+        return productRepository.create(product);
+    }
+
+    @Test
+    void testCrudRoundTrip() {
+        Product created = product("Sampo Cap Bambang", 100);
+        assertEquals("Sampo Cap Bambang", productRepository.findById(created.getProductId()).getProductName());
+
+        Product updated = new Product();
+        updated.setProductId(created.getProductId());
+        updated.setProductName("Sabun Cap Bambang");
+        updated.setProductQuantity(50);
+        productRepository.update(updated);
+        assertEquals(50, productRepository.findById(created.getProductId()).getProductQuantity());
+
+        productRepository.delete(created.getProductId());
+        assertNull(productRepository.findById(created.getProductId()));
+    }
+
+    @Test
+    void testFindById_UnknownOrMalformedId() {
+        assertNull(productRepository.findById(UUID.randomUUID().toString()));
+        assertNull(productRepository.findById("non-existent"));
+        assertDoesNotThrow(() -> productRepository.delete("non-existent"));
+    }
+
+    @Test
+    void testFindAll_InsertionOrder() {
+        product("A", 1);
+        Product b = product("B", 2);
+        product("C", 3);
+        productRepository.delete(b.getProductId());
+
+        List<String> names = new ArrayList<>();
+        productRepository.findAll().forEachRemaining(p -> names.add(p.getProductName()));
+        assertEquals(List.of("A", "C"), names);
+    }
+
+    @Test
+    void testListenersSeeEveryChange() {
+        List<String> events = new ArrayList<>();
+        productRepository.addListener(new ChangeListener<>() {
+            @Override
+            public void onSave(Product product) {
+                events.add("save " + product.getProductName());
+            }
+
+            @Override
+            public void onDelete(String id) {
+                events.add("delete");
+            }
+        });
+        Product created = product("A", 1);
+        productRepository.delete(created.getProductId());
+        assertEquals(List.of("save A", "delete"), events);
+    }
+
+    @Test
+    void testApplyBatch_CreateOnExistingIdIsRejected() {
+        Product stored = product("Sampo", 4);
+        Product clash = new Product();
+        clash.setProductId(stored.getProductId());
+        clash.setProductName("Clobbered");
+        BatchOperation<Product> create = new BatchOperation<>();
+        create.setType(BatchOperation.Type.CREATE);
+        create.setItem(clash);
+
+        List<BatchResult> results = productRepository.applyBatch(List.of(create));
+
+        assertEquals(BatchResult.Status.REJECTED, results.get(0).getStatus());
+        assertEquals("Sampo", productRepository.findById(stored.getProductId()).getProductName());
+        assertEquals(1, productRepository.size());
+    }
+
+    @Test
+    void testFailingListenerLeavesRowsAsTheyWere() {
+        Product kept = product("A", 1);
+        Product deleted = product("B", 2);
+        productRepository.addListener(new ChangeListener<>() {
+            @Override
+            public void onSave(Product product) {
+                if (product.getProductName().equals("Boom")) {
+                    throw new IllegalStateException("log unavailable");
+                }
+            }
+
+            @Override
+            public void onDelete(String id) {
+                throw new IllegalStateException("log unavailable");
+            }
+        });
+        Product renamed = new Product();
+        renamed.setProductId(kept.getProductId());
+        renamed.setProductName("Boom");
+        Product created = new Product();
+        created.setProductName("Boom");
+
+        assertThrows(IllegalStateException.class, () -> productRepository.update(renamed));
+        assertThrows(IllegalStateException.class, () -> productRepository.create(created));
+        assertThrows(IllegalStateException.class, () -> productRepository.delete(deleted.getProductId()));
+
+        assertEquals("A", productRepository.findById(kept.getProductId()).getProductName());
+        assertNull(productRepository.findById(created.getProductId()));
+        List<String> names = new ArrayList<>();
+        productRepository.findAll().forEachRemaining(p -> names.add(p.getProductName()));
+        assertEquals(List.of("A", "B"), names);
+    }
+
+    @Test
+    void testCreateAllAndApplyBatchMoveVersionOnce() {
+        long before = productRepository.version();
+        Product first = new Product();
+        first.setProductName("A");
+        Product second = new Product();
+        second.setProductName("B");
+        productRepository.createAll(List.of(first, second));
+        assertEquals(before + 1, productRepository.version());
+
+        BatchOperation<Product> delete = new BatchOperation<>();
+        delete.setType(BatchOperation.Type.DELETE);
+        delete.setId(first.getProductId());
+        BatchOperation<Product> deleteOther = new BatchOperation<>();
+        deleteOther.setType(BatchOperation.Type.DELETE);
+        deleteOther.setId(second.getProductId());
+        productRepository.applyBatch(List.of(delete, deleteOther));
+        assertEquals(before + 2, productRepository.version());
+        assertEquals(0, productRepository.size());
+    }
+}
@@ -0,0 +1,60 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashRingTest {
+
+    private static final int KEYS = 20000;
+
+    @Test
+    void testKeysSpreadEvenly() {
+        HashRing ring = new HashRing(List.of("node-0", "node-1", "node-2", "node-3"));
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < KEYS; i++) {
+            counts.merge(ring.nodeFor("key-" + i), 1, Integer::sum);
+        }
+        assertEquals(4, counts.size());
+        counts.values().forEach(count -> assertTrue(count > KEYS / 4 * 0.7 && count < KEYS / 4 * 1.3,
+                "Uneven spread: " + counts));
+    }
+
+    @Test
+    void testAddingNodeOnlyMovesKeysToIt() {
+        HashRing ring = new HashRing(List.of("node-0", "node-1", "node-2", "node-3"));
+        HashRing grown = ring.with("node-4");
+        int moved = 0;
+        for (int i = 0; i < KEYS; i++) {
+            String before = ring.nodeFor("key-" + i);
+            String after = grown.nodeFor("key-" + i);
+            if (!before.equals(after)) {
+                assertEquals("node-4", after);
+                moved++;
+            }
+        }
+        assertTrue(moved > KEYS / 5 * 0.7 && moved < KEYS / 5 * 1.3, "Moved " + moved);
+    }
+
+    @Test
+    void testRemovingNodeOnlyMovesItsKeys() {
+        HashRing ring = new HashRing(List.of("node-0", "node-1", "node-2"));
+        HashRing shrunk = ring.without("node-1");
+        assertEquals(List.of("node-0", "node-2"), shrunk.nodes());
+        for (int i = 0; i < KEYS; i++) {
+            String before = ring.nodeFor("key-" + i);
+            if (!before.equals("node-1")) {
+                assertEquals(before, shrunk.nodeFor("key-" + i));
+            }
+        }
+    }
+
+    @Test
+    void testNeedsANode() {
+        assertThrows(IllegalArgumentException.class, () -> new HashRing(List.of()));
+    }
+}
@@ -0,0 +1,68 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdsTest {
+
+    @Test
+    void newIdIsCanonicalVersion7() {
+        String id = Ids.newId();
+        UUID uuid = UUID.fromString(id);
+
+        assertEquals(uuid.toString(), id);
+        assertEquals(7, uuid.version());
+        assertEquals(2, uuid.variant());
+    }
+
+    @Test
+    void newIdCarriesTheCreationTime() {
+        long before = System.currentTimeMillis();
+        UUID uuid = UUID.fromString(Ids.newId());
+        long after = System.currentTimeMillis();
+
+        long millis = uuid.getMostSignificantBits() >>> 16;
+        assertTrue(millis >= before && millis <= after);
+    }
+
+    @Test
+    void newIdsAreUniqueAndOrderedAcrossMilliseconds() throws InterruptedException {
+        Set<String> ids = new HashSet<>();
+        for (int i = 0; i < 100_000; i++) {
+            assertTrue(ids.add(Ids.newId()));
+        }
+
+        String earlier = Ids.newId();
+        Thread.sleep(2);
+        assertTrue(earlier.compareTo(Ids.newId()) < 0);
+    }
+
+    @Test
+    void parseRoundTripsCanonicalIds() {
+        for (int i = 0; i < 1000; i++) {
+            UUID uuid = UUID.randomUUID();
+            assertEquals(uuid, Ids.parse(uuid.toString()));
+        }
+        String id = Ids.newId();
+        assertEquals(id, Ids.parse(id).toString());
+    }
+
+    @Test
+    void parseRejectsNonCanonicalIds() {
+        String id = "123e4567-e89b-12d3-a456-426614174000";
+        assertNotNull(Ids.parse(id));
+
+        assertNull(Ids.parse(null));
+        assertNull(Ids.parse(""));
+        assertNull(Ids.parse("sku-1"));
+        assertNull(Ids.parse(id.toUpperCase()));
+        assertNull(Ids.parse("123e4567e89b-12d3-a456-4266141740000"));
+        assertNull(Ids.parse("123e4567-e89b-12d3-a456-42661417400g"));
+        assertNull(Ids.parse("1-2-3-4-5"));
+    }
+}
@@ -1,5 +1,8 @@
 package id.ac.ui.cs.advprog.eshop.repository;
 
+import id.ac.ui.cs.advprog.eshop.model.BatchOperation;
+import id.ac.ui.cs.advprog.eshop.model.BatchResult;
+import id.ac.ui.cs.advprog.eshop.model.Page;
 import id.ac.ui.cs.advprog.eshop.model.Product;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -7,7 +10,12 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -107,6 +115,19 @@ class ProductRepositoryTest {
         assertNull(productRepository.findById(product.getProductId()));
     }
 
+    @Test
+    void testAdjustQuantity() {
+        productRepository.create(product);
+        Product adjusted = productRepository.adjustQuantity(product.getProductId(), -4);
+        assertEquals(6, adjusted.getProductQuantity());
+        assertEquals(10, product.getProductQuantity());
+        assertEquals(6, productRepository.findById(product.getProductId()).getProductQuantity());
+
+        assertThrows(IllegalArgumentException.class, () -> productRepository.adjustQuantity(product.getProductId(), -7));
+        assertEquals(6, productRepository.findById(product.getProductId()).getProductQuantity());
+        assertNull(productRepository.adjustQuantity("non-existent", 1));
+    }
+
     @Test
     void testFindAll_EmptyRepository() {
         Iterator<Product> iterator = productRepository.findAll();
@@ -137,4 +158,332 @@ class ProductRepositoryTest {
         productRepository.delete("non-existent");
         // Should not throw exception
     }
+
+    @Test
+    void testCreate_GeneratesIdWhenMissing() {
+        Product withoutId = new Product();
+        withoutId.setProductName("No Id");
+        productRepository.create(withoutId);
+        assertNotNull(withoutId.getProductId());
+        assertSame(withoutId, productRepository.findById(withoutId.getProductId()));
+    }
+
+    @Test
+    void testFindAll_KeepsInsertionOrderAfterUpdateAndDelete() {
+        for (int i = 0; i < 5; i++) {
+            Product p = new Product();
+            p.setProductId(String.valueOf(i));
+            productRepository.create(p);
+        }
+        Product updated = new Product();
+        updated.setProductId("1");
+        updated.setProductName("Updated");
+        productRepository.update(updated);
+        productRepository.delete("3");
+
+        List<String> ids = new ArrayList<>();
+        productRepository.findAll().forEachRemaining(p -> ids.add(p.getProductId()));
+        assertEquals(List.of("0", "1", "2", "4"), ids);
+        assertEquals("Updated", productRepository.findById("1").getProductName());
+    }
+
+    @Test
+    void testFindAll_IteratorSurvivesConcurrentDelete() {
+        productRepository.create(product);
+        Product other = new Product();
+        other.setProductId("other-id");
+        productRepository.create(other);
+
+        Iterator<Product> iterator = productRepository.findAll();
+        productRepository.delete(product.getProductId());
+        assertDoesNotThrow(() -> iterator.forEachRemaining(p -> { }));
+    }
+
+    @Test
+    void testCreate_ConcurrentWritersLoseNothing() throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 1000; i++) {
+            String id = "concurrent-" + i;
+            pool.execute(() -> {
+                Product p = new Product();
+                p.setProductId(id);
+                productRepository.create(p);
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        int count = 0;
+        Iterator<Product> iterator = productRepository.findAll();
+        while (iterator.hasNext()) {
+            iterator.next();
+            count++;
+        }
+        assertEquals(1000, count);
+    }
+
+    @Test
+    void testFindPage_CursorWalksWholeCatalogue() {
+        for (int i = 0; i < 5; i++) {
+            Product p = new Product();
+            p.setProductId(String.valueOf(i));
+            productRepository.create(p);
+        }
+
+        Page<Product> first = productRepository.findPage(null, 2);
+        assertEquals(2, first.getContent().size());
+        assertTrue(first.hasNext());
+
+        productRepository.delete("2");
+        Page<Product> second = productRepository.findPage(first.getNextCursor(), 2);
+        assertEquals("3", second.getContent().get(0).getProductId());
+        assertEquals("4", second.getContent().get(1).getProductId());
+        assertFalse(second.hasNext());
+    }
+
+    @Test
+    void testFindPage_Offset() {
+        for (int i = 0; i < 5; i++) {
+            Product p = new Product();
+            p.setProductId(String.valueOf(i));
+            productRepository.create(p);
+        }
+
+        Page<Product> page = productRepository.findPage(2, 2);
+        assertEquals(1, page.getContent().size());
+        assertEquals("4", page.getContent().get(0).getProductId());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void testFindPage_InvalidCursor() {
+        assertThrows(IllegalArgumentException.class, () -> productRepository.findPage("not-a-cursor", 10));
+    }
+
+    @Test
+    void testApplyBatch_ReportsEachOperation() {
+        Product existing = new Product();
+        existing.setProductId("1");
+        existing.setProductName("Sampo");
+        productRepository.create(existing);
+
+        Product created = new Product();
+        created.setProductName("Sabun");
+        Product renamed = new Product();
+        renamed.setProductName("Sampo Cap Bambang");
+
+        List<BatchResult> results = productRepository.applyBatch(List.of(
+                operation(BatchOperation.Type.CREATE, null, created),
+                operation(BatchOperation.Type.UPDATE, "1", renamed),
+                operation(BatchOperation.Type.UPDATE, "missing", new Product()),
+                operation(BatchOperation.Type.DELETE, null, null),
+                operation(BatchOperation.Type.DELETE, created.getProductId(), null)));
+
+        assertEquals(5, results.size());
+        assertEquals(BatchResult.Status.CREATED, results.get(0).getStatus());
+        assertNotNull(results.get(0).getId());
+        assertEquals(BatchResult.Status.UPDATED, results.get(1).getStatus());
+        assertEquals(BatchResult.Status.NOT_FOUND, results.get(2).getStatus());
+        assertEquals(BatchResult.Status.REJECTED, results.get(3).getStatus());
+        assertEquals(3, results.get(3).getIndex());
+        assertEquals("Sampo Cap Bambang", productRepository.findById("1").getProductName());
+        assertNull(productRepository.findById("missing"));
+    }
+
+    @Test
+    void testApplyBatch_CreateNeverReplacesAndMovesVersionOnce() {
+        productRepository.create(product);
+        long before = productRepository.version();
+        Product clash = new Product();
+        clash.setProductId(product.getProductId());
+        clash.setProductName("Clobbered");
+        Product fresh = new Product();
+        fresh.setProductId("fresh-id");
+
+        List<BatchResult> results = productRepository.applyBatch(List.of(
+                operation(BatchOperation.Type.CREATE, null, clash),
+                operation(BatchOperation.Type.CREATE, null, fresh)));
+
+        assertEquals(BatchResult.Status.REJECTED, results.get(0).getStatus());
+        assertEquals(product.getProductId(), results.get(0).getId());
+        assertEquals(BatchResult.Status.CREATED, results.get(1).getStatus());
+        assertEquals("Test Product", productRepository.findById(product.getProductId()).getProductName());
+        assertEquals(2, productRepository.size());
+        assertEquals(before + 1, productRepository.version());
+
+        productRepository.applyBatch(List.of(operation(BatchOperation.Type.CREATE, null, clash)));
+        assertEquals(before + 1, productRepository.version());
+    }
+
+    @Test
+    void testCreate_FailingListenerLeavesNoRow() {
+        productRepository.addListener(new ChangeListener<>() {
+            @Override
+            public void onSave(Product saved) {
+                throw new IllegalStateException("log unavailable");
+            }
+
+            @Override
+            public void onDelete(String productId) {
+            }
+        });
+
+        assertThrows(IllegalStateException.class, () -> productRepository.create(product));
+        assertNull(productRepository.findById(product.getProductId()));
+        assertFalse(productRepository.findAll().hasNext());
+        assertEquals(0, productRepository.findPage(0, 10).getContent().size());
+    }
+
+    @Test
+    void testUpdate_FailingListenerIsTakenBackFromEarlierOnes() {
+        productRepository.create(product);
+        List<String> seen = new ArrayList<>();
+        productRepository.addListener(new ChangeListener<>() {
+            @Override
+            public void onSave(Product saved) {
+                seen.add(saved.getProductName());
+            }
+
+            @Override
+            public void onDelete(String productId) {
+                seen.add("deleted");
+            }
+        });
+        productRepository.addListener(new ChangeListener<>() {
+            @Override
+            public void onSave(Product saved) {
+                if (saved.getProductName().equals("Renamed")) {
+                    throw new IllegalStateException("log unavailable");
+                }
+            }
+
+            @Override
+            public void onDelete(String productId) {
+                throw new IllegalStateException("log unavailable");
+            }
+        });
+        Product renamed = new Product();
+        renamed.setProductId(product.getProductId());
+        renamed.setProductName("Renamed");
+
+        assertThrows(IllegalStateException.class, () -> productRepository.update(renamed));
+        assertEquals(List.of("Renamed", "Test Product"), seen);
+        assertTrue(productRepository.search("Renamed", 10).isEmpty());
+        assertEquals(1, productRepository.search("Test", 10).size());
+
+        assertThrows(IllegalStateException.class, () -> productRepository.delete(product.getProductId()));
+        assertEquals(List.of("Renamed", "Test Product", "deleted", "Test Product"), seen);
+        assertSame(product, productRepository.findById(product.getProductId()));
+        assertTrue(productRepository.findAll().hasNext());
+        assertEquals(1, productRepository.search("Test", 10).size());
+    }
+
+    @Test
+    void testOverlongNameIsRejectedUpFront() {
+        product.setProductName("x".repeat(TextLimits.MAX_LENGTH + 1));
+        assertThrows(IllegalArgumentException.class, () -> productRepository.create(product));
+        assertEquals(0, productRepository.size());
+
+        List<BatchResult> results = productRepository.applyBatch(
+                List.of(operation(BatchOperation.Type.CREATE, null, product)));
+        assertEquals(BatchResult.Status.REJECTED, results.get(0).getStatus());
+        assertFalse(productRepository.findAll().hasNext());
+    }
+
+    @Test
+    void testCreateAllIsOneWrite() {
+        Product second = new Product();
+        second.setProductName("Second Product");
+        long before = productRepository.version();
+        productRepository.createAll(List.of(product, second));
+
+        assertEquals(before + 1, productRepository.version());
+        assertNotNull(second.getProductId());
+        assertEquals(2, productRepository.size());
+
+        Product tooLong = new Product();
+        tooLong.setProductId("too-long");
+        tooLong.setProductName("x".repeat(TextLimits.MAX_LENGTH + 1));
+        Product fine = new Product();
+        fine.setProductId("fine");
+        assertThrows(IllegalArgumentException.class, () -> productRepository.createAll(List.of(fine, tooLong)));
+        assertNull(productRepository.findById("fine"));
+        assertEquals(before + 1, productRepository.version());
+    }
+
+    @Test
+    void testVersionMovesOnlyWithChanges() {
+        long initial = productRepository.version();
+        productRepository.findAll();
+        productRepository.findById("missing");
+        productRepository.delete("missing");
+        assertEquals(initial, productRepository.version());
+
+        productRepository.create(product);
+        long created = productRepository.version();
+        assertTrue(created > initial);
+        product.setProductQuantity(3);
+        productRepository.update(product);
+        long updated = productRepository.version();
+        assertTrue(updated > created);
+        productRepository.adjustQuantity(product.getProductId(), 1);
+        assertTrue(productRepository.version() > updated);
+        long adjusted = productRepository.version();
+        productRepository.delete(product.getProductId());
+        assertTrue(productRepository.version() > adjusted);
+        assertTrue(productRepository.lastModified() <= System.currentTimeMillis());
+    }
+
+    private static <T> BatchOperation<T> operation(BatchOperation.Type type, String id, T item) {
+        BatchOperation<T> operation = new BatchOperation<>();
+        operation.setType(type);
+        operation.setId(id);
+        operation.setItem(item);
+        return operation;
+    }
+
+    @Test
+    void testSnapshot_SharedUntilNextChange() {
+        productRepository.create(product);
+        List<Product> first = productRepository.snapshot();
+
+        assertSame(first, productRepository.snapshot());
+        assertEquals(List.of(product), first);
+        assertThrows(UnsupportedOperationException.class, () -> first.add(product));
+
+        Product other = new Product();
+        other.setProductName("Other");
+        productRepository.create(other);
+        List<Product> second = productRepository.snapshot();
+
+        assertNotSame(first, second);
+        assertEquals(List.of(product, other), second);
+        assertEquals(1, first.size());
+        productRepository.delete(product.getProductId());
+        assertEquals(List.of(other), productRepository.snapshot());
+        assertEquals(2, second.size());
+    }
+
+    @Test
+    void testSnapshot_IsAlwaysAPrefixWhileWriting() throws InterruptedException {
+        int count = 2000;
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < count; i++) {
+                Product created = new Product();
+                created.setProductId("p-" + i);
+                productRepository.create(created);
+            }
+        });
+        writer.start();
+        List<Product> snapshot;
+        do {
+            snapshot = productRepository.snapshot();
+            for (int i = 0; i < snapshot.size(); i++) {
+                assertEquals("p-" + i, snapshot.get(i).getProductId());
+            }
+        } while (writer.isAlive());
+        writer.join();
+
+        assertEquals(count, productRepository.snapshot().size());
+    }
 }
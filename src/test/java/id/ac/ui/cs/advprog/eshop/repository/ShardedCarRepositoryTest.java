@@ -0,0 +1,110 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import id.ac.ui.cs.advprog.eshop.model.BatchOperation;
+import id.ac.ui.cs.advprog.eshop.model.BatchResult;
+import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.model.CatalogQuery;
+import id.ac.ui.cs.advprog.eshop.model.Page;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedCarRepositoryTest {
+
+    private ShardedCarRepository carRepository;
+
+    @BeforeEach
+    void setUp() {
+        carRepository = new ShardedCarRepository(3);
+    }
+
+    private Car car(String id, String name, String color, int quantity) {
+        Car car = new Car();
+        car.setCarId(id);
+        car.setCarName(name);
+        car.setCarColor(color);
+        car.setCarQuantity(quantity);
+        return carRepository.create(car);
+    }
+
+    @Test
+    void testCreateAllIsOneWrite() {
+        Car first = new Car();
+        first.setCarId("car-1");
+        first.setCarName("Avanza");
+        Car second = new Car();
+        second.setCarName("Xenia");
+        long version = carRepository.version();
+        carRepository.createAll(List.of(first, second));
+
+        assertEquals(version + 1, carRepository.version());
+        assertEquals(2, carRepository.size());
+        assertEquals("Xenia", carRepository.findById(second.getCarId()).getCarName());
+    }
+
+    @Test
+    void testCrudIsRouted() {
+        car("car-1", "Avanza", "Red", 3);
+        Car changes = new Car();
+        changes.setCarName("Xenia");
+        changes.setCarColor("Blue");
+        changes.setCarQuantity(4);
+
+        assertEquals("Xenia", carRepository.update("car-1", changes).getCarName());
+        assertNull(carRepository.update("missing", changes));
+        assertEquals(6, carRepository.adjustQuantity("car-1", 2).getCarQuantity());
+        assertThrows(IllegalArgumentException.class, () -> carRepository.adjustQuantity("car-1", -7));
+
+        carRepository.delete("car-1");
+        assertNull(carRepository.findById("car-1"));
+    }
+
+    @Test
+    void testRebalanceKeepsCarsPagesAndIndexes() {
+        for (int i = 0; i < 90; i++) {
+            car("car-" + i, "Car " + i, i % 3 == 0 ? "Red" : "Blue", i);
+        }
+        carRepository.addNode();
+        carRepository.removeNode("node-1");
+        assertEquals(90, carRepository.size());
+
+        Set<String> paged = new HashSet<>();
+        Page<Car> page = carRepository.findPage((String) null, 7);
+        while (true) {
+            page.getContent().forEach(car -> assertTrue(paged.add(car.getCarId())));
+            if (!page.hasNext()) {
+                break;
+            }
+            page = carRepository.findPage(page.getNextCursor(), 7);
+        }
+        assertEquals(90, paged.size());
+
+        CatalogQuery query = new CatalogQuery();
+        query.setColor("Red");
+        assertEquals(30, carRepository.query(query, 100).size());
+        assertEquals(1, carRepository.search("car 42", 10).size());
+    }
+
+    @Test
+    void testApplyBatch() {
+        car("car-1", "Avanza", "Red", 3);
+        BatchOperation<Car> update = new BatchOperation<>();
+        update.setType(BatchOperation.Type.UPDATE);
+        update.setId("car-1");
+        update.setItem(new Car());
+        BatchOperation<Car> invalid = new BatchOperation<>();
+        invalid.setType(BatchOperation.Type.DELETE);
+
+        long version = carRepository.version();
+        List<BatchResult> results = carRepository.applyBatch(List.of(invalid, update));
+        assertEquals(BatchResult.Status.REJECTED, results.get(0).getStatus());
+        assertEquals(1, results.get(1).getIndex());
+        assertEquals(BatchResult.Status.UPDATED, results.get(1).getStatus());
+        assertEquals(version + 1, carRepository.version());
+    }
+}
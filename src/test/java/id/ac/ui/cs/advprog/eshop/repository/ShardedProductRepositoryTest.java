@@ -0,0 +1,228 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import id.ac.ui.cs.advprog.eshop.model.BatchOperation;
+import id.ac.ui.cs.advprog.eshop.model.BatchResult;
+import id.ac.ui.cs.advprog.eshop.model.CatalogQuery;
+import id.ac.ui.cs.advprog.eshop.model.Page;
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedProductRepositoryTest {
+
+    private ShardedProductRepository productRepository;
+
+    @BeforeEach
+    void setUp() {
+        productRepository = new ShardedProductRepository(4);
+    }
+
+    private Product product(String id, String name, int quantity) {
+        Product product = new Product();
+        product.setProductId(id);
+        product.setProductName(name);
+        product.setProductQuantity(quantity);
+        return productRepository.create(product);
+    }
+
+    private static BatchOperation<Product> operation(BatchOperation.Type type, String id, Product item) {
+        BatchOperation<Product> operation = new BatchOperation<>();
+        operation.setType(type);
+        operation.setId(id);
+        operation.setItem(item);
+        return operation;
+    }
+
+    private Set<String> allIds() {
+        Set<String> ids = new HashSet<>();
+        productRepository.findAll().forEachRemaining(product -> assertTrue(ids.add(product.getProductId())));
+        return ids;
+    }
+
+    @Test
+    void testRoutesAcrossNodes() {
+        for (int i = 0; i < 400; i++) {
+            product("sku-" + i, "Product " + i, i);
+        }
+        assertEquals(400, productRepository.size());
+        assertEquals(400, allIds().size());
+        Map<String, Integer> sizes = productRepository.nodeSizes();
+        assertEquals(4, sizes.size());
+        sizes.values().forEach(size -> assertTrue(size > 50, "Unbalanced: " + sizes));
+
+        assertEquals(7, productRepository.findById("sku-7").getProductQuantity());
+        assertNotNull(product(null, "Generated", 1).getProductId());
+    }
+
+    @Test
+    void testUpdateAdjustAndDelete() {
+        product("sku-1", "Kopi", 5);
+        Product updated = new Product();
+        updated.setProductId("sku-1");
+        updated.setProductName("Kopi Susu");
+        updated.setProductQuantity(8);
+        productRepository.update(updated);
+        assertEquals("Kopi Susu", productRepository.findById("sku-1").getProductName());
+
+        assertEquals(5, productRepository.adjustQuantity("sku-1", -3).getProductQuantity());
+        assertNull(productRepository.adjustQuantity("missing", 1));
+
+        long version = productRepository.version();
+        productRepository.delete("sku-1");
+        assertTrue(productRepository.version() > version);
+        assertNull(productRepository.findById("sku-1"));
+        assertEquals(0, productRepository.size());
+    }
+
+    @Test
+    void testPagingCoversEveryNodeOnce() {
+        for (int i = 0; i < 103; i++) {
+            product("sku-" + i, "Product " + i, i);
+        }
+        List<String> seen = new ArrayList<>();
+        Page<Product> page = productRepository.findPage((String) null, 10);
+        int pages = 1;
+        while (true) {
+            page.getContent().forEach(product -> seen.add(product.getProductId()));
+            if (!page.hasNext()) {
+                break;
+            }
+            assertEquals(10, page.getContent().size());
+            page = productRepository.findPage(page.getNextCursor(), 10);
+            pages++;
+        }
+        assertEquals(11, pages);
+        assertEquals(103, seen.size());
+        assertEquals(allIds(), new HashSet<>(seen));
+
+        assertEquals(seen.subList(30, 40),
+                productRepository.findPage(3, 10).getContent().stream().map(Product::getProductId).toList());
+        assertTrue(productRepository.findPage(20, 10).getContent().isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> productRepository.findPage("42", 10));
+        assertThrows(IllegalArgumentException.class, () -> productRepository.findPage("node-9:1", 10));
+    }
+
+    @Test
+    void testAddAndRemoveNodeKeepData() {
+        for (int i = 0; i < 500; i++) {
+            product("sku-" + i, "Product " + i, i);
+        }
+        AtomicInteger events = new AtomicInteger();
+        productRepository.addListener(new ChangeListener<>() {
+            @Override
+            public void onSave(Product product) {
+                events.incrementAndGet();
+            }
+
+            @Override
+            public void onDelete(String productId) {
+                events.incrementAndGet();
+            }
+        });
+
+        long versionBefore = productRepository.version();
+        String added = productRepository.addNode();
+        assertEquals(5, productRepository.nodeSizes().size());
+        assertTrue(productRepository.nodeSizes().get(added) > 0);
+        assertEquals(500, productRepository.size());
+
+        productRepository.removeNode("node-0");
+        assertFalse(productRepository.nodeSizes().containsKey("node-0"));
+        assertEquals(500, productRepository.size());
+        assertEquals(500, allIds().size());
+        for (int i = 0; i < 500; i++) {
+            assertEquals(i, productRepository.findById("sku-" + i).getProductQuantity());
+        }
+        assertEquals(0, events.get());
+        assertTrue(productRepository.version() > versionBefore);
+
+        assertThrows(IllegalArgumentException.class, () -> productRepository.removeNode("node-0"));
+    }
+
+    @Test
+    void testCannotRemoveLastNode() {
+        ShardedProductRepository single = new ShardedProductRepository(1);
+        assertThrows(IllegalArgumentException.class, () -> single.removeNode("node-0"));
+        assertThrows(IllegalArgumentException.class, () -> new ShardedProductRepository(0));
+    }
+
+    @Test
+    void testIndexesSpanNodes() {
+        for (int i = 0; i < 50; i++) {
+            product("sku-" + i, i % 2 == 0 ? "Kopi " + i : "Teh " + i, i);
+        }
+        productRepository.addNode();
+        assertEquals(25, productRepository.search("kopi", 100).size());
+
+        CatalogQuery query = new CatalogQuery();
+        query.setContains("teh");
+        assertEquals(25, productRepository.query(query, 100).size());
+
+        productRepository.delete("sku-0");
+        assertEquals(24, productRepository.search("kopi", 100).size());
+    }
+
+    @Test
+    void testCreateAllIsOneWrite() {
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Product product = new Product();
+            product.setProductId("sku-" + i);
+            product.setProductName("Kopi " + i);
+            products.add(product);
+        }
+        long version = productRepository.version();
+        productRepository.createAll(products);
+
+        assertEquals(version + 1, productRepository.version());
+        assertEquals(20, productRepository.size());
+        assertEquals(20, productRepository.search("kopi", 100).size());
+        assertEquals("Kopi 7", productRepository.findById("sku-7").getProductName());
+    }
+
+    @Test
+    void testApplyBatchKeepsIndexes() {
+        product("sku-1", "Kopi", 1);
+        Product created = new Product();
+        created.setProductName("Teh");
+        created.setProductQuantity(2);
+        long version = productRepository.version();
+        List<BatchResult> results = productRepository.applyBatch(List.of(
+                operation(BatchOperation.Type.CREATE, null, created),
+                operation(BatchOperation.Type.DELETE, "sku-1", null),
+                operation(BatchOperation.Type.DELETE, "missing", null)));
+
+        assertEquals(List.of(0, 1, 2), results.stream().map(BatchResult::getIndex).toList());
+        assertEquals(BatchResult.Status.CREATED, results.get(0).getStatus());
+        assertEquals(created.getProductId(), results.get(0).getId());
+        assertEquals(BatchResult.Status.DELETED, results.get(1).getStatus());
+        assertEquals(BatchResult.Status.NOT_FOUND, results.get(2).getStatus());
+        assertEquals(1, productRepository.size());
+        assertEquals(version + 1, productRepository.version());
+    }
+
+    @Test
+    void testSnapshotFollowsRebalancing() {
+        for (int i = 0; i < 100; i++) {
+            product("p-" + i, "Product " + i, i);
+        }
+        List<Product> before = productRepository.snapshot();
+        assertSame(before, productRepository.snapshot());
+
+        productRepository.addNode();
+        List<Product> after = productRepository.snapshot();
+
+        assertNotSame(before, after);
+        assertEquals(100, after.size());
+        assertEquals(allIds(), new HashSet<>(after.stream().map(Product::getProductId).toList()));
+    }
+}
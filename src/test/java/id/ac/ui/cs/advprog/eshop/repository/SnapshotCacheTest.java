@@ -0,0 +1,62 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotCacheTest {
+
+    private final List<String> items = new ArrayList<>();
+    private final AtomicLong version = new AtomicLong();
+    private int writesDuringCopy;
+    private SnapshotCache<String> cache;
+
+    // Lets a write land halfway through each of the first copies, as a concurrent writer would
+    private Iterator<String> source() {
+        List<String> copy = new ArrayList<>(items);
+        if (writesDuringCopy > 0) {
+            writesDuringCopy--;
+            cache.beginWrite();
+            items.add("late-" + writesDuringCopy);
+            version.incrementAndGet();
+            cache.endWrite();
+        }
+        return copy.iterator();
+    }
+
+    @Test
+    void testOverlappingWritesStillYieldOneVersion() {
+        cache = new SnapshotCache<>(version::get, this::source);
+        items.add("first");
+        version.incrementAndGet();
+        writesDuringCopy = SnapshotCache.OPTIMISTIC_ATTEMPTS;
+
+        List<String> snapshot = cache.get();
+
+        assertEquals(List.of("first", "late-1", "late-0"), snapshot);
+        assertEquals(items, snapshot);
+        assertSame(snapshot, cache.get());
+    }
+
+    @Test
+    void testQuietCopyIsShared() {
+        cache = new SnapshotCache<>(version::get, this::source);
+        items.add("first");
+        version.incrementAndGet();
+
+        List<String> snapshot = cache.get();
+        assertEquals(List.of("first"), snapshot);
+        assertSame(snapshot, cache.get());
+
+        cache.beginWrite();
+        items.add("second");
+        version.incrementAndGet();
+        cache.endWrite();
+        assertEquals(List.of("first", "second"), cache.get());
+    }
+}
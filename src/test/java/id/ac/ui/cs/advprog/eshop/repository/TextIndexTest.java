@@ -0,0 +1,93 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TextIndexTest {
+
+    private TextIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new TextIndex();
+        index.put("1", "Sampo Cap Bambang");
+        index.put("2", "Sabun Mandi Cap Bambang");
+        index.put("3", "Sampo Anti Ketombe");
+        index.put("4", "Kopi Bubuk Kapal Api");
+    }
+
+    @Test
+    void testTokenizeFoldsCaseAndAccents() {
+        assertEquals(List.of("creme", "brulee", "2"), TextIndex.tokenize("Cr\u00e8me-BR\u00dbL\u00c9E  (2)"));
+        assertTrue(TextIndex.tokenize(null).isEmpty());
+    }
+
+    @Test
+    void testEveryWordMustMatch() {
+        assertEquals(Set.of("1", "3"), Set.copyOf(index.search("sampo", 10)));
+        assertEquals(List.of("1"), index.search("bambang sampo", 10));
+        assertTrue(index.search("sampo kopi", 10).isEmpty());
+        assertTrue(index.search("  ", 10).isEmpty());
+    }
+
+    @Test
+    void testShorterNamesRankHigher() {
+        assertEquals(List.of("1", "2"), index.search("cap bambang", 10));
+        assertEquals(List.of("1"), index.search("cap bambang", 1));
+
+        index.put("5", "Bambang");
+        assertEquals(List.of("5"), index.search("bambang", 1));
+    }
+
+    @Test
+    void testLastWordMatchesAsPrefix() {
+        assertEquals(List.of("4"), index.search("kopi bub", 10));
+        assertTrue(index.search("bub kopi", 10).isEmpty());
+    }
+
+    @Test
+    void testTyposFallBackToOneEdit() {
+        assertEquals(Set.of("1", "3"), Set.copyOf(index.search("smapo", 10)));
+        assertEquals(List.of("4"), index.search("kopi kapak", 10));
+        assertTrue(index.search("sxmxo", 10).isEmpty());
+    }
+
+    @Test
+    void testWithinOneEdit() {
+        assertTrue(TextIndex.withinOneEdit("sampo", "sampo"));
+        assertTrue(TextIndex.withinOneEdit("sampo", "sampoo"));
+        assertTrue(TextIndex.withinOneEdit("sampo", "samp"));
+        assertTrue(TextIndex.withinOneEdit("sampo", "sambo"));
+        assertTrue(TextIndex.withinOneEdit("sampo", "smapo"));
+        assertFalse(TextIndex.withinOneEdit("sampo", "spmao"));
+        assertFalse(TextIndex.withinOneEdit("sampo", "sam"));
+    }
+
+    @Test
+    void testUpdatesAndRemovesAreReindexed() {
+        index.put("3", "Shampoo Anti Ketombe");
+        assertEquals(List.of("1"), index.search("sampo", 10));
+        assertEquals(List.of("3"), index.search("shampoo", 10));
+
+        index.remove("1");
+        assertTrue(index.search("sampo", 10).isEmpty());
+        assertEquals(List.of("2"), index.search("bambang", 10));
+    }
+
+    @Test
+    void testRenamesSurviveRebuild() {
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 40_000; i++) {
+                index.put("bulk" + i, (round % 2 == 0 ? "teh celup " : "teh tubruk ") + i);
+            }
+        }
+        assertEquals(List.of("bulk39999"), index.search("celup 39999", 10));
+        assertTrue(index.search("tubruk 39999", 10).isEmpty());
+        assertEquals(List.of("4"), index.search("kapal api", 10));
+    }
+}
@@ -0,0 +1,54 @@
+package id.ac.ui.cs.advprog.eshop.service;
+
+import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.repository.CarRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CarServiceImplTest {
+
+    @Mock
+    private CarRepository carRepository;
+
+    @InjectMocks
+    private CarServiceImpl carService;
+
+    private Car car;
+
+    @BeforeEach
+    void setUp() {
+        car = new Car();
+        car.setCarId("client-chosen-id");
+        car.setCarName("Test Car");
+        car.setCarColor("Red");
+        car.setCarQuantity(5);
+    }
+
+    @Test
+    void testCreate_ReplacesClientId() {
+        Car created = carService.create(car);
+        assertNotNull(created.getCarId());
+        assertNotEquals("client-chosen-id", created.getCarId());
+        verify(carRepository).create(car);
+    }
+
+    @Test
+    void testUpdate_ReportsMiss() {
+        when(carRepository.update("missing", car)).thenReturn(null);
+        assertFalse(carService.update("missing", car));
+    }
+
+    @Test
+    void testDeleteCarById_ReportsHit() {
+        when(carRepository.delete("test-car-id")).thenReturn(true);
+        assertTrue(carService.deleteCarById("test-car-id"));
+    }
+}
@@ -0,0 +1,134 @@
+package id.ac.ui.cs.advprog.eshop.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.repository.CarRepository;
+import id.ac.ui.cs.advprog.eshop.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogTransferServiceTest {
+
+    private ProductServiceImpl productService;
+    private CarServiceImpl carService;
+    private CatalogTransferService transferService;
+
+    @BeforeEach
+    void setUp() {
+        productService = new ProductServiceImpl();
+        ReflectionTestUtils.setField(productService, "productRepository", new ProductRepository());
+        carService = new CarServiceImpl();
+        ReflectionTestUtils.setField(carService, "carRepository", new CarRepository());
+        transferService = new CatalogTransferService();
+        ReflectionTestUtils.setField(transferService, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(transferService, "productService", productService);
+        ReflectionTestUtils.setField(transferService, "carService", carService);
+    }
+
+    @Test
+    void testImportProductsCsv() throws IOException {
+        String csv = "productName,productId,productQuantity\n"
+                + "Sampo,p-1,3\n"
+                + "\"Sabun, cair\",,7\n";
+        assertEquals(2, transferService.importProducts(stream(csv), TransferFormat.CSV));
+
+        List<Product> products = productService.findAll();
+        assertEquals("p-1", products.get(0).getProductId());
+        assertEquals(3, products.get(0).getProductQuantity());
+        assertEquals("Sabun, cair", products.get(1).getProductName());
+        assertNotNull(products.get(1).getProductId());
+        assertFalse(products.get(1).getProductId().isBlank());
+    }
+
+    @Test
+    void testImportCarsNdjson() throws IOException {
+        String ndjson = "{\"carId\":\"c-1\",\"carName\":\"Avanza\",\"carColor\":\"Red\",\"carQuantity\":2}\n"
+                + "{\"carName\":\"Jazz\",\"carColor\":\"Blue\",\"carQuantity\":5}\n";
+        assertEquals(2, transferService.importCars(stream(ndjson), TransferFormat.NDJSON));
+
+        Car first = carService.findById("c-1");
+        assertEquals("Avanza", first.getCarName());
+        assertEquals("Red", first.getCarColor());
+        assertEquals(2, carService.findAll().size());
+    }
+
+    @Test
+    void testImportSpansSeveralBatches() throws IOException {
+        StringBuilder ndjson = new StringBuilder();
+        int rows = ProductServiceImpl.IMPORT_BATCH_SIZE * 2 + 1;
+        for (int i = 0; i < rows; i++) {
+            ndjson.append("{\"productName\":\"Product ").append(i).append("\",\"productQuantity\":").append(i).append("}\n");
+        }
+        assertEquals(rows, transferService.importProducts(stream(ndjson.toString()), TransferFormat.NDJSON));
+        assertEquals(rows, productService.findAll().size());
+    }
+
+    @Test
+    void testImportStopsAtMalformedRecord() {
+        String ndjson = "{\"productId\":\"p-1\",\"productName\":\"Sampo\",\"productQuantity\":1}\n"
+                + "{\"productId\":\"p-2\",\"productQuantity\":\"many\"}\n";
+        assertThrows(RuntimeJsonMappingException.class,
+                () -> transferService.importProducts(stream(ndjson), TransferFormat.NDJSON));
+    }
+
+    @Test
+    void testExportProductsNdjsonRoundTrip() throws IOException {
+        Product product = new Product();
+        product.setProductName("Sampo");
+        product.setProductQuantity(4);
+        productService.create(product);
+        Product other = new Product();
+        other.setProductName("Sabun");
+        other.setProductQuantity(9);
+        productService.create(other);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        transferService.exportProducts(out, TransferFormat.NDJSON);
+        String exported = out.toString(StandardCharsets.UTF_8);
+        assertEquals(2, exported.lines().count());
+
+        setUp();
+        assertEquals(2, transferService.importProducts(stream(exported), TransferFormat.NDJSON));
+        assertEquals("Sampo", productService.findById(product.getProductId()).getProductName());
+        assertEquals(9, productService.findById(other.getProductId()).getProductQuantity());
+    }
+
+    @Test
+    void testExportCarsCsv() throws IOException {
+        Car car = new Car();
+        car.setCarId("c-1");
+        car.setCarName("Avanza");
+        car.setCarColor("Red");
+        car.setCarQuantity(2);
+        carService.create(car);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        transferService.exportCars(out, TransferFormat.CSV);
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals("carId,carName,carColor,carQuantity", lines.get(0));
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(1).endsWith(",Avanza,Red,2"));
+    }
+
+    @Test
+    void testUnknownFormat() {
+        assertThrows(IllegalArgumentException.class, () -> TransferFormat.of("xml"));
+        assertEquals(TransferFormat.NDJSON, TransferFormat.of("ndjson"));
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
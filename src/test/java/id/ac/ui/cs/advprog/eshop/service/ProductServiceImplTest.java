@@ -1,5 +1,6 @@
 package id.ac.ui.cs.advprog.eshop.service;
 
+import id.ac.ui.cs.advprog.eshop.model.Page;
 import id.ac.ui.cs.advprog.eshop.model.Product;
 import id.ac.ui.cs.advprog.eshop.repository.ProductRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -48,7 +49,7 @@ class ProductServiceImplTest {
     @Test
     void testFindAll_Success() {
         List<Product> products = Arrays.asList(product);
-        when(productRepository.findAll()).thenReturn(products.iterator());
+        when(productRepository.snapshot()).thenReturn(products);
         List<Product> result = productService.findAll();
         assertEquals(1, result.size());
         assertEquals(product.getProductId(), result.get(0).getProductId());
@@ -56,7 +57,7 @@ class ProductServiceImplTest {
 
     @Test
     void testFindAll_EmptyList() {
-        when(productRepository.findAll()).thenReturn(Collections.emptyIterator());
+        when(productRepository.snapshot()).thenReturn(Collections.emptyList());
         List<Product> result = productService.findAll();
         assertTrue(result.isEmpty());
     }
@@ -85,8 +86,8 @@ class ProductServiceImplTest {
         nonExistentProduct.setProductId("non-existent");
         
 
-        productService.update(nonExistentProduct);
-        
+        assertFalse(productService.update(nonExistentProduct));
+
         verify(productRepository).update(nonExistentProduct);
     }
 
@@ -98,8 +99,22 @@ class ProductServiceImplTest {
 
     @Test
     void testDelete_ProductNotFound() {
-        doNothing().when(productRepository).delete("non-existent");
-        productService.delete("non-existent");
+        when(productRepository.delete("non-existent")).thenReturn(false);
+        assertFalse(productService.delete("non-existent"));
         verify(productRepository).delete("non-existent");
     }
-}
\ No newline at end of file
+
+    @Test
+    void testFindPage_ClampsPageSize() {
+        Page<Product> page = new Page<>(Arrays.asList(product), ProductServiceImpl.MAX_PAGE_SIZE, null);
+        when(productRepository.findPage(0, ProductServiceImpl.MAX_PAGE_SIZE)).thenReturn(page);
+        assertSame(page, productService.findPage(-1, 10_000));
+    }
+
+    @Test
+    void testFindPage_ByCursor() {
+        Page<Product> page = new Page<>(Arrays.asList(product), 1, null);
+        when(productRepository.findPage("7", 1)).thenReturn(page);
+        assertSame(page, productService.findPage("7", 0));
+    }
+}
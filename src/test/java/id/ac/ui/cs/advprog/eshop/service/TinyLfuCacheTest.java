@@ -0,0 +1,165 @@
+package id.ac.ui.cs.advprog.eshop.service;
+
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TinyLfuCacheTest {
+
+    private AtomicLong now;
+    private AtomicInteger loads;
+    private TinyLfuCache<String> cache;
+
+    @BeforeEach
+    void setUp() {
+        now = new AtomicLong();
+        loads = new AtomicInteger();
+        cache = new TinyLfuCache<>(100, Duration.ofSeconds(10), now::get);
+    }
+
+    private String load(String id) {
+        loads.incrementAndGet();
+        return "value-" + id;
+    }
+
+    @Test
+    void testReadThrough() {
+        assertEquals("value-a", cache.get("a", this::load));
+        assertEquals("value-a", cache.get("a", this::load));
+        assertEquals(1, loads.get());
+
+        CacheStats stats = cache.stats();
+        assertEquals(1, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(1, stats.getSize());
+        assertEquals(0.5, stats.hitRate());
+    }
+
+    @Test
+    void testNullIsNotCached() {
+        assertNull(cache.get("missing", id -> null));
+        assertEquals("value-missing", cache.get("missing", this::load));
+        assertEquals(2, cache.stats().getMisses());
+    }
+
+    @Test
+    void testNullIdGoesToTheLoader() {
+        ProductRepository productRepository = new ProductRepository();
+        assertNull(cache.get(null, id -> productRepository.findById(id) == null ? null : "found"));
+        assertEquals("value-null", cache.get(null, this::load));
+        assertEquals(0, cache.stats().getSize());
+    }
+
+    @Test
+    void testEntriesExpire() {
+        cache.get("a", this::load);
+        now.addAndGet(Duration.ofSeconds(9).toNanos());
+        cache.get("a", this::load);
+        assertEquals(1, loads.get());
+
+        now.addAndGet(Duration.ofSeconds(2).toNanos());
+        cache.get("a", this::load);
+        assertEquals(2, loads.get());
+        assertEquals(1, cache.stats().getExpirations());
+    }
+
+    @Test
+    void testInvalidate() {
+        cache.get("a", this::load);
+        cache.invalidate("a");
+        cache.get("a", this::load);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testLoadRacingAnInvalidationIsNotCached() {
+        cache.get("a", id -> {
+            cache.invalidate(id);
+            return "stale";
+        });
+        assertEquals("value-a", cache.get("a", this::load));
+    }
+
+    @Test
+    void testSizeIsBounded() {
+        for (int i = 0; i < 1000; i++) {
+            cache.get("key-" + i, this::load);
+        }
+        CacheStats stats = cache.stats();
+        assertEquals(100, stats.getSize());
+        assertEquals(900, stats.getEvictions());
+    }
+
+    @Test
+    void testFrequentEntriesSurviveAScan() {
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 50; i++) {
+                cache.get("hot-" + i, this::load);
+            }
+        }
+        for (int i = 0; i < 10_000; i++) {
+            cache.get("scan-" + i, this::load);
+        }
+        loads.set(0);
+        for (int i = 0; i < 50; i++) {
+            cache.get("hot-" + i, this::load);
+        }
+        assertTrue(loads.get() <= 5, "hot entries reloaded: " + loads.get());
+    }
+
+    @Test
+    void testConcurrentHitsAreCountedAndKeepTheCacheConsistent() throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            pool.execute(() -> {
+                for (int i = 0; i < 20_000; i++) {
+                    cache.get("key-" + (i % 150), this::load);
+                }
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+
+        CacheStats stats = cache.stats();
+        assertEquals(160_000, stats.getHits() + stats.getMisses());
+        assertEquals(100, stats.getSize());
+        assertEquals(loads.get(), stats.getMisses());
+    }
+
+    @Test
+    void testRepositoryWritesInvalidate() {
+        ProductRepository repository = new ProductRepository();
+        LookupCache<Product> productCache = new TinyLfuCache<>(100, Duration.ofMinutes(1));
+        repository.addListener(productCache.invalidator(Product::getProductId));
+
+        Product product = new Product();
+        product.setProductId("p-1");
+        product.setProductName("Sampo");
+        repository.create(product);
+        assertEquals("Sampo", productCache.get("p-1", repository::findById).getProductName());
+
+        Product updated = new Product();
+        updated.setProductId("p-1");
+        updated.setProductName("Sabun");
+        repository.update(updated);
+        assertEquals("Sabun", productCache.get("p-1", repository::findById).getProductName());
+
+        repository.delete("p-1");
+        assertNull(productCache.get("p-1", repository::findById));
+    }
+
+    @Test
+    void testRejectsTinyCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new TinyLfuCache<String>(1, Duration.ofSeconds(1)));
+    }
+}